@@ -0,0 +1,233 @@
+package com.alexrnl.commons.database.sql;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alexrnl.commons.database.Dummy;
+import com.alexrnl.commons.database.Dummy.DummyColumn;
+import com.alexrnl.commons.database.dao.DataSourceConfiguration;
+import com.alexrnl.commons.database.h2.H2Utils;
+import com.alexrnl.commons.database.structure.Column;
+
+/**
+ * Benchmarks of the {@link SQLDAO} operations against an in-memory H2 database.<br />
+ * The table is filled with {@link #tableSize} entities before each trial, the entities created by
+ * the {@link #create()} benchmark are deleted after each iteration so the table keeps its size. The
+ * benchmarks report the throughput of the operations, the allocation rate is reported by the GC
+ * profiler, which is enabled by default. The benchmarks run with a single thread, the
+ * {@link SQLDAOContendedBenchmark} runs them with several threads sharing the DAO. Run with:
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec
+ * mvn -P benchmark test-compile exec:exec -Djmh.args="-prof gc SQLDAOBenchmark"
+ * </pre>
+ * The second command runs the single thread benchmarks only.
+ * @author Alex
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLDAOBenchmark {
+	/** The size of the connection pool, enough for the thread counts benchmarked */
+	static final int			POOL_SIZE	= 8;
+	
+	/** The number of entities in the table */
+	@Param({ "100", "10000" })
+	private int					tableSize;
+	
+	/** The pool of connections */
+	private ConnectionPool		pool;
+	/** The DAO benchmarked */
+	private DummySQLDAO			dao;
+	/** The ids of the entities in the table */
+	private int[]				ids;
+	/** The greatest id of the entities of the table when it has been filled */
+	private int					lastId;
+	/** The name column */
+	private Column				nameColumn;
+	/** The id column */
+	private Column				idColumn;
+	
+	/**
+	 * The state of a benchmark thread.
+	 * @author Alex
+	 */
+	@State(Scope.Thread)
+	public static class ThreadState {
+		/** The seeds of the threads, so the threads do not access the same entities */
+		private static final AtomicInteger	SEEDS	= new AtomicInteger(42);
+		
+		/** The random generator of the thread */
+		private final Random				random	= new Random(SEEDS.getAndIncrement());
+		
+		/**
+		 * Return the index of a random entity of the table.
+		 * @param size
+		 *        the size of the table.
+		 * @return the index of the entity.
+		 */
+		private int nextIndex (final int size) {
+			return random.nextInt(size);
+		}
+	}
+	
+	/**
+	 * Create the database and fill the table.
+	 * @throws SQLException
+	 *         if the DAO could not be created.
+	 * @throws URISyntaxException
+	 *         if the creation script could not be found.
+	 */
+	@Setup(Level.Trial)
+	public void setUp () throws SQLException, URISyntaxException {
+		// A new database for each trial, the trials may run in the same JVM
+		final String url = "jdbc:h2:mem:benchmark" + tableSize + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+		H2Utils.initDatabase(new DataSourceConfiguration(url, "", "",
+				Paths.get(getClass().getResource("/createBenchmarkDB.sql").toURI())));
+		pool = new ConnectionPool(url, "", "", POOL_SIZE);
+		dao = new DummySQLDAO(pool);
+		dao.warmUp();
+		
+		final List<Dummy> dummies = new ArrayList<>(tableSize);
+		for (int index = 0; index < tableSize; ++index) {
+			dummies.add(new Dummy("name-" + index));
+		}
+		final List<Dummy> created = dao.createAll(dummies);
+		ids = new int[created.size()];
+		for (int index = 0; index < ids.length; ++index) {
+			ids[index] = created.get(index).getId();
+			lastId = Math.max(lastId, ids[index]);
+		}
+		nameColumn = Dummy.getColumns().get(DummyColumn.NAME);
+		idColumn = Dummy.getColumns().get(DummyColumn.ID);
+	}
+	
+	/**
+	 * Delete the entities created during the iteration, so the size of the table is the same for
+	 * all the iterations.
+	 * @throws SQLException
+	 *         if the entities could not be deleted.
+	 */
+	@TearDown(Level.Iteration)
+	public void deleteCreated () throws SQLException {
+		final Connection connection = pool.acquire();
+		try (final PreparedStatement delete = connection.prepareStatement("DELETE FROM "
+				+ new Dummy().getEntityName() + " WHERE " + idColumn.getName() + " > ?")) {
+			delete.setInt(1, lastId);
+			delete.executeUpdate();
+		} finally {
+			pool.release(connection);
+		}
+	}
+	
+	/**
+	 * Close the DAO and the database.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 * @throws SQLException
+	 *         if the database could not be dropped.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown () throws IOException, SQLException {
+		dao.close();
+		final Connection connection = pool.acquire();
+		try (final Statement drop = connection.createStatement()) {
+			drop.execute("DROP ALL OBJECTS");
+		} finally {
+			pool.release(connection);
+		}
+		pool.close();
+	}
+	
+	/**
+	 * Benchmark of {@link SQLDAO#create(com.alexrnl.commons.database.structure.Entity)}.
+	 * @return the entity created.
+	 */
+	@Benchmark
+	public Dummy create () {
+		return dao.create(new Dummy("created"));
+	}
+	
+	/**
+	 * Benchmark of {@link SQLDAO#find(int)}.
+	 * @param state
+	 *        the state of the thread.
+	 * @return the entity found.
+	 */
+	@Benchmark
+	public Dummy find (final ThreadState state) {
+		return dao.find(ids[state.nextIndex(ids.length)]);
+	}
+	
+	/**
+	 * Benchmark of {@link SQLDAO#update(com.alexrnl.commons.database.structure.Entity)}.
+	 * @param state
+	 *        the state of the thread.
+	 * @return <code>true</code> if the entity was updated.
+	 */
+	@Benchmark
+	public boolean update (final ThreadState state) {
+		final int index = state.nextIndex(ids.length);
+		final Dummy dummy = new Dummy(ids[index]);
+		dummy.setName("name-" + index);
+		return dao.update(dummy);
+	}
+	
+	/**
+	 * Benchmark of {@link SQLDAO#search(Column, String)} with the LIKE operator.
+	 * @param state
+	 *        the state of the thread.
+	 * @return the entities found.
+	 */
+	@Benchmark
+	public Set<Dummy> searchLike (final ThreadState state) {
+		return dao.search(nameColumn, "name-" + state.nextIndex(ids.length) + "%");
+	}
+	
+	/**
+	 * Benchmark of {@link SQLDAO#search(Column, String)} with the equals operator.
+	 * @param state
+	 *        the state of the thread.
+	 * @return the entities found.
+	 */
+	@Benchmark
+	public Set<Dummy> searchEquals (final ThreadState state) {
+		return dao.search(idColumn, Integer.toString(ids[state.nextIndex(ids.length)]));
+	}
+	
+	/**
+	 * Benchmark of {@link SQLDAO#retrieveAll()}.
+	 * @return the entities of the table.
+	 */
+	@Benchmark
+	public Set<Dummy> retrieveAll () {
+		return dao.retrieveAll();
+	}
+}
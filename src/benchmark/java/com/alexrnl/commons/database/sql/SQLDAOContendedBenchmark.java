@@ -0,0 +1,14 @@
+package com.alexrnl.commons.database.sql;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * The {@link SQLDAOBenchmark benchmarks of the SQLDAO} run with several threads sharing the DAO
+ * and its pool of connections.<br />
+ * The number of threads can be changed with the <code>-t</code> option of JMH, up to the
+ * {@link SQLDAOBenchmark#POOL_SIZE size of the pool}.
+ * @author Alex
+ */
+@Threads(4)
+public class SQLDAOContendedBenchmark extends SQLDAOBenchmark {
+}
@@ -0,0 +1,9 @@
+-- ============================================================
+--	Table: DUMMY
+-- ============================================================
+CREATE TABLE Dummy (
+	id		INT(10) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+	name	VARCHAR(45)	NOT NULL
+);
+
+commit;
@@ -2,14 +2,26 @@ package com.alexrnl.commons.database.dao;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.alexrnl.commons.database.dao.DAOStatistics.Operation;
 import com.alexrnl.commons.database.structure.Entity;
 import com.alexrnl.commons.error.ExceptionUtils;
 
@@ -23,17 +35,98 @@ import com.alexrnl.commons.error.ExceptionUtils;
  * needs.
  * The {@link DAO} should be registered by using the {@link #addDAO(Class, DAO)} method. This will
  * allow to automatically close the {@link DAO}s by the abstract factory.<br />
+ * The DAOs which are expensive to build, or which may not be used by every process, can rather
+ * be registered with a {@link #addDAOSupplier(Class, DAOSupplier) supplier}: the DAO is then built
+ * on the first {@link #getDAO(Class) request}, or beforehand by {@link #warmUp(Collection)}. The
+ * registry of the DAOs can be used from several threads.<br />
+ * The {@link #getAsyncDAO(Class) asynchronous DAOs} share the executor of the factory, which is
+ * shut down along with the factory.<br />
+ * The statistics of the {@link MonitoredDAO monitored DAOs} are registered as MBeans in the
+ * platform MBean server, under the {@link #STATISTICS_DOMAIN} domain, until the factory is closed.
  * @author Alex
  */
 public abstract class AbstractDAOFactory implements Closeable {
 	/** Logger */
-	private static final Logger											LG	= Logger.getLogger(AbstractDAOFactory.class.getName());
+	private static final Logger											LG					= Logger.getLogger(AbstractDAOFactory.class.getName());
+	/** The domain of the MBeans of the DAO statistics */
+	public static final String											STATISTICS_DOMAIN	= "com.alexrnl.commons.database";
 	
 	/** The database configuration information */
 	private final DataSourceConfiguration								dataSourceConfig;
 	
 	/** Map containing all the DAOs which keys are the class they manage */
-	private final Map<Class<? extends Entity>, DAO<? extends Entity>>	daos;
+	private final Map<Class<? extends Entity>, Registration<?>>			daos;
+	/** The executor of the asynchronous DAOs, created on first use */
+	private ExecutorService												executor;
+	
+	/**
+	 * The DAO registered for a class, built on its first use when it has a supplier.
+	 * @author Alex
+	 * @param <T>
+	 *        The type of object manipulated by the DAO.
+	 */
+	private final class Registration<T extends Entity> {
+		/** The class managed by the DAO */
+		private final Class<T>			entityClass;
+		/** The supplier of the DAO, <code>null</code> if the DAO was registered directly */
+		private final DAOSupplier<T>	supplier;
+		/** The DAO, <code>null</code> until it is built */
+		private volatile DAO<T>			dao;
+		/** <code>true</code> once the DAO has been built */
+		private volatile boolean		built;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param entityClass
+		 *        the class managed by the DAO.
+		 * @param supplier
+		 *        the supplier of the DAO.
+		 * @param dao
+		 *        the DAO, <code>null</code> if it should be built by the supplier.
+		 */
+		private Registration (final Class<T> entityClass, final DAOSupplier<T> supplier, final DAO<T> dao) {
+			super();
+			this.entityClass = entityClass;
+			this.supplier = supplier;
+			this.dao = dao;
+			this.built = supplier == null;
+		}
+		
+		/**
+		 * Return the DAO, building it if required.<br />
+		 * The DAO is built once, even when requested by several threads at the same time.
+		 * @return the DAO, <code>null</code> if it could not be built.
+		 */
+		private DAO<T> get () {
+			if (!built) {
+				synchronized (this) {
+					if (!built) {
+						build();
+					}
+				}
+			}
+			return dao;
+		}
+		
+		/**
+		 * Build the DAO with the supplier and register its statistics.
+		 */
+		private void build () {
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Building DAO on class " + entityClass);
+			}
+			try {
+				dao = supplier.get();
+			} catch (final Exception e) {
+				LG.warning("Could not build DAO on class " + entityClass + ": " + ExceptionUtils.display(e));
+				return;
+			}
+			built = true;
+			if (dao instanceof MonitoredDAO) {
+				registerStatistics(entityClass, ((MonitoredDAO<T>) dao).getStatistics());
+			}
+		}
+	}
 	
 	/**
 	 * Retrieve and create the appropriate factory using the name of the class.<br />
@@ -85,29 +178,102 @@ public abstract class AbstractDAOFactory implements Closeable {
 	 */
 	public AbstractDAOFactory (final DataSourceConfiguration dataSourceConfig) {
 		super();
-		daos = new HashMap<>();
+		daos = new ConcurrentHashMap<>();
 		this.dataSourceConfig = dataSourceConfig;
 	}
 	
 	/**
 	 * Return an {@link Collections#unmodifiableCollection(Collection) unmodifiable collection} of
-	 * the DAOs build with the factory.
+	 * the DAOs build with the factory.<br />
+	 * The DAOs registered with a supplier are included once they have been built.
 	 * @return the {@link DAO}s.
 	 */
 	public Collection<DAO<? extends Entity>> getDAOs () {
-		return Collections.unmodifiableCollection(daos.values());
+		final List<DAO<? extends Entity>> built = new ArrayList<>(daos.size());
+		for (final Registration<?> registration : daos.values()) {
+			if (registration.built) {
+				built.add(registration.dao);
+			}
+		}
+		return Collections.unmodifiableCollection(built);
 	}
 	
 	/**
 	 * Get the DAO for the specified class.<br />
+	 * A DAO registered with a {@link #addDAOSupplier(Class, DAOSupplier) supplier} is built on the
+	 * first call.
 	 * @param <T>
 	 *        the type of object manipulated by the DAO.
 	 * @param entityClass
 	 *        the entity class to get the DAO from.
-	 * @return the DAO associated to the class.
+	 * @return the DAO associated to the class, <code>null</code> if there is no DAO for this class
+	 *         or if it could not be built.
 	 */
 	public <T extends Entity> DAO<T> getDAO (final Class<T> entityClass) {
-		return (DAO<T>) daos.get(entityClass);
+		final Registration<T> registration = (Registration<T>) daos.get(entityClass);
+		if (registration == null) {
+			return null;
+		}
+		return registration.get();
+	}
+	
+	/**
+	 * Build the DAOs of the classes specified, in parallel on the {@link #getExecutor() executor}
+	 * of the factory.<br />
+	 * The {@link WarmableDAO warmable DAOs} are also {@link WarmableDAO#warmUp() warmed up}.
+	 * This allows the services which are sensitive to latency to pay the cost of the DAOs upfront.
+	 * The method returns once all the DAOs are ready.
+	 * @param entityClasses
+	 *        the classes whose DAO should be built.
+	 * @return <code>true</code> if all the DAOs are ready, <code>false</code> if a DAO is missing
+	 *         or could not be built.
+	 */
+	public boolean warmUp (final Collection<Class<? extends Entity>> entityClasses) {
+		final List<Future<Boolean>> results = new ArrayList<>(entityClasses.size());
+		for (final Class<? extends Entity> entityClass : entityClasses) {
+			results.add(getExecutor().submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call () throws Exception {
+					final DAO<? extends Entity> dao = getDAO(entityClass);
+					if (dao instanceof WarmableDAO) {
+						((WarmableDAO<?>) dao).warmUp();
+					}
+					return dao != null;
+				}
+			}));
+		}
+		
+		boolean ready = true;
+		for (final Future<Boolean> result : results) {
+			try {
+				ready &= result.get();
+			} catch (final ExecutionException e) {
+				LG.warning("Could not warm up DAO: " + ExceptionUtils.display(e));
+				ready = false;
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return ready;
+	}
+	
+	/**
+	 * Get an asynchronous facade of the DAO for the specified class.<br />
+	 * The operations are run on the {@link #getExecutor() executor} of the factory.
+	 * @param <T>
+	 *        the type of object manipulated by the DAO.
+	 * @param entityClass
+	 *        the entity class to get the DAO from.
+	 * @return the asynchronous DAO associated to the class, <code>null</code> if there is no DAO for
+	 *         this class.
+	 */
+	public <T extends Entity> AsyncDAO<T> getAsyncDAO (final Class<T> entityClass) {
+		final DAO<T> dao = getDAO(entityClass);
+		if (dao == null) {
+			return null;
+		}
+		return new AsyncDAO<>(dao, getExecutor());
 	}
 	
 	/**
@@ -120,20 +286,123 @@ public abstract class AbstractDAOFactory implements Closeable {
 	 *        the {@link DAO} of the class.
 	 */
 	protected <T extends Entity> void addDAO (final Class<T> entityClass, final DAO<T> dao) {
-		if (daos.containsKey(entityClass)) {
-			try {
-				if (LG.isLoggable(Level.INFO)) {
-					LG.info("Closing previously installed DAO on class " + entityClass);
-				}
-				final DAO<? extends Entity> oldDAO = daos.remove(entityClass);
-				if (oldDAO != null) {
-					oldDAO.close();
+		replace(entityClass, new Registration<>(entityClass, null, dao));
+		if (dao instanceof MonitoredDAO) {
+			registerStatistics(entityClass, ((MonitoredDAO<T>) dao).getStatistics());
+		}
+	}
+	
+	/**
+	 * Add the supplier of a DAO to the map.<br />
+	 * The DAO will be built by the supplier on its first use.
+	 * @param <T>
+	 *        the type of object manipulated by the DAO.
+	 * @param entityClass
+	 *        the class manage by the DAO.
+	 * @param supplier
+	 *        the supplier of the {@link DAO} of the class.
+	 */
+	protected <T extends Entity> void addDAOSupplier (final Class<T> entityClass, final DAOSupplier<T> supplier) {
+		if (supplier == null) {
+			throw new IllegalArgumentException("Cannot register a null supplier for class " + entityClass);
+		}
+		replace(entityClass, new Registration<>(entityClass, supplier, null));
+	}
+	
+	/**
+	 * Replace the DAO registered for a class, closing the previous DAO.
+	 * @param entityClass
+	 *        the class manage by the DAO.
+	 * @param registration
+	 *        the new registration of the class.
+	 */
+	private void replace (final Class<? extends Entity> entityClass, final Registration<?> registration) {
+		final Registration<?> previous = daos.put(entityClass, registration);
+		if (previous != null) {
+			unregisterStatistics(entityClass);
+			closePrevious(previous);
+		}
+	}
+	
+	/**
+	 * Close the DAO of a previous registration, if it has been built.
+	 * @param registration
+	 *        the previous registration.
+	 */
+	private void closePrevious (final Registration<?> registration) {
+		// Wait for a DAO being built
+		synchronized (registration) {
+			if (!registration.built || registration.dao == null) {
+				return;
+			}
+		}
+		try {
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Closing previously installed DAO on class " + registration.entityClass);
+			}
+			registration.dao.close();
+		} catch (final IOException e) {
+			LG.warning("Error while closing DAO: " + ExceptionUtils.display(e));
+		}
+	}
+	
+	/**
+	 * Return the name of the MBean of the statistics of an operation of a DAO.<br />
+	 * The name has the keys <code>type=DAOStatistics</code>, <code>factory</code> (the class and
+	 * identity of the factory), <code>entity</code> (the fully qualified name of the class managed
+	 * by the DAO) and <code>operation</code>.
+	 * @param entityClass
+	 *        the class managed by the DAO.
+	 * @param operation
+	 *        the operation.
+	 * @return the name of the MBean.
+	 * @throws JMException
+	 *         if the name is not valid.
+	 */
+	protected ObjectName getStatisticsName (final Class<? extends Entity> entityClass,
+			final Operation operation) throws JMException {
+		return new ObjectName(STATISTICS_DOMAIN + ":type=DAOStatistics,factory=" + getClass().getName()
+				+ "@" + Integer.toHexString(System.identityHashCode(this)) + ",entity="
+				+ entityClass.getName() + ",operation=" + operation.getOperationName());
+	}
+	
+	/**
+	 * Register the statistics of a DAO in the platform MBean server.
+	 * @param entityClass
+	 *        the class managed by the DAO.
+	 * @param statistics
+	 *        the statistics of the DAO.
+	 */
+	private void registerStatistics (final Class<? extends Entity> entityClass, final DAOStatistics statistics) {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (final Operation operation : Operation.values()) {
+				server.registerMBean(statistics.get(operation), getStatisticsName(entityClass, operation));
+			}
+		} catch (final JMException e) {
+			LG.warning("Could not register statistics of DAO for class " + entityClass + ": "
+					+ ExceptionUtils.display(e));
+		}
+	}
+	
+	/**
+	 * Unregister the statistics of a DAO from the platform MBean server, if they were registered.
+	 * @param entityClass
+	 *        the class managed by the DAO.
+	 */
+	private void unregisterStatistics (final Class<? extends Entity> entityClass) {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (final Operation operation : Operation.values()) {
+				final ObjectName name = getStatisticsName(entityClass, operation);
+				if (server.isRegistered(name)) {
+					server.unregisterMBean(name);
 				}
-			} catch (final IOException e) {
-				LG.warning("Error while closing DAO: " + ExceptionUtils.display(e));
 			}
+		} catch (final JMException e) {
+			LG.warning("Could not unregister statistics of DAO for class " + entityClass + ": "
+					+ ExceptionUtils.display(e));
 		}
-		daos.put(entityClass, dao);
 	}
 	
 	/**
@@ -144,10 +413,49 @@ public abstract class AbstractDAOFactory implements Closeable {
 		return dataSourceConfig;
 	}
 	
+	/**
+	 * Return the executor running the operations of the asynchronous DAOs.<br />
+	 * The executor is created on the first call, using {@link #createExecutor()}, and shut down
+	 * when the factory is closed.
+	 * @return the executor.
+	 */
+	protected synchronized ExecutorService getExecutor () {
+		if (executor == null) {
+			executor = createExecutor();
+		}
+		return executor;
+	}
+	
+	/**
+	 * Create the executor running the operations of the asynchronous DAOs.<br />
+	 * The default executor is {@link AsyncDAO#newBoundedExecutor(int, int) bounded}, with as many
+	 * threads as connections in the pool. Sub-classes may override this method to provide their own
+	 * executor.
+	 * @return the new executor.
+	 */
+	protected ExecutorService createExecutor () {
+		final int threads = dataSourceConfig == null ? DataSourceConfiguration.DEFAULT_POOL_SIZE
+				: dataSourceConfig.getPoolSize();
+		if (LG.isLoggable(Level.INFO)) {
+			LG.info("Creating executor with " + threads + " threads for asynchronous DAOs");
+		}
+		return AsyncDAO.newBoundedExecutor(threads, AsyncDAO.DEFAULT_QUEUE_SIZE);
+	}
+	
 	@Override
 	public void close () throws IOException {
-		for (final DAO<? extends Entity> dao : daos.values()) {
-			dao.close();
+		synchronized (this) {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
+		for (final Class<? extends Entity> entityClass : daos.keySet()) {
+			unregisterStatistics(entityClass);
+		}
+		for (final Registration<?> registration : daos.values()) {
+			if (registration.built && registration.dao != null) {
+				registration.dao.close();
+			}
 		}
 	}
 	
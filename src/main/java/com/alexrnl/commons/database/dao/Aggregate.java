@@ -0,0 +1,37 @@
+package com.alexrnl.commons.database.dao;
+
+/**
+ * The aggregate functions which can be computed on a column.
+ * @author Alex
+ * @see DAO#aggregate(Aggregate, com.alexrnl.commons.database.structure.Column,
+ *      com.alexrnl.commons.database.structure.Column)
+ */
+public enum Aggregate {
+	/** The minimum value of the column */
+	MIN ("MIN"),
+	/** The maximum value of the column */
+	MAX ("MAX"),
+	/** The sum of the values of the column */
+	SUM ("SUM");
+	
+	/** The SQL function of the aggregate */
+	private final String	function;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param function
+	 *        the SQL function of the aggregate.
+	 */
+	private Aggregate (final String function) {
+		this.function = function;
+	}
+	
+	/**
+	 * Return the SQL function of the aggregate.
+	 * @return the function.
+	 */
+	public String getFunction () {
+		return function;
+	}
+
+}
@@ -0,0 +1,445 @@
+package com.alexrnl.commons.database.dao;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * Asynchronous facade of a {@link DAO}.<br />
+ * The operations are submitted to an executor and return immediately a {@link Future} of their
+ * result, which allows to pipeline several operations. The executor should be bounded: the
+ * {@link #newBoundedExecutor(int, int) bounded executors} run the operations in the calling
+ * thread when their queue is full, which slows down the callers until the queue is drained.<br />
+ * The DAO decorated must be thread-safe when the executor has several threads.
+ * @author Alex
+ * @param <T>
+ *        The class of the object to manipulate.
+ */
+public class AsyncDAO<T extends Entity> implements Closeable {
+	/** Logger */
+	private static final Logger		LG					= Logger.getLogger(AsyncDAO.class.getName());
+	/** The default number of operations which can wait for a thread of a bounded executor */
+	public static final int			DEFAULT_QUEUE_SIZE	= 1000;
+	
+	/** The DAO to use */
+	private final DAO<T>			dao;
+	/** The executor running the operations */
+	private final ExecutorService	executor;
+	/** <code>true</code> if the executor is shut down along with the DAO */
+	private final boolean			ownExecutor;
+	
+	/**
+	 * Constructor #1.<br />
+	 * The executor is not shut down when this DAO is closed.
+	 * @param dao
+	 *        the DAO to use.
+	 * @param executor
+	 *        the executor which runs the operations.
+	 */
+	public AsyncDAO (final DAO<T> dao, final ExecutorService executor) {
+		this(dao, executor, false);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * Build a {@link #newBoundedExecutor(int, int) bounded executor} which is shut down when this
+	 * DAO is closed.
+	 * @param dao
+	 *        the DAO to use.
+	 * @param threads
+	 *        the number of threads running the operations.
+	 * @param queueSize
+	 *        the number of operations which can wait for a thread.
+	 */
+	public AsyncDAO (final DAO<T> dao, final int threads, final int queueSize) {
+		this(dao, newBoundedExecutor(threads, queueSize), true);
+	}
+	
+	/**
+	 * Constructor #3.<br />
+	 * @param dao
+	 *        the DAO to use.
+	 * @param executor
+	 *        the executor which runs the operations.
+	 * @param ownExecutor
+	 *        <code>true</code> if the executor should be shut down along with the DAO.
+	 */
+	private AsyncDAO (final DAO<T> dao, final ExecutorService executor, final boolean ownExecutor) {
+		super();
+		if (dao == null || executor == null) {
+			throw new IllegalArgumentException("DAO and executor cannot be null");
+		}
+		this.dao = dao;
+		this.executor = executor;
+		this.ownExecutor = ownExecutor;
+	}
+	
+	/**
+	 * Build an executor with a fixed number of threads and a bounded queue.<br />
+	 * When the queue is full, the operations submitted are run by the submitting thread, which
+	 * applies back pressure on the callers. Once the executor is shut down, the operations
+	 * submitted are rejected with a {@link RejectedExecutionException}. The threads are daemon
+	 * threads.
+	 * @param threads
+	 *        the number of threads of the executor.
+	 * @param queueSize
+	 *        the number of operations which can wait for a thread.
+	 * @return the executor.
+	 */
+	public static ExecutorService newBoundedExecutor (final int threads, final int queueSize) {
+		if (threads < 1 || queueSize < 1) {
+			throw new IllegalArgumentException("Thread count and queue size must be strictly positive (were "
+					+ threads + " and " + queueSize + ")");
+		}
+		return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+					/** The number of threads created */
+					private final AtomicInteger	count	= new AtomicInteger(0);
+					
+					@Override
+					public Thread newThread (final Runnable runnable) {
+						final Thread thread = new Thread(runnable, "async-dao-" + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new RejectedExecutionHandler() {
+					@Override
+					public void rejectedExecution (final Runnable runnable, final ThreadPoolExecutor pool) {
+						if (pool.isShutdown()) {
+							throw new RejectedExecutionException("Executor has been shut down");
+						}
+						runnable.run();
+					}
+				});
+	}
+	
+	/**
+	 * Return the DAO used to run the operations.
+	 * @return the DAO.
+	 */
+	public DAO<T> getDAO () {
+		return dao;
+	}
+	
+	/**
+	 * Asynchronous create operation.
+	 * @param obj
+	 *        the object to create.
+	 * @return the future result of {@link DAO#create(Entity)}.
+	 */
+	public Future<T> create (final T obj) {
+		return executor.submit(new Callable<T>() {
+			@Override
+			public T call () {
+				return dao.create(obj);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous read operation.
+	 * @param id
+	 *        the id of the object to retrieve.
+	 * @return the future result of {@link DAO#find(int)}.
+	 */
+	public Future<T> find (final int id) {
+		return executor.submit(new Callable<T>() {
+			@Override
+			public T call () {
+				return dao.find(id);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous batch read operation.
+	 * @param ids
+	 *        the ids of the objects to retrieve.
+	 * @return the future result of {@link DAO#findAll(Collection)}.
+	 */
+	public Future<Map<Integer, T>> findAll (final Collection<Integer> ids) {
+		return executor.submit(new Callable<Map<Integer, T>>() {
+			@Override
+			public Map<Integer, T> call () {
+				return dao.findAll(ids);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous update operation.
+	 * @param obj
+	 *        the object to update.
+	 * @return the future result of {@link DAO#update(Entity)}.
+	 */
+	public Future<Boolean> update (final T obj) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call () {
+				return dao.update(obj);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous save operation.
+	 * @param obj
+	 *        the object to save.
+	 * @return the future result of {@link DAO#save(Entity)}.
+	 */
+	public Future<Boolean> save (final T obj) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call () {
+				return dao.save(obj);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous delete operation.
+	 * @param obj
+	 *        the object to delete.
+	 * @return the future result of {@link DAO#delete(Entity)}.
+	 */
+	public Future<Boolean> delete (final T obj) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call () {
+				return dao.delete(obj);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous batch create operation.
+	 * @param objects
+	 *        the objects to create.
+	 * @return the future result of {@link DAO#createAll(Collection)}.
+	 */
+	public Future<List<T>> createAll (final Collection<T> objects) {
+		return executor.submit(new Callable<List<T>>() {
+			@Override
+			public List<T> call () {
+				return dao.createAll(objects);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous retrieve operation.
+	 * @return the future result of {@link DAO#retrieveAll()}.
+	 */
+	public Future<Set<T>> retrieveAll () {
+		return executor.submit(new Callable<Set<T>>() {
+			@Override
+			public Set<T> call () {
+				return dao.retrieveAll();
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous search operation.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @return the future result of {@link DAO#search(Column, String)}.
+	 */
+	public Future<Set<T>> search (final Column field, final String value) {
+		return executor.submit(new Callable<Set<T>>() {
+			@Override
+			public Set<T> call () {
+				return dao.search(field, value);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous typed search operation.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @return the future result of {@link DAO#searchEqual(Column, Object)}.
+	 */
+	public Future<Set<T>> searchEqual (final Column field, final Object value) {
+		return executor.submit(new Callable<Set<T>>() {
+			@Override
+			public Set<T> call () {
+				return dao.searchEqual(field, value);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous comparison search operation.
+	 * @param field
+	 *        the field to search.
+	 * @param comparison
+	 *        the comparison of the field with the value.
+	 * @param value
+	 *        the value to compare.
+	 * @return the future result of {@link DAO#search(Column, Comparison, Object)}.
+	 */
+	public Future<Set<T>> search (final Column field, final Comparison comparison, final Object value) {
+		return executor.submit(new Callable<Set<T>>() {
+			@Override
+			public Set<T> call () {
+				return dao.search(field, comparison, value);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous range search operation.
+	 * @param field
+	 *        the field to search.
+	 * @param from
+	 *        the lower bound.
+	 * @param to
+	 *        the upper bound.
+	 * @return the future result of {@link DAO#searchBetween(Column, Object, Object)}.
+	 */
+	public Future<Set<T>> searchBetween (final Column field, final Object from, final Object to) {
+		return executor.submit(new Callable<Set<T>>() {
+			@Override
+			public Set<T> call () {
+				return dao.searchBetween(field, from, to);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous count operation.
+	 * @return the future result of {@link DAO#count()}.
+	 */
+	public Future<Long> count () {
+		return executor.submit(new Callable<Long>() {
+			@Override
+			public Long call () {
+				return dao.count();
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous search count operation.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @return the future result of {@link DAO#count(Column, String)}.
+	 */
+	public Future<Long> count (final Column field, final String value) {
+		return executor.submit(new Callable<Long>() {
+			@Override
+			public Long call () {
+				return dao.count(field, value);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous exists operation.
+	 * @param id
+	 *        the id of the object.
+	 * @return the future result of {@link DAO#exists(int)}.
+	 */
+	public Future<Boolean> exists (final int id) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call () {
+				return dao.exists(id);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous aggregate operation.
+	 * @param aggregate
+	 *        the aggregate to compute.
+	 * @param field
+	 *        the field to aggregate.
+	 * @param groupBy
+	 *        the field whose values group the objects, <code>null</code> to aggregate all the
+	 *        objects.
+	 * @return the future result of {@link DAO#aggregate(Aggregate, Column, Column)}.
+	 */
+	public Future<Map<Object, Object>> aggregate (final Aggregate aggregate, final Column field, final Column groupBy) {
+		return executor.submit(new Callable<Map<Object, Object>>() {
+			@Override
+			public Map<Object, Object> call () {
+				return dao.aggregate(aggregate, field, groupBy);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous projection operation.
+	 * @param columns
+	 *        the columns to read.
+	 * @return the future result of {@link DAO#project(Collection)}.
+	 */
+	public Future<Set<T>> project (final Collection<Column> columns) {
+		return executor.submit(new Callable<Set<T>>() {
+			@Override
+			public Set<T> call () {
+				return dao.project(columns);
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronous search projection operation.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @param columns
+	 *        the columns to read.
+	 * @return the future result of {@link DAO#project(Column, String, Collection)}.
+	 */
+	public Future<Set<T>> project (final Column field, final String value, final Collection<Column> columns) {
+		return executor.submit(new Callable<Set<T>>() {
+			@Override
+			public Set<T> call () {
+				return dao.project(field, value, columns);
+			}
+		});
+	}
+	
+	/**
+	 * Close this asynchronous DAO.<br />
+	 * The executor is shut down if it was built by this DAO, the operations already submitted are
+	 * completed. The decorated DAO is not closed.
+	 */
+	@Override
+	public void close () {
+		if (ownExecutor) {
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Shutting down executor of asynchronous DAO");
+			}
+			executor.shutdown();
+		}
+	}
+
+}
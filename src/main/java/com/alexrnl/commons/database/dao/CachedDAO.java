@@ -0,0 +1,437 @@
+package com.alexrnl.commons.database.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.database.structure.Entity;
+import com.alexrnl.commons.database.structure.EntityUtils;
+
+/**
+ * {@link DAO} which keeps the entities found by their id in a cache.<br />
+ * The cache holds at most {@link #getMaxSize()} entities, the least recently used entities being
+ * evicted first. The entities can also expire after a time to live.<br />
+ * The cache stores {@link Entity#clone() copies} of the entities, and returns copies of them, so
+ * the callers can modify the entities returned without altering the cache. The cache is filled by
+ * the find and create operations and invalidated by the update, save and delete operations <em>done
+ * through this DAO</em>: the entities written are read again on their next use, so a write which
+ * races with another write or which did not match any row never leaves a stale entity in the
+ * cache.<br />
+ * This class is thread-safe if the decorated DAO is.
+ * @author Alex
+ * @param <T>
+ *        The class of the object to manipulate.
+ */
+public class CachedDAO<T extends Entity> extends DAODecorator<T> {
+	/** Logger */
+	private static final Logger			LG	= Logger.getLogger(CachedDAO.class.getName());
+	
+	/** The maximum number of entities in the cache */
+	private final int					maxSize;
+	/** The time to live of the entities in the cache, in nanoseconds, 0 if they do not expire */
+	private final long					timeToLive;
+	/** The cache, in access order, guarded by itself */
+	private final Map<Integer, Entry<T>>	cache;
+	/** The number of modifications of the cache, guarded by the cache */
+	private long						modifications;
+	/** The number of entities found in the cache */
+	private final AtomicLong			hits;
+	/** The number of entities not found in the cache */
+	private final AtomicLong			misses;
+	/** The number of entities evicted or expired from the cache */
+	private final AtomicLong			evictions;
+	
+	/**
+	 * An entity in the cache.
+	 * @author Alex
+	 * @param <T>
+	 *        The class of the entity.
+	 */
+	private static final class Entry<T> {
+		/** The copy of the entity */
+		private final T		entity;
+		/** The time when the entry expires, in nanoseconds */
+		private final long	expiration;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param entity
+		 *        the copy of the entity.
+		 * @param expiration
+		 *        the time when the entry expires.
+		 */
+		private Entry (final T entity, final long expiration) {
+			super();
+			this.entity = entity;
+			this.expiration = expiration;
+		}
+	}
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param dao
+	 *        the DAO to decorate.
+	 * @param maxSize
+	 *        the maximum number of entities in the cache.
+	 * @param timeToLive
+	 *        the time to live of the entities in the cache, 0 if they do not expire.
+	 * @param unit
+	 *        the unit of the time to live.
+	 */
+	public CachedDAO (final DAO<T> dao, final int maxSize, final long timeToLive, final TimeUnit unit) {
+		super(dao);
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Cache size must be strictly positive (was " + maxSize + ")");
+		}
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("Time to live cannot be negative (was " + timeToLive + ")");
+		}
+		this.maxSize = maxSize;
+		this.timeToLive = unit.toNanos(timeToLive);
+		this.cache = new LinkedHashMap<Integer, Entry<T>>(16, 0.75f, true) {
+			/** Serial version UID */
+			private static final long	serialVersionUID	= 6049296424512932317L;
+			
+			@Override
+			protected boolean removeEldestEntry (final Map.Entry<Integer, Entry<T>> eldest) {
+				if (size() > CachedDAO.this.maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+		this.modifications = 0;
+		this.hits = new AtomicLong(0);
+		this.misses = new AtomicLong(0);
+		this.evictions = new AtomicLong(0);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * Build a cache whose entities do not expire.
+	 * @param dao
+	 *        the DAO to decorate.
+	 * @param maxSize
+	 *        the maximum number of entities in the cache.
+	 */
+	public CachedDAO (final DAO<T> dao, final int maxSize) {
+		this(dao, maxSize, 0, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Return the maximum number of entities in the cache.
+	 * @return the maximum size of the cache.
+	 */
+	public int getMaxSize () {
+		return maxSize;
+	}
+	
+	/**
+	 * Return the number of entities currently in the cache, including the expired ones which have
+	 * not been removed yet.
+	 * @return the size of the cache.
+	 */
+	public int getSize () {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+	
+	/**
+	 * Return the number of entities which have been found in the cache.
+	 * @return the number of cache hits.
+	 */
+	public long getHitCount () {
+		return hits.get();
+	}
+	
+	/**
+	 * Return the number of entities which have not been found in the cache.
+	 * @return the number of cache misses.
+	 */
+	public long getMissCount () {
+		return misses.get();
+	}
+	
+	/**
+	 * Return the number of entities which have been evicted from the cache, because it was full or
+	 * because they expired.
+	 * @return the number of evictions.
+	 */
+	public long getEvictionCount () {
+		return evictions.get();
+	}
+	
+	/**
+	 * Remove all the entities from the cache.
+	 */
+	public void clear () {
+		synchronized (cache) {
+			++modifications;
+			cache.clear();
+		}
+	}
+	
+	/**
+	 * Build a new cache entry, expiring after the time to live.
+	 * @param snapshot
+	 *        the copy of the entity to cache.
+	 * @return the entry.
+	 */
+	private Entry<T> newEntry (final T snapshot) {
+		return new Entry<>(snapshot, timeToLive == 0 ? 0 : System.nanoTime() + timeToLive);
+	}
+	
+	/**
+	 * Put a copy of the entity in the cache.
+	 * @param entity
+	 *        the entity to cache.
+	 */
+	private void put (final T entity) {
+		final Integer key = EntityUtils.getKey(entity);
+		if (key == null) {
+			return;
+		}
+		final T snapshot = EntityUtils.copy(entity);
+		synchronized (cache) {
+			++modifications;
+			if (snapshot == null) {
+				cache.remove(key);
+			} else {
+				cache.put(key, newEntry(snapshot));
+			}
+		}
+	}
+	
+	/**
+	 * Remove an entity from the cache.
+	 * @param entity
+	 *        the entity to remove.
+	 */
+	private void invalidate (final T entity) {
+		final Integer key = EntityUtils.getKey(entity);
+		if (key == null) {
+			return;
+		}
+		synchronized (cache) {
+			++modifications;
+			cache.remove(key);
+		}
+	}
+	
+	@Override
+	public T find (final int id) {
+		final long version;
+		synchronized (cache) {
+			final Entry<T> entry = cache.get(id);
+			if (entry != null) {
+				if (timeToLive == 0 || entry.expiration - System.nanoTime() > 0) {
+					hits.incrementAndGet();
+					return EntityUtils.copy(entry.entity);
+				}
+				cache.remove(id);
+				evictions.incrementAndGet();
+			}
+			version = modifications;
+		}
+		misses.incrementAndGet();
+		
+		final T entity = super.find(id);
+		if (entity != null) {
+			final T snapshot = EntityUtils.copy(entity);
+			synchronized (cache) {
+				// Do not cache the entity if it has been modified meanwhile
+				if (snapshot != null && version == modifications) {
+					cache.put(id, newEntry(snapshot));
+				}
+			}
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Cache miss for entity with id " + id + " (" + getHitCount() + " hits, "
+					+ getMissCount() + " misses)");
+		}
+		return entity;
+	}
+	
+	/**
+	 * Find several entities.<br />
+	 * The entities in the cache are returned directly, the others are retrieved with a single
+	 * {@link DAO#findAll(Collection) batch read} of the decorated DAO.
+	 * @param ids
+	 *        the ids of the entities to retrieve.
+	 * @return the entities found, by id, in the order of the ids.
+	 */
+	@Override
+	public Map<Integer, T> findAll (final Collection<Integer> ids) {
+		if (ids == null) {
+			return null;
+		}
+		final Map<Integer, T> cached = new HashMap<>(ids.size());
+		final List<Integer> missing = new ArrayList<>();
+		final long version;
+		synchronized (cache) {
+			for (final Integer id : ids) {
+				if (id == null || cached.containsKey(id)) {
+					continue;
+				}
+				final Entry<T> entry = cache.get(id);
+				if (entry != null) {
+					if (timeToLive == 0 || entry.expiration - System.nanoTime() > 0) {
+						hits.incrementAndGet();
+						cached.put(id, entry.entity);
+						continue;
+					}
+					cache.remove(id);
+					evictions.incrementAndGet();
+				}
+				missing.add(id);
+			}
+			version = modifications;
+		}
+		for (final Map.Entry<Integer, T> entry : cached.entrySet()) {
+			entry.setValue(EntityUtils.copy(entry.getValue()));
+		}
+		
+		Map<Integer, T> found = Collections.emptyMap();
+		if (!missing.isEmpty()) {
+			misses.addAndGet(missing.size());
+			found = super.findAll(missing);
+			if (found == null) {
+				return null;
+			}
+			final Map<Integer, T> snapshots = new LinkedHashMap<>(found.size());
+			for (final Map.Entry<Integer, T> entry : found.entrySet()) {
+				final T snapshot = EntityUtils.copy(entry.getValue());
+				if (snapshot != null) {
+					snapshots.put(entry.getKey(), snapshot);
+				}
+			}
+			synchronized (cache) {
+				// Do not cache the entities if the cache has been modified meanwhile
+				if (version == modifications) {
+					for (final Map.Entry<Integer, T> entry : snapshots.entrySet()) {
+						cache.put(entry.getKey(), newEntry(entry.getValue()));
+					}
+				}
+			}
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Cache miss for " + missing.size() + " entities out of " + ids.size() + " ("
+						+ getHitCount() + " hits, " + getMissCount() + " misses)");
+			}
+		}
+		
+		// Return the entities in the order of the ids requested
+		final Map<Integer, T> entities = new LinkedHashMap<>(cached.size() + found.size());
+		for (final Integer id : ids) {
+			if (id == null || entities.containsKey(id)) {
+				continue;
+			}
+			T entity = cached.get(id);
+			if (entity == null) {
+				entity = found.get(id);
+			}
+			if (entity != null) {
+				entities.put(id, entity);
+			}
+		}
+		return entities;
+	}
+	
+	@Override
+	public T create (final T obj) {
+		final T entity = super.create(obj);
+		if (entity != null) {
+			put(entity);
+		}
+		return entity;
+	}
+	
+	@Override
+	public boolean update (final T obj) {
+		final boolean updated = super.update(obj);
+		if (obj != null) {
+			invalidate(obj);
+		}
+		return updated;
+	}
+	
+	@Override
+	public boolean save (final T obj) {
+		final boolean saved = super.save(obj);
+		if (obj != null) {
+			invalidate(obj);
+		}
+		return saved;
+	}
+	
+	@Override
+	public boolean delete (final T obj) {
+		final boolean deleted = super.delete(obj);
+		if (obj != null) {
+			invalidate(obj);
+		}
+		return deleted;
+	}
+	
+	@Override
+	public List<T> createAll (final Collection<T> objects) {
+		final List<T> entities = super.createAll(objects);
+		if (entities != null) {
+			for (final T entity : entities) {
+				if (entity != null) {
+					put(entity);
+				}
+			}
+		}
+		return entities;
+	}
+	
+	@Override
+	public boolean updateAll (final Collection<T> objects) {
+		final boolean updated = super.updateAll(objects);
+		if (objects != null) {
+			for (final T obj : objects) {
+				if (obj != null) {
+					invalidate(obj);
+				}
+			}
+		}
+		return updated;
+	}
+	
+	@Override
+	public boolean saveAll (final Collection<T> objects) {
+		final boolean saved = super.saveAll(objects);
+		if (objects != null) {
+			for (final T obj : objects) {
+				if (obj != null) {
+					invalidate(obj);
+				}
+			}
+		}
+		return saved;
+	}
+	
+	@Override
+	public boolean deleteAll (final Collection<T> objects) {
+		final boolean deleted = super.deleteAll(objects);
+		if (objects != null) {
+			for (final T obj : objects) {
+				if (obj != null) {
+					invalidate(obj);
+				}
+			}
+		}
+		return deleted;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.alexrnl.commons.database.dao;
+
+/**
+ * The comparisons of a column with a value available for the typed searches.
+ * @author Alex
+ * @see DAO#search(com.alexrnl.commons.database.structure.Column, Comparison, Object)
+ */
+public enum Comparison {
+	/** The value of the column is equal to the value */
+	EQUAL ("="),
+	/** The value of the column is strictly less than the value */
+	LESS_THAN ("<"),
+	/** The value of the column is less than or equal to the value */
+	LESS_OR_EQUAL ("<="),
+	/** The value of the column is strictly greater than the value */
+	GREATER_THAN (">"),
+	/** The value of the column is greater than or equal to the value */
+	GREATER_OR_EQUAL (">=");
+	
+	/** The SQL operator of the comparison */
+	private final String	operator;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param operator
+	 *        the SQL operator of the comparison.
+	 */
+	private Comparison (final String operator) {
+		this.operator = operator;
+	}
+	
+	/**
+	 * Return the SQL operator of the comparison.
+	 * @return the operator.
+	 */
+	public String getOperator () {
+		return operator;
+	}
+
+}
@@ -1,6 +1,9 @@
 package com.alexrnl.commons.database.dao;
 
 import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.alexrnl.commons.database.structure.Column;
@@ -32,6 +35,17 @@ public interface DAO<T extends Entity> extends Closeable {
 	 */
 	T find (int id);
 	
+	/**
+	 * Batch read operation.<br />
+	 * Retrieve the objects with the specified ids, the implementation may group them to reduce the
+	 * number of round trips with the data source.
+	 * @param ids
+	 *        the ids of the objects to retrieve.
+	 * @return the objects found, by id, the ids which do not match any object are not present in
+	 *         the map.
+	 */
+	Map<Integer, T> findAll (Collection<Integer> ids);
+	
 	/**
 	 * Update operation.
 	 * @param obj
@@ -40,6 +54,17 @@ public interface DAO<T extends Entity> extends Closeable {
 	 */
 	boolean update (T obj);
 	
+	/**
+	 * Save operation.<br />
+	 * Insert the object if no object with the same id exists, update it otherwise, in a single
+	 * operation. The id of the object must be set, the objects without id should be
+	 * {@link #create(Entity) created}.
+	 * @param obj
+	 *        the object to save.
+	 * @return <code>true</code> if the object has been saved.
+	 */
+	boolean save (T obj);
+	
 	/**
 	 * Delete operation.
 	 * @param obj
@@ -48,6 +73,43 @@ public interface DAO<T extends Entity> extends Closeable {
 	 */
 	boolean delete (T obj);
 	
+	/**
+	 * Batch create operation.<br />
+	 * Create all the objects of the collection, the implementation may group them to reduce the
+	 * number of round trips with the data source.
+	 * @param objects
+	 *        the objects to create.
+	 * @return <code>null</code> if the creation of the objects has failed, the new references to
+	 *         the objects, in the iteration order of the collection, if the creation succeeded.
+	 */
+	List<T> createAll (Collection<T> objects);
+	
+	/**
+	 * Batch update operation.
+	 * @param objects
+	 *        the objects to update.
+	 * @return <code>true</code> if the update of all the objects has been successful.
+	 */
+	boolean updateAll (Collection<T> objects);
+	
+	/**
+	 * Batch save operation.<br />
+	 * Save several objects in a single operation.
+	 * @param objects
+	 *        the objects to save.
+	 * @return <code>true</code> if all the objects have been saved.
+	 * @see #save(Entity)
+	 */
+	boolean saveAll (Collection<T> objects);
+	
+	/**
+	 * Batch delete operation.
+	 * @param objects
+	 *        the objects to delete.
+	 * @return <code>true</code> if the deletion of all the objects has been successful.
+	 */
+	boolean deleteAll (Collection<T> objects);
+	
 	/**
 	 * Retrieve all the objects available.<br />
 	 * <em>Use with caution, it can consume a lot of memory.</em>
@@ -64,4 +126,136 @@ public interface DAO<T extends Entity> extends Closeable {
 	 * @return A collection with the object matching the
 	 */
 	Set<T> search (Column field, String value);
+	
+	/**
+	 * Retrieve the objects whose field is equal to a value.<br />
+	 * Unlike {@link #search(Column, String)}, the value is not a pattern: it is compared with the
+	 * type of the column, which allows the data source to use its indexes on the column.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test, of the type of the column.
+	 * @return the objects whose field is equal to the value.
+	 * @see #search(Column, Comparison, Object)
+	 */
+	Set<T> searchEqual (Column field, Object value);
+	
+	/**
+	 * Retrieve the objects whose field compares to a value.<br />
+	 * The value is compared with the type of the column.
+	 * @param field
+	 *        the field to search.
+	 * @param comparison
+	 *        the comparison of the field with the value.
+	 * @param value
+	 *        the value to compare, of the type of the column.
+	 * @return the objects whose field satisfies the comparison.
+	 */
+	Set<T> search (Column field, Comparison comparison, Object value);
+	
+	/**
+	 * Retrieve the objects whose field is between two values, inclusive.<br />
+	 * The values are compared with the type of the column.
+	 * @param field
+	 *        the field to search.
+	 * @param from
+	 *        the lower bound, of the type of the column.
+	 * @param to
+	 *        the upper bound, of the type of the column.
+	 * @return the objects whose field is between the bounds.
+	 */
+	Set<T> searchBetween (Column field, Object from, Object to);
+	
+	/**
+	 * Retrieve all the objects available, reading only some of their fields.<br />
+	 * The objects returned are partially populated: only their id and the fields of the columns
+	 * specified are set, the other fields keep their default value. They should not be used to
+	 * update the objects.
+	 * @param columns
+	 *        the columns to read.
+	 * @return A collection with all the objects, partially populated.
+	 */
+	Set<T> project (Collection<Column> columns);
+	
+	/**
+	 * Retrieve a collection of objects matching a value on a field, reading only some of their
+	 * fields.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @param columns
+	 *        the columns to read.
+	 * @return A collection with the objects matching, partially populated.
+	 * @see #search(Column, String)
+	 * @see #project(Collection)
+	 */
+	Set<T> project (Column field, String value, Collection<Column> columns);
+	
+	/**
+	 * Count the objects available.
+	 * @return the number of objects, <code>-1</code> if they could not be counted.
+	 */
+	long count ();
+	
+	/**
+	 * Count the objects matching a value on a field.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @return the number of objects matching, <code>-1</code> if they could not be counted.
+	 * @see #search(Column, String)
+	 */
+	long count (Column field, String value);
+	
+	/**
+	 * Check if an object exists.
+	 * @param id
+	 *        the id of the object.
+	 * @return <code>true</code> if an object with this id exists.
+	 */
+	boolean exists (int id);
+	
+	/**
+	 * Compute an aggregate of the values of a field, for each value of another field.
+	 * @param aggregate
+	 *        the aggregate to compute.
+	 * @param field
+	 *        the field to aggregate.
+	 * @param groupBy
+	 *        the field whose values group the objects, <code>null</code> to aggregate all the
+	 *        objects.
+	 * @return the aggregate of each group, by value of the grouping field (under the
+	 *         <code>null</code> key if the objects are not grouped), <code>null</code> if the
+	 *         aggregate could not be computed.
+	 */
+	Map<Object, Object> aggregate (Aggregate aggregate, Column field, Column groupBy);
+	
+	/**
+	 * Retrieve a page of objects, ordered by their id.<br />
+	 * The next page is retrieved by passing the id of the last object of the page, which allows to
+	 * walk through all the objects without loading them all in memory.
+	 * @param afterId
+	 *        the id after which the page starts, exclusive.
+	 * @param limit
+	 *        the maximum number of objects of the page.
+	 * @return the objects of the page, in the order of their id.
+	 */
+	List<T> page (int afterId, int limit);
+	
+	/**
+	 * Retrieve a page of objects matching a value on a field, ordered by their id.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @param afterId
+	 *        the id after which the page starts, exclusive.
+	 * @param limit
+	 *        the maximum number of objects of the page.
+	 * @return the objects of the page, in the order of their id.
+	 * @see #page(int, int)
+	 */
+	List<T> page (Column field, String value, int afterId, int limit);
 }
@@ -0,0 +1,173 @@
+package com.alexrnl.commons.database.dao;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * Base class for the {@link DAO}s which add a behaviour on top of another DAO.<br />
+ * All the operations are forwarded to the decorated DAO, sub-classes only need to override the
+ * operations they alter. Closing the decorator closes the decorated DAO and warming up the
+ * decorator warms up the decorated DAO, if it is {@link WarmableDAO warmable}.
+ * @author Alex
+ * @param <T>
+ *        The class of the object to manipulate.
+ */
+public abstract class DAODecorator<T extends Entity> implements WarmableDAO<T> {
+	/** The decorated DAO */
+	private final DAO<T>	dao;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param dao
+	 *        the DAO to decorate.
+	 */
+	public DAODecorator (final DAO<T> dao) {
+		super();
+		if (dao == null) {
+			throw new IllegalArgumentException("Cannot decorate a null DAO");
+		}
+		this.dao = dao;
+	}
+	
+	/**
+	 * Return the decorated DAO.
+	 * @return the decorated DAO.
+	 */
+	public DAO<T> getDAO () {
+		return dao;
+	}
+	
+	@Override
+	public void close () throws IOException {
+		dao.close();
+	}
+	
+	@Override
+	public void warmUp () throws Exception {
+		if (dao instanceof WarmableDAO) {
+			((WarmableDAO<T>) dao).warmUp();
+		}
+	}
+	
+	@Override
+	public T create (final T obj) {
+		return dao.create(obj);
+	}
+	
+	@Override
+	public T find (final int id) {
+		return dao.find(id);
+	}
+	
+	@Override
+	public Map<Integer, T> findAll (final Collection<Integer> ids) {
+		return dao.findAll(ids);
+	}
+	
+	@Override
+	public boolean update (final T obj) {
+		return dao.update(obj);
+	}
+	
+	@Override
+	public boolean save (final T obj) {
+		return dao.save(obj);
+	}
+	
+	@Override
+	public boolean delete (final T obj) {
+		return dao.delete(obj);
+	}
+	
+	@Override
+	public List<T> createAll (final Collection<T> objects) {
+		return dao.createAll(objects);
+	}
+	
+	@Override
+	public boolean updateAll (final Collection<T> objects) {
+		return dao.updateAll(objects);
+	}
+	
+	@Override
+	public boolean saveAll (final Collection<T> objects) {
+		return dao.saveAll(objects);
+	}
+	
+	@Override
+	public boolean deleteAll (final Collection<T> objects) {
+		return dao.deleteAll(objects);
+	}
+	
+	@Override
+	public Set<T> retrieveAll () {
+		return dao.retrieveAll();
+	}
+	
+	@Override
+	public Set<T> search (final Column field, final String value) {
+		return dao.search(field, value);
+	}
+	
+	@Override
+	public Set<T> searchEqual (final Column field, final Object value) {
+		return dao.searchEqual(field, value);
+	}
+	
+	@Override
+	public Set<T> search (final Column field, final Comparison comparison, final Object value) {
+		return dao.search(field, comparison, value);
+	}
+	
+	@Override
+	public Set<T> searchBetween (final Column field, final Object from, final Object to) {
+		return dao.searchBetween(field, from, to);
+	}
+	
+	@Override
+	public long count () {
+		return dao.count();
+	}
+	
+	@Override
+	public long count (final Column field, final String value) {
+		return dao.count(field, value);
+	}
+	
+	@Override
+	public boolean exists (final int id) {
+		return dao.exists(id);
+	}
+	
+	@Override
+	public Map<Object, Object> aggregate (final Aggregate aggregate, final Column field, final Column groupBy) {
+		return dao.aggregate(aggregate, field, groupBy);
+	}
+	
+	@Override
+	public Set<T> project (final Collection<Column> columns) {
+		return dao.project(columns);
+	}
+	
+	@Override
+	public Set<T> project (final Column field, final String value, final Collection<Column> columns) {
+		return dao.project(field, value, columns);
+	}
+	
+	@Override
+	public List<T> page (final int afterId, final int limit) {
+		return dao.page(afterId, limit);
+	}
+	
+	@Override
+	public List<T> page (final Column field, final String value, final int afterId, final int limit) {
+		return dao.page(field, value, afterId, limit);
+	}
+
+}
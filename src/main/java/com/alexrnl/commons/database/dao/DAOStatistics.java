@@ -0,0 +1,141 @@
+package com.alexrnl.commons.database.dao;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the operations of a DAO.<br />
+ * Holds one {@link OperationStatistics} per {@link Operation}, which are recorded on every call.
+ * @author Alex
+ * @see MonitoredDAO
+ */
+public class DAOStatistics {
+	/** The statistics of each operation */
+	private final Map<Operation, OperationStatistics>	operations;
+	
+	/**
+	 * The operations monitored.
+	 * @author Alex
+	 */
+	public enum Operation {
+		/** The {@link DAO#create(com.alexrnl.commons.database.structure.Entity) create} operation */
+		CREATE ("create"),
+		/** The {@link DAO#find(int) find} operation */
+		FIND ("find"),
+		/** The {@link DAO#findAll(java.util.Collection) find all} operation */
+		FIND_ALL ("findAll"),
+		/** The {@link DAO#update(com.alexrnl.commons.database.structure.Entity) update} operation */
+		UPDATE ("update"),
+		/** The {@link DAO#save(com.alexrnl.commons.database.structure.Entity) save} operation */
+		SAVE ("save"),
+		/** The {@link DAO#delete(com.alexrnl.commons.database.structure.Entity) delete} operation */
+		DELETE ("delete"),
+		/** The {@link DAO#createAll(java.util.Collection) create all} operation */
+		CREATE_ALL ("createAll"),
+		/** The {@link DAO#updateAll(java.util.Collection) update all} operation */
+		UPDATE_ALL ("updateAll"),
+		/** The {@link DAO#saveAll(java.util.Collection) save all} operation */
+		SAVE_ALL ("saveAll"),
+		/** The {@link DAO#deleteAll(java.util.Collection) delete all} operation */
+		DELETE_ALL ("deleteAll"),
+		/** The {@link DAO#retrieveAll() retrieve all} operation */
+		RETRIEVE_ALL ("retrieveAll"),
+		/** The {@link DAO#search(com.alexrnl.commons.database.structure.Column, String) search} operation */
+		SEARCH ("search"),
+		/** The searches served from memory, by a prefix index or by the search cache */
+		SEARCH_MEMORY ("searchMemory"),
+		/** The {@link DAO#project(java.util.Collection) project} operations */
+		PROJECT ("project"),
+		/** The {@link DAO#page(int, int) page} operations */
+		PAGE ("page"),
+		/** The {@link DAO#count() count} operations */
+		COUNT ("count"),
+		/** The {@link DAO#exists(int) exists} operation */
+		EXISTS ("exists"),
+		/** The {@link DAO#aggregate aggregate} operation */
+		AGGREGATE ("aggregate"),
+		/** The {@link com.alexrnl.commons.database.sql.SQLDAO#scanAll scanAll} operation */
+		SCAN_ALL ("scanAll"),
+		/** The iterate operations of the SQL DAOs, until the query of the iterator is executed */
+		ITERATE ("iterate");
+		
+		/** The name of the operation */
+		private final String	operationName;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param operationName
+		 *        the name of the operation.
+		 */
+		private Operation (final String operationName) {
+			this.operationName = operationName;
+		}
+		
+		/**
+		 * Return the name of the operation, as the name of the DAO method.
+		 * @return the name of the operation.
+		 */
+		public String getOperationName () {
+			return operationName;
+		}
+	}
+	
+	/**
+	 * Constructor #1.<br />
+	 */
+	public DAOStatistics () {
+		super();
+		final Map<Operation, OperationStatistics> statistics = new EnumMap<>(Operation.class);
+		for (final Operation operation : Operation.values()) {
+			statistics.put(operation, new OperationStatistics());
+		}
+		operations = Collections.unmodifiableMap(statistics);
+	}
+	
+	/**
+	 * Return the statistics of an operation.
+	 * @param operation
+	 *        the operation.
+	 * @return the statistics of the operation.
+	 */
+	public OperationStatistics get (final Operation operation) {
+		return operations.get(operation);
+	}
+	
+	/**
+	 * Return the statistics of all the operations.
+	 * @return an unmodifiable map with the statistics of each operation.
+	 */
+	public Map<Operation, OperationStatistics> getAll () {
+		return operations;
+	}
+	
+	/**
+	 * Record a call to an operation which started at the time specified.
+	 * @param operation
+	 *        the operation called.
+	 * @param startTime
+	 *        the start time of the call, as returned by {@link System#nanoTime()}.
+	 * @param success
+	 *        <code>true</code> if the call succeeded.
+	 */
+	public void record (final Operation operation, final long startTime, final boolean success) {
+		operations.get(operation).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS, success);
+	}
+	
+	/**
+	 * Reset the statistics of all the operations.
+	 */
+	public void reset () {
+		for (final OperationStatistics statistics : operations.values()) {
+			statistics.reset();
+		}
+	}
+	
+	@Override
+	public String toString () {
+		return operations.toString();
+	}
+}
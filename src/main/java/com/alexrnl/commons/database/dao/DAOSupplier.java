@@ -0,0 +1,23 @@
+package com.alexrnl.commons.database.dao;
+
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * Builder of a {@link DAO}, registered in an {@link AbstractDAOFactory} to build the DAO on its
+ * first use.
+ * @author Alex
+ * @param <T>
+ *        The class of the object manipulated by the DAO.
+ * @see AbstractDAOFactory#addDAOSupplier(Class, DAOSupplier)
+ */
+public interface DAOSupplier<T extends Entity> {
+	
+	/**
+	 * Build the DAO.<br />
+	 * Called once by the factory, unless the DAO could not be built.
+	 * @return the new DAO.
+	 * @throws Exception
+	 *         if the DAO could not be built, it will be built again on the next request.
+	 */
+	DAO<T> get () throws Exception;
+}
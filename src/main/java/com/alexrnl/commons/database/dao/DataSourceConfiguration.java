@@ -27,6 +27,10 @@ public class DataSourceConfiguration implements Serializable {
 	public static final String	PASSWORD_KEY		= "password";
 	/** The default key for the creation file of the database */
 	public static final String	CREATION_FILE_KEY	= "creationFile";
+	/** The default key for the size of the connection pool */
+	public static final String	POOL_SIZE_KEY		= "poolSize";
+	/** The default size of the connection pool */
+	public static final int		DEFAULT_POOL_SIZE	= 1;
 	
 	/** The URL of the connection */
 	private final String		url;
@@ -36,6 +40,8 @@ public class DataSourceConfiguration implements Serializable {
 	private final String		password;
 	/** The path to the creation file, which allow (if set) to create the database if it does not exists */
 	private final URI			creationFile;
+	/** The maximum number of connections opened simultaneously to the data source */
+	private final int			poolSize;
 
 	/**
 	 * Constructor #1.<br />
@@ -50,16 +56,40 @@ public class DataSourceConfiguration implements Serializable {
 	 *        not exists
 	 */
 	public DataSourceConfiguration (final String url, final String username, final String password, final Path creationFile) {
+		this(url, username, password, creationFile, DEFAULT_POOL_SIZE);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * @param url
+	 *        the URL of the database.
+	 * @param username
+	 *        the user name to use.
+	 * @param password
+	 *        the password associated to the user name.
+	 * @param creationFile
+	 *        The path to the creation file, which allow (if set) to create the database if it does
+	 *        not exists
+	 * @param poolSize
+	 *        the maximum number of connections opened simultaneously to the data source.
+	 */
+	public DataSourceConfiguration (final String url, final String username, final String password,
+			final Path creationFile, final int poolSize) {
 		super();
+		if (poolSize < 1) {
+			throw new IllegalArgumentException("Pool size must be strictly positive (was " + poolSize + ")");
+		}
 		this.url = url;
 		this.username = username;
 		this.password = password;
 		this.creationFile = creationFile == null ? null : creationFile.toUri();
+		this.poolSize = poolSize;
 	}
 	
 	/**
-	 * Constructor #2.<br />
-	 * Uses the default keys for loading the data source configuration.
+	 * Constructor #3.<br />
+	 * Uses the default keys for loading the data source configuration. The pool size is optional
+	 * and defaults to {@link #DEFAULT_POOL_SIZE}.
 	 * @param configuration
 	 *        the configuration object to use for loading the data source properties.
 	 * @param dataSourceRootKey
@@ -69,7 +99,23 @@ public class DataSourceConfiguration implements Serializable {
 		this(configuration.get(dataSourceRootKey + "." + URL_KEY),
 				configuration.get(dataSourceRootKey + "." + USERNAME_KEY),
 				configuration.get(dataSourceRootKey + "." + PASSWORD_KEY),
-				Paths.get(configuration.get(dataSourceRootKey + "." + CREATION_FILE_KEY)));
+				Paths.get(configuration.get(dataSourceRootKey + "." + CREATION_FILE_KEY)),
+				getPoolSize(configuration, dataSourceRootKey + "." + POOL_SIZE_KEY));
+	}
+	
+	/**
+	 * Read the pool size from the configuration.
+	 * @param configuration
+	 *        the configuration, which must have been loaded.
+	 * @param key
+	 *        the key of the pool size property.
+	 * @return the pool size, or {@link #DEFAULT_POOL_SIZE} if the property is not defined.
+	 */
+	private static int getPoolSize (final Configuration configuration, final String key) {
+		if (!configuration.has(key)) {
+			return DEFAULT_POOL_SIZE;
+		}
+		return Integer.parseInt(configuration.get(key));
 	}
 	
 	/**
@@ -107,6 +153,15 @@ public class DataSourceConfiguration implements Serializable {
 	public Path getCreationFile () {
 		return creationFile == null ? null : Paths.get(creationFile);
 	}
+	
+	/**
+	 * Return the attribute poolSize.
+	 * @return the maximum number of connections opened simultaneously to the data source.
+	 */
+	@Field
+	public int getPoolSize () {
+		return poolSize;
+	}
 
 	@Override
 	public int hashCode () {
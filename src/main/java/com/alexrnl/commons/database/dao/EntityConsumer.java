@@ -0,0 +1,23 @@
+package com.alexrnl.commons.database.dao;
+
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * Consumer of the entities read by a scan of the data source.<br />
+ * The entities are passed to the consumer as they are read, so they do not have to be held in
+ * memory. The consumer of a
+ * {@link com.alexrnl.commons.database.sql.SQLDAO#scanAll(java.util.concurrent.ExecutorService, int, EntityConsumer)
+ * parallel scan} is called by several threads at the same time, it must be thread-safe.
+ * @author Alex
+ * @param <T>
+ *        The class of the entities.
+ */
+public interface EntityConsumer<T extends Entity> {
+	
+	/**
+	 * Process an entity read.
+	 * @param entity
+	 *        the entity.
+	 */
+	void accept (T entity);
+}
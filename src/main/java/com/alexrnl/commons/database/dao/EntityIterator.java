@@ -0,0 +1,20 @@
+package com.alexrnl.commons.database.dao;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * Iterator over entities which holds resources of the data source.<br />
+ * The entities are read one by one while iterating, which allows to process large amount of
+ * entities without loading them all in memory. The iterator releases its resources when the last
+ * entity has been read, but it should always be {@link #close() closed} when the iteration is
+ * stopped before.<br />
+ * The {@link #remove()} operation is not supported.
+ * @author Alex
+ * @param <T>
+ *        The class of the entities.
+ */
+public interface EntityIterator<T extends Entity> extends Iterator<T>, Closeable {
+}
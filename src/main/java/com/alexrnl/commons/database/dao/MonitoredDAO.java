@@ -0,0 +1,20 @@
+package com.alexrnl.commons.database.dao;
+
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * {@link DAO} which records the {@link DAOStatistics statistics} of its operations.<br />
+ * The statistics of the monitored DAOs registered in an {@link AbstractDAOFactory} are exposed
+ * as MBeans.
+ * @author Alex
+ * @param <T>
+ *        The class of the object to manipulate.
+ */
+public interface MonitoredDAO<T extends Entity> extends DAO<T> {
+	
+	/**
+	 * Return the statistics of the operations of the DAO.
+	 * @return the statistics.
+	 */
+	DAOStatistics getStatistics ();
+}
@@ -0,0 +1,185 @@
+package com.alexrnl.commons.database.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of an operation of a DAO: number of calls, number of errors and histogram of the
+ * latencies.<br />
+ * The statistics are recorded without locking, so they can be updated on every call. The
+ * latencies are grouped in buckets whose width is an eighth of their power of two, thus the
+ * percentiles are precise to 12.5%. As the counters are updated independently, a reading done
+ * while calls are recorded may be slightly inconsistent.
+ * @author Alex
+ */
+public class OperationStatistics implements OperationStatisticsMBean {
+	/** The number of bits of the sub-bucket index */
+	private static final int		SUB_BUCKET_BITS		= 3;
+	/** The number of sub-buckets per power of two */
+	private static final int		SUB_BUCKET_COUNT	= 1 << SUB_BUCKET_BITS;
+	/** The number of buckets, enough for latencies up to 2^40 microseconds */
+	private static final int		BUCKET_COUNT		= 40 * SUB_BUCKET_COUNT;
+	
+	/** The number of latencies recorded in each bucket */
+	private final AtomicLongArray	buckets;
+	/** The number of calls */
+	private final AtomicLong		count;
+	/** The number of errors */
+	private final AtomicLong		errors;
+	/** The sum of the latencies, in microseconds */
+	private final AtomicLong		totalLatency;
+	/** The maximum latency, in microseconds */
+	private final AtomicLong		maxLatency;
+	
+	/**
+	 * Constructor #1.<br />
+	 */
+	public OperationStatistics () {
+		super();
+		buckets = new AtomicLongArray(BUCKET_COUNT);
+		count = new AtomicLong(0);
+		errors = new AtomicLong(0);
+		totalLatency = new AtomicLong(0);
+		maxLatency = new AtomicLong(0);
+	}
+	
+	/**
+	 * Return the index of the bucket of a latency.
+	 * @param latency
+	 *        the latency, in microseconds.
+	 * @return the index of the bucket.
+	 */
+	static int bucketIndex (final long latency) {
+		if (latency < SUB_BUCKET_COUNT) {
+			return (int) Math.max(latency, 0);
+		}
+		final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(latency);
+		final int subBucket = (int) (latency >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return Math.min((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket, BUCKET_COUNT - 1);
+	}
+	
+	/**
+	 * Return the highest latency of a bucket.
+	 * @param index
+	 *        the index of the bucket.
+	 * @return the highest latency of the bucket, in microseconds.
+	 */
+	static long bucketUpperBound (final int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		final int shift = index / SUB_BUCKET_COUNT - 1;
+		final long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+	
+	/**
+	 * Record a call to the operation.
+	 * @param latency
+	 *        the latency of the call.
+	 * @param unit
+	 *        the unit of the latency.
+	 * @param success
+	 *        <code>true</code> if the call succeeded.
+	 */
+	public void record (final long latency, final TimeUnit unit, final boolean success) {
+		final long micros = unit.toMicros(latency);
+		buckets.incrementAndGet(bucketIndex(micros));
+		count.incrementAndGet();
+		if (!success) {
+			errors.incrementAndGet();
+		}
+		totalLatency.addAndGet(micros);
+		long max;
+		do {
+			max = maxLatency.get();
+		} while (micros > max && !maxLatency.compareAndSet(max, micros));
+	}
+	
+	@Override
+	public long getCount () {
+		return count.get();
+	}
+	
+	@Override
+	public long getErrorCount () {
+		return errors.get();
+	}
+	
+	@Override
+	public double getMeanLatency () {
+		final long calls = count.get();
+		return calls == 0 ? 0 : (double) totalLatency.get() / calls;
+	}
+	
+	@Override
+	public long getMaxLatency () {
+		return maxLatency.get();
+	}
+	
+	/**
+	 * Return a percentile of the latency of the operation.<br />
+	 * The value returned is the upper bound of the bucket which contains the percentile, capped by
+	 * the maximum latency.
+	 * @param percentile
+	 *        the percentile to compute, between 0 and 100.
+	 * @return the percentile of the latency, in microseconds, 0 if no call was recorded.
+	 */
+	public long getLatencyPercentile (final double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100 (was " + percentile + ")");
+		}
+		long recorded = 0;
+		final long[] snapshot = new long[BUCKET_COUNT];
+		for (int index = 0; index < BUCKET_COUNT; ++index) {
+			snapshot[index] = buckets.get(index);
+			recorded += snapshot[index];
+		}
+		if (recorded == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+		long cumulated = 0;
+		for (int index = 0; index < BUCKET_COUNT; ++index) {
+			cumulated += snapshot[index];
+			if (cumulated >= rank) {
+				return Math.min(bucketUpperBound(index), maxLatency.get());
+			}
+		}
+		return maxLatency.get();
+	}
+	
+	@Override
+	public long getLatency50thPercentile () {
+		return getLatencyPercentile(50);
+	}
+	
+	@Override
+	public long getLatency95thPercentile () {
+		return getLatencyPercentile(95);
+	}
+	
+	@Override
+	public long getLatency99thPercentile () {
+		return getLatencyPercentile(99);
+	}
+	
+	@Override
+	public void reset () {
+		for (int index = 0; index < BUCKET_COUNT; ++index) {
+			buckets.set(index, 0);
+		}
+		count.set(0);
+		errors.set(0);
+		totalLatency.set(0);
+		maxLatency.set(0);
+	}
+	
+	@Override
+	public String toString () {
+		return "count=" + getCount() + ", errors=" + getErrorCount() + ", mean=" + getMeanLatency()
+				+ "µs, p50=" + getLatency50thPercentile() + "µs, p99=" + getLatency99thPercentile()
+				+ "µs, max=" + getMaxLatency() + "µs";
+	}
+}
@@ -0,0 +1,56 @@
+package com.alexrnl.commons.database.dao;
+
+/**
+ * Management interface of the {@link OperationStatistics}.<br />
+ * The latencies are expressed in microseconds.
+ * @author Alex
+ */
+public interface OperationStatisticsMBean {
+	
+	/**
+	 * Return the number of calls to the operation.
+	 * @return the call count.
+	 */
+	long getCount ();
+	
+	/**
+	 * Return the number of calls to the operation which failed.
+	 * @return the error count.
+	 */
+	long getErrorCount ();
+	
+	/**
+	 * Return the mean latency of the operation.
+	 * @return the mean latency, in microseconds.
+	 */
+	double getMeanLatency ();
+	
+	/**
+	 * Return the maximum latency of the operation.
+	 * @return the maximum latency, in microseconds.
+	 */
+	long getMaxLatency ();
+	
+	/**
+	 * Return the median latency of the operation.
+	 * @return the 50th percentile of the latency, in microseconds.
+	 */
+	long getLatency50thPercentile ();
+	
+	/**
+	 * Return the 95th percentile of the latency of the operation.
+	 * @return the 95th percentile of the latency, in microseconds.
+	 */
+	long getLatency95thPercentile ();
+	
+	/**
+	 * Return the 99th percentile of the latency of the operation.
+	 * @return the 99th percentile of the latency, in microseconds.
+	 */
+	long getLatency99thPercentile ();
+	
+	/**
+	 * Reset the statistics.
+	 */
+	void reset ();
+}
@@ -0,0 +1,21 @@
+package com.alexrnl.commons.database.dao;
+
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * {@link DAO} which can prepare its resources before its first use.<br />
+ * The warmable DAOs registered in an {@link AbstractDAOFactory} are warmed up by
+ * {@link AbstractDAOFactory#warmUp(java.util.Collection)}.
+ * @author Alex
+ * @param <T>
+ *        The class of the object to manipulate.
+ */
+public interface WarmableDAO<T extends Entity> extends DAO<T> {
+	
+	/**
+	 * Prepare the resources of the DAO, which are otherwise prepared on their first use.
+	 * @throws Exception
+	 *         if the resources could not be prepared.
+	 */
+	void warmUp () throws Exception;
+}
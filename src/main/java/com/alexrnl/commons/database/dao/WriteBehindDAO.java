@@ -0,0 +1,482 @@
+package com.alexrnl.commons.database.dao;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+import com.alexrnl.commons.database.structure.EntityUtils;
+
+/**
+ * {@link DAO} which delays the updates and writes them in batches.<br />
+ * The updates are kept in memory, only the latest state of each entity is kept, so the repeated
+ * updates of an entity are written once. The pending updates are {@link #flush() flushed} with a
+ * single {@link DAO#updateAll(Collection) batch update} when their number reaches the flush
+ * threshold, periodically if a flush interval is set, and when the DAO is closed. When a batch
+ * fails, its updates are written one by one and the updates which still fail are discarded, so a
+ * single invalid entity cannot block the other updates.<br />
+ * The entities found by id reflect the pending updates. The other read operations flush the
+ * pending updates first, except the ones which cannot be affected by updates (counting all the
+ * entities and checking their existence). The create, save and delete operations are not delayed,
+ * the save and delete operations discard the pending updates of their entities. Once the DAO is
+ * closed, the updates are rejected with an {@link IllegalStateException}.<br />
+ * This class is thread-safe if the decorated DAO is.
+ * @author Alex
+ * @param <T>
+ *        The class of the object to manipulate.
+ */
+public class WriteBehindDAO<T extends Entity> extends DAODecorator<T> {
+	/** Logger */
+	private static final Logger				LG	= Logger.getLogger(WriteBehindDAO.class.getName());
+	
+	/** The number of pending updates which triggers a flush */
+	private final int						flushThreshold;
+	/** The pending updates, by id, guarded by the lock */
+	private Map<Integer, T>					pending;
+	/** The updates being flushed, by id, guarded by the lock */
+	private Map<Integer, T>					flushing;
+	/** The lock of the pending updates */
+	private final Object					lock;
+	/** The lock which serializes the flushes */
+	private final Object					flushLock;
+	/** The executor of the periodic flushes, <code>null</code> if there are none */
+	private final ScheduledExecutorService	scheduler;
+	/** <code>true</code> once the DAO has been closed, guarded by the lock */
+	private volatile boolean				closed;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param dao
+	 *        the DAO to decorate.
+	 * @param flushThreshold
+	 *        the number of pending updates which triggers a flush.
+	 * @param flushInterval
+	 *        the interval between two periodic flushes, 0 to disable the periodic flushes.
+	 * @param unit
+	 *        the unit of the flush interval.
+	 */
+	public WriteBehindDAO (final DAO<T> dao, final int flushThreshold, final long flushInterval,
+			final TimeUnit unit) {
+		super(dao);
+		if (flushThreshold < 1) {
+			throw new IllegalArgumentException("Flush threshold must be strictly positive (was "
+					+ flushThreshold + ")");
+		}
+		if (flushInterval < 0) {
+			throw new IllegalArgumentException("Flush interval cannot be negative (was " + flushInterval + ")");
+		}
+		this.flushThreshold = flushThreshold;
+		this.pending = new LinkedHashMap<>();
+		this.flushing = Collections.emptyMap();
+		this.lock = new Object();
+		this.flushLock = new Object();
+		this.closed = false;
+		if (flushInterval == 0) {
+			scheduler = null;
+		} else {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread (final Runnable runnable) {
+					final Thread thread = new Thread(runnable, "write-behind-dao");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			scheduler.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run () {
+					flush();
+				}
+			}, flushInterval, flushInterval, unit);
+		}
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * Build a DAO which flushes only when the threshold is reached, or explicitly.
+	 * @param dao
+	 *        the DAO to decorate.
+	 * @param flushThreshold
+	 *        the number of pending updates which triggers a flush.
+	 */
+	public WriteBehindDAO (final DAO<T> dao, final int flushThreshold) {
+		this(dao, flushThreshold, 0, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Return the number of pending updates.
+	 * @return the number of entities which have not been written yet.
+	 */
+	public int getPendingCount () {
+		synchronized (lock) {
+			return pending.size();
+		}
+	}
+	
+	/**
+	 * Write the pending updates to the decorated DAO in a single batch.<br />
+	 * If the batch fails, the updates are written one by one, the updates which fail are discarded.
+	 * @return <code>true</code> if all the pending updates have been written, <code>false</code> if
+	 *         some of them have been discarded.
+	 */
+	public boolean flush () {
+		return write().isEmpty();
+	}
+	
+	/**
+	 * Write the pending updates to the decorated DAO.<br />
+	 * The updates are written in a single batch; if it fails, they are written one by one, except
+	 * the ones superseded meanwhile, which will be written by the next flush.
+	 * @return the updates which could not be written, and have been discarded.
+	 */
+	private List<T> write () {
+		synchronized (flushLock) {
+			final Map<Integer, T> batch;
+			synchronized (lock) {
+				if (pending.isEmpty()) {
+					return Collections.emptyList();
+				}
+				batch = pending;
+				flushing = batch;
+				pending = new LinkedHashMap<>();
+			}
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Flushing " + batch.size() + " pending updates");
+			}
+			
+			final List<T> failed = new ArrayList<>();
+			if (!getDAO().updateAll(batch.values())) {
+				LG.warning("Could not flush " + batch.size() + " pending updates in batch, writing them one by one");
+				for (final Map.Entry<Integer, T> entry : batch.entrySet()) {
+					final boolean superseded;
+					synchronized (lock) {
+						superseded = pending.containsKey(entry.getKey());
+					}
+					if (!superseded && !getDAO().update(entry.getValue())) {
+						failed.add(entry.getValue());
+					}
+				}
+			}
+			synchronized (lock) {
+				flushing = Collections.emptyMap();
+			}
+			if (!failed.isEmpty()) {
+				LG.severe("Could not write " + failed.size() + " updates, they are discarded: " + failed);
+			}
+			return failed;
+		}
+	}
+	
+	/**
+	 * Remove the pending update of an entity.
+	 * @param obj
+	 *        the entity.
+	 */
+	private void discard (final T obj) {
+		final Integer key = EntityUtils.getKey(obj);
+		if (key != null) {
+			synchronized (lock) {
+				pending.remove(key);
+			}
+		}
+	}
+	
+	/**
+	 * Check that the DAO has not been closed.
+	 * @throws IllegalStateException
+	 *         if the DAO has been closed.
+	 */
+	private void checkOpen () {
+		if (closed) {
+			throw new IllegalStateException("Cannot update entities, the write-behind DAO is closed");
+		}
+	}
+	
+	/**
+	 * Record the update of an entity.<br />
+	 * The update is written later, it is written immediately if the entity cannot be copied or if
+	 * its id is not an integer.
+	 * @param obj
+	 *        the object to update.
+	 * @return <code>true</code> if the update has been recorded, or written.
+	 * @throws IllegalStateException
+	 *         if the DAO has been closed.
+	 */
+	@Override
+	public boolean update (final T obj) {
+		checkOpen();
+		if (obj == null) {
+			return false;
+		}
+		final Integer key = EntityUtils.getKey(obj);
+		final T snapshot = key == null ? null : EntityUtils.copy(obj);
+		if (snapshot == null) {
+			return super.update(obj);
+		}
+		final boolean full;
+		synchronized (lock) {
+			// The pending updates must not be recorded once the last flush has started
+			checkOpen();
+			pending.put(key, snapshot);
+			full = pending.size() >= flushThreshold;
+		}
+		if (full) {
+			flush();
+		}
+		return true;
+	}
+	
+	/**
+	 * Record the update of the entities.
+	 * @param objects
+	 *        the objects to update.
+	 * @return <code>true</code> if all the updates have been recorded, or written.
+	 * @throws IllegalStateException
+	 *         if the DAO has been closed.
+	 * @see #update(Entity)
+	 */
+	@Override
+	public boolean updateAll (final Collection<T> objects) {
+		checkOpen();
+		if (objects == null) {
+			return false;
+		}
+		boolean updated = true;
+		for (final T obj : objects) {
+			updated &= update(obj);
+		}
+		return updated;
+	}
+	
+	@Override
+	public T find (final int id) {
+		T entity;
+		synchronized (lock) {
+			entity = pending.get(id);
+			if (entity == null) {
+				entity = flushing.get(id);
+			}
+		}
+		if (entity != null) {
+			return EntityUtils.copy(entity);
+		}
+		return super.find(id);
+	}
+	
+	@Override
+	public Map<Integer, T> findAll (final Collection<Integer> ids) {
+		if (ids == null) {
+			return null;
+		}
+		final Map<Integer, T> updated = new HashMap<>();
+		final List<Integer> missing = new ArrayList<>();
+		synchronized (lock) {
+			for (final Integer id : ids) {
+				if (id == null || updated.containsKey(id)) {
+					continue;
+				}
+				T entity = pending.get(id);
+				if (entity == null) {
+					entity = flushing.get(id);
+				}
+				if (entity == null) {
+					missing.add(id);
+				} else {
+					updated.put(id, entity);
+				}
+			}
+		}
+		for (final Map.Entry<Integer, T> entry : updated.entrySet()) {
+			entry.setValue(EntityUtils.copy(entry.getValue()));
+		}
+		Map<Integer, T> found = Collections.emptyMap();
+		if (!missing.isEmpty()) {
+			found = super.findAll(missing);
+			if (found == null) {
+				return null;
+			}
+		}
+		
+		// Return the entities in the order of the ids requested
+		final Map<Integer, T> entities = new LinkedHashMap<>(updated.size() + found.size());
+		for (final Integer id : ids) {
+			if (id == null || entities.containsKey(id)) {
+				continue;
+			}
+			T entity = updated.get(id);
+			if (entity == null) {
+				entity = found.get(id);
+			}
+			if (entity != null) {
+				entities.put(id, entity);
+			}
+		}
+		return entities;
+	}
+	
+	/**
+	 * Save the entity immediately, discarding its pending update.<br />
+	 * The flushes are suspended while saving, so the entity saved cannot be overwritten by an
+	 * older update.
+	 * @param obj
+	 *        the object to save.
+	 * @return <code>true</code> if the object has been saved.
+	 */
+	@Override
+	public boolean save (final T obj) {
+		synchronized (flushLock) {
+			if (obj != null) {
+				discard(obj);
+			}
+			return super.save(obj);
+		}
+	}
+	
+	@Override
+	public boolean saveAll (final Collection<T> objects) {
+		synchronized (flushLock) {
+			if (objects != null) {
+				for (final T obj : objects) {
+					if (obj != null) {
+						discard(obj);
+					}
+				}
+			}
+			return super.saveAll(objects);
+		}
+	}
+	
+	/**
+	 * Delete the entity immediately, discarding its pending update.<br />
+	 * The flushes are suspended while deleting, so the entity deleted cannot be found in an update
+	 * being flushed, nor written again.
+	 * @param obj
+	 *        the object to delete.
+	 * @return <code>true</code> if the object has been deleted.
+	 */
+	@Override
+	public boolean delete (final T obj) {
+		synchronized (flushLock) {
+			if (obj != null) {
+				discard(obj);
+			}
+			return super.delete(obj);
+		}
+	}
+	
+	@Override
+	public boolean deleteAll (final Collection<T> objects) {
+		synchronized (flushLock) {
+			if (objects != null) {
+				for (final T obj : objects) {
+					if (obj != null) {
+						discard(obj);
+					}
+				}
+			}
+			return super.deleteAll(objects);
+		}
+	}
+	
+	@Override
+	public Set<T> retrieveAll () {
+		flush();
+		return super.retrieveAll();
+	}
+	
+	@Override
+	public Set<T> search (final Column field, final String value) {
+		flush();
+		return super.search(field, value);
+	}
+	
+	@Override
+	public Set<T> searchEqual (final Column field, final Object value) {
+		flush();
+		return super.searchEqual(field, value);
+	}
+	
+	@Override
+	public Set<T> search (final Column field, final Comparison comparison, final Object value) {
+		flush();
+		return super.search(field, comparison, value);
+	}
+	
+	@Override
+	public Set<T> searchBetween (final Column field, final Object from, final Object to) {
+		flush();
+		return super.searchBetween(field, from, to);
+	}
+	
+	@Override
+	public long count (final Column field, final String value) {
+		flush();
+		return super.count(field, value);
+	}
+	
+	@Override
+	public Map<Object, Object> aggregate (final Aggregate aggregate, final Column field, final Column groupBy) {
+		flush();
+		return super.aggregate(aggregate, field, groupBy);
+	}
+	
+	@Override
+	public Set<T> project (final Collection<Column> columns) {
+		flush();
+		return super.project(columns);
+	}
+	
+	@Override
+	public Set<T> project (final Column field, final String value, final Collection<Column> columns) {
+		flush();
+		return super.project(field, value, columns);
+	}
+	
+	@Override
+	public List<T> page (final int afterId, final int limit) {
+		flush();
+		return super.page(afterId, limit);
+	}
+	
+	@Override
+	public List<T> page (final Column field, final String value, final int afterId, final int limit) {
+		flush();
+		return super.page(field, value, afterId, limit);
+	}
+	
+	/**
+	 * Stop the periodic flushes, flush the pending updates and close the decorated DAO.<br />
+	 * The updates are rejected once this method has been called.
+	 * @throws IOException
+	 *         if some pending updates could not be written, or if the decorated DAO could not be
+	 *         closed.
+	 */
+	@Override
+	public void close () throws IOException {
+		synchronized (lock) {
+			closed = true;
+		}
+		if (scheduler != null) {
+			scheduler.shutdown();
+		}
+		final List<T> lost = write();
+		super.close();
+		if (!lost.isEmpty()) {
+			throw new IOException("Could not write " + lost.size() + " pending updates: " + lost);
+		}
+	}
+
+}
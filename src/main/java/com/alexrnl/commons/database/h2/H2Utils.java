@@ -1,8 +1,14 @@
 package com.alexrnl.commons.database.h2;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -13,9 +19,12 @@ import org.h2.tools.RunScript;
 import com.alexrnl.commons.database.DataBaseConfigurationError;
 import com.alexrnl.commons.database.dao.DataSourceConfiguration;
 import com.alexrnl.commons.error.ExceptionUtils;
+import com.alexrnl.commons.utils.StringUtils;
 
 /**
  * Utility methods for H2 database connections.<br />
+ * The databases can be initialised from a template, see
+ * {@link #initDatabase(DataSourceConfiguration, Path)}.
  * @author Alex
  */
 public final class H2Utils {
@@ -28,6 +37,10 @@ public final class H2Utils {
 	public static final String		IN_MEMORY_PREFIX			= "mem:";
 	/** The separator between the URL and the parameters in a H2 database file description */
 	private static final Character	H2_URL_PARAMETER_SEPARATOR	= ';';
+	/** The prefix of the names of the template databases */
+	private static final String		TEMPLATE_PREFIX				= "template-";
+	/** The lock which serializes the creation of the templates */
+	private static final Object		TEMPLATE_LOCK				= new Object();
 	
 	/**
 	 * Constructor #1.<br />
@@ -120,4 +133,105 @@ public final class H2Utils {
 			throw new DataBaseConfigurationError("Could not create H2 database", e);
 		}
 	}
+	
+	/**
+	 * Initialise the database from a template if the targeted file does not exists.<br />
+	 * The template is built once per creation script, by running the script in a template
+	 * database stored in the directory specified. The templates are identified by a hash of the
+	 * script and of the credentials of the configuration, so a modified script produces a new
+	 * template. The file databases are then initialised by copying the template file, without
+	 * running the script.<br />
+	 * The in-memory databases do not use the template: H2 cannot load a database file in memory,
+	 * restoring it would replay a script as well. They are initialised with
+	 * {@link #initDatabase(DataSourceConfiguration)}.<br />
+	 * This will fails if the dbInfos has a <code>null</code> creation file.
+	 * @param dbInfos
+	 *        the database information to use.
+	 * @param templateDirectory
+	 *        the directory where the templates are stored.
+	 */
+	public static void initDatabase (final DataSourceConfiguration dbInfos, final Path templateDirectory) {
+		if (dbInfos.getCreationFile() == null) {
+			throw new DataBaseConfigurationError("No creation script defined in the data " +
+					"source configuration, cannot initialize database.");
+		}
+		
+		final Path dbFile = getDBFile(dbInfos, true);
+		if (dbFile == null) {
+			initDatabase(dbInfos);
+			return;
+		}
+		if (Files.exists(dbFile)) {
+			return;
+		}
+		try {
+			final Path template = getTemplate(dbInfos, templateDirectory);
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Database file for connection " + dbInfos.getUrl() + " does not exists, " +
+						"copying template " + template);
+			}
+			if (dbFile.toAbsolutePath().getParent() != null) {
+				Files.createDirectories(dbFile.toAbsolutePath().getParent());
+			}
+			Files.copy(getTemplateFile(template), dbFile);
+		} catch (final SQLException | IOException e) {
+			LG.warning("Error while initilization of H2 database from template: " + ExceptionUtils.display(e));
+			throw new DataBaseConfigurationError("Could not create H2 database from template", e);
+		}
+	}
+	
+	/**
+	 * Return the path of the template database file.
+	 * @param template
+	 *        the path of the template, without extension.
+	 * @return the path of the database file.
+	 */
+	private static Path getTemplateFile (final Path template) {
+		return Paths.get(template + Constants.SUFFIX_PAGE_FILE);
+	}
+	
+	/**
+	 * Return the template for the configuration, building it if it does not exist.<br />
+	 * The template is built under a temporary name and then moved, so a template which exists is
+	 * always complete.
+	 * @param dbInfos
+	 *        the database information to use.
+	 * @param templateDirectory
+	 *        the directory where the templates are stored.
+	 * @return the path of the template, without extension.
+	 * @throws IOException
+	 *         if the creation script could not be read or the template could not be stored.
+	 * @throws SQLException
+	 *         if the creation script failed.
+	 */
+	private static Path getTemplate (final DataSourceConfiguration dbInfos, final Path templateDirectory)
+			throws IOException, SQLException {
+		final Path creationFile = dbInfos.getCreationFile();
+		synchronized (TEMPLATE_LOCK) {
+			final String key = StringUtils.getSHA1(new String(Files.readAllBytes(creationFile),
+					StandardCharsets.UTF_8) + dbInfos.getUsername() + H2_URL_PARAMETER_SEPARATOR
+					+ dbInfos.getPassword(), StandardCharsets.UTF_8);
+			final Path template = templateDirectory.resolve(TEMPLATE_PREFIX + key);
+			if (Files.exists(getTemplateFile(template))) {
+				return template;
+			}
+			
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Building template " + template + " with script " + creationFile);
+			}
+			Files.createDirectories(templateDirectory);
+			final Path building = templateDirectory.resolve(TEMPLATE_PREFIX + key + "-" + System.nanoTime());
+			final String url = Constants.START_URL + building.toAbsolutePath();
+			// A single connection is used, re-opening the database file would wait for its lock
+			try (final Connection connection = DriverManager.getConnection(url, dbInfos.getUsername(), dbInfos.getPassword());
+					final Reader script = Files.newBufferedReader(creationFile, StandardCharsets.UTF_8)) {
+				RunScript.execute(connection, script);
+			} catch (final SQLException e) {
+				Files.deleteIfExists(getTemplateFile(building));
+				throw e;
+			}
+			Files.move(getTemplateFile(building), getTemplateFile(template), StandardCopyOption.ATOMIC_MOVE);
+			return template;
+		}
+	}
 }
@@ -0,0 +1,319 @@
+package com.alexrnl.commons.database.sql;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.database.dao.DataSourceConfiguration;
+import com.alexrnl.commons.error.ExceptionUtils;
+
+/**
+ * Bounded pool of database connections.<br />
+ * The connections are opened on demand, up to the {@link #getMaxSize() maximum size} of the pool.
+ * A connection is {@link #acquire() acquired} by a single thread at a time, which must
+ * {@link #release(Connection) release} it once its work is done. When all the connections are in
+ * use, the acquisition waits for a connection to be released.<br />
+ * The acquisition is reentrant: a thread which already holds a connection of the pool gets the same
+ * connection, which is returned to the pool once it has been released as many times as it has been
+ * acquired. A connection may be released by another thread than the one which acquired it, for
+ * instance when an iterator is closed by a worker thread: the hold of the thread which acquired it
+ * is then cleared, so the connection is never shared by two threads.<br />
+ * A pool can also be built around a single existing connection, which is then not closed by the
+ * pool.
+ * @author Alex
+ */
+public class ConnectionPool implements Closeable {
+	/** Logger */
+	private static final Logger				LG						= Logger.getLogger(ConnectionPool.class.getName());
+	/** The default time to wait for a connection, in seconds */
+	public static final long				DEFAULT_ACQUIRE_TIMEOUT	= 30;
+	
+	/** The URL of the database, <code>null</code> if the pool cannot open connections */
+	private final String					url;
+	/** The user name to use */
+	private final String					username;
+	/** The password associated to the user name */
+	private final String					password;
+	/** The maximum number of connections of the pool */
+	private final int						maxSize;
+	/** <code>true</code> if the connections are owned, and closed, by the pool */
+	private final boolean					owner;
+	/** The connections which are not in use */
+	private final BlockingQueue<Connection>	idleConnections;
+	/** The number of connections opened by the pool */
+	private final AtomicInteger				openedConnections;
+	/** <code>true</code> if the pool has been closed */
+	private volatile boolean				closed;
+	/** The connection held by the current thread */
+	private final ThreadLocal<Hold>			heldConnection;
+	/** The holds of the connections in use, by connection */
+	private final Map<Connection, Hold>		holds;
+	
+	/**
+	 * A connection held by a thread.
+	 * @author Alex
+	 */
+	private static final class Hold {
+		/** The connection held */
+		private final Connection	connection;
+		/** The thread which acquired the connection */
+		private final Thread		owner;
+		/** The number of times the connection has been acquired by the thread, guarded by the hold */
+		private int					count;
+		/** <code>true</code> once the connection has been returned to the pool, guarded by the hold */
+		private boolean				released;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param connection
+		 *        the connection held.
+		 */
+		private Hold (final Connection connection) {
+			super();
+			this.connection = connection;
+			this.owner = Thread.currentThread();
+			this.count = 1;
+			this.released = false;
+		}
+	}
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param url
+	 *        the URL of the database.
+	 * @param username
+	 *        the user name to use.
+	 * @param password
+	 *        the password associated to the user name.
+	 * @param maxSize
+	 *        the maximum number of connections of the pool.
+	 */
+	public ConnectionPool (final String url, final String username, final String password, final int maxSize) {
+		this(url, username, password, maxSize, true);
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * Build a pool using the information of the data source configuration.
+	 * @param dataSourceConfig
+	 *        the configuration of the data source.
+	 */
+	public ConnectionPool (final DataSourceConfiguration dataSourceConfig) {
+		this(dataSourceConfig.getUrl(), dataSourceConfig.getUsername(), dataSourceConfig.getPassword(),
+				dataSourceConfig.getPoolSize());
+	}
+	
+	/**
+	 * Constructor #3.<br />
+	 * Build a pool around a single connection. The connection will not be closed by the pool.
+	 * @param connection
+	 *        the connection to use.
+	 */
+	public ConnectionPool (final Connection connection) {
+		this(null, null, null, 1, false);
+		idleConnections.add(connection);
+		openedConnections.set(1);
+	}
+	
+	/**
+	 * Constructor #4.<br />
+	 * @param url
+	 *        the URL of the database.
+	 * @param username
+	 *        the user name to use.
+	 * @param password
+	 *        the password associated to the user name.
+	 * @param maxSize
+	 *        the maximum number of connections of the pool.
+	 * @param owner
+	 *        <code>true</code> if the connections are owned by the pool.
+	 */
+	private ConnectionPool (final String url, final String username, final String password,
+			final int maxSize, final boolean owner) {
+		super();
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Pool size must be strictly positive (was " + maxSize + ")");
+		}
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.maxSize = maxSize;
+		this.owner = owner;
+		this.idleConnections = new ArrayBlockingQueue<>(maxSize);
+		this.openedConnections = new AtomicInteger(0);
+		this.closed = false;
+		this.heldConnection = new ThreadLocal<>();
+		this.holds = new ConcurrentHashMap<>(maxSize);
+	}
+	
+	/**
+	 * Return the maximum number of connections of the pool.
+	 * @return the maximum size of the pool.
+	 */
+	public int getMaxSize () {
+		return maxSize;
+	}
+	
+	/**
+	 * Acquire a connection, waiting up to {@link #DEFAULT_ACQUIRE_TIMEOUT} seconds if all the
+	 * connections are in use.
+	 * @return the connection to use, which must be released afterwards.
+	 * @throws SQLException
+	 *         if no connection could be acquired.
+	 * @see #acquire(long, TimeUnit)
+	 */
+	public Connection acquire () throws SQLException {
+		return acquire(DEFAULT_ACQUIRE_TIMEOUT, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * Acquire a connection.<br />
+	 * If the thread already holds a connection, it is returned. Otherwise, an idle connection is
+	 * returned if there is one, or a new connection is opened if the pool is not full. If it is,
+	 * the call waits for a connection to be released.
+	 * @param timeout
+	 *        the maximum time to wait for a connection.
+	 * @param unit
+	 *        the unit of the timeout.
+	 * @return the connection to use, which must be released afterwards.
+	 * @throws SQLException
+	 *         if the pool is closed, if no connection was released in time or if a connection
+	 *         could not be opened.
+	 */
+	public Connection acquire (final long timeout, final TimeUnit unit) throws SQLException {
+		if (closed) {
+			throw new SQLException("Connection pool is closed");
+		}
+		final Hold hold = heldConnection.get();
+		if (hold != null) {
+			synchronized (hold) {
+				if (!hold.released) {
+					++hold.count;
+					return hold.connection;
+				}
+			}
+			// The connection has been released by another thread
+			heldConnection.remove();
+		}
+		
+		Connection connection = idleConnections.poll();
+		if (connection == null) {
+			connection = open();
+		}
+		if (connection == null) {
+			try {
+				connection = idleConnections.poll(timeout, unit);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted while waiting for a connection", e);
+			}
+			if (connection == null) {
+				throw new SQLException("No connection available after " + timeout + " " + unit);
+			}
+		}
+		final Hold newHold = new Hold(connection);
+		holds.put(connection, newHold);
+		heldConnection.set(newHold);
+		return connection;
+	}
+	
+	/**
+	 * Open a new connection if the pool is not full.
+	 * @return the new connection, or <code>null</code> if the pool is full.
+	 * @throws SQLException
+	 *         if the connection could not be opened.
+	 */
+	private Connection open () throws SQLException {
+		int opened;
+		do {
+			opened = openedConnections.get();
+			if (opened >= maxSize) {
+				return null;
+			}
+		} while (!openedConnections.compareAndSet(opened, opened + 1));
+		
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Opening connection " + (opened + 1) + "/" + maxSize + " to " + url);
+		}
+		try {
+			return DriverManager.getConnection(url, username, password);
+		} catch (final SQLException e) {
+			openedConnections.decrementAndGet();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Release a connection previously acquired.<br />
+	 * The connection is returned to the pool when it has been released as many times as it has
+	 * been acquired, by any thread. It is closed if the pool has been closed meanwhile. A connection
+	 * which is not in use is ignored.
+	 * @param connection
+	 *        the connection to release.
+	 */
+	public void release (final Connection connection) {
+		if (connection == null) {
+			return;
+		}
+		final Hold hold = holds.get(connection);
+		if (hold == null) {
+			LG.warning("Connection released while not in use: " + connection);
+			return;
+		}
+		synchronized (hold) {
+			if (hold.released || --hold.count > 0) {
+				return;
+			}
+			hold.released = true;
+		}
+		holds.remove(connection);
+		if (hold.owner == Thread.currentThread()) {
+			heldConnection.remove();
+		}
+		if (closed) {
+			closeConnection(connection);
+			return;
+		}
+		idleConnections.offer(connection);
+	}
+	
+	/**
+	 * Close a connection if it is owned by the pool.
+	 * @param connection
+	 *        the connection to close.
+	 */
+	private void closeConnection (final Connection connection) {
+		if (!owner) {
+			return;
+		}
+		try {
+			connection.close();
+		} catch (final SQLException e) {
+			LG.warning("Error while closing connection: " + ExceptionUtils.display(e));
+		}
+	}
+	
+	/**
+	 * Close the pool.<br />
+	 * The idle connections are closed immediately, the connections in use are closed when they
+	 * are released.
+	 */
+	@Override
+	public void close () {
+		closed = true;
+		Connection connection;
+		while ((connection = idleConnections.poll()) != null) {
+			closeConnection(connection);
+		}
+	}
+
+}
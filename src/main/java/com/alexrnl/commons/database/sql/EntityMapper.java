@@ -0,0 +1,685 @@
+package com.alexrnl.commons.database.sql;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.DirtyTrackable;
+import com.alexrnl.commons.database.structure.Entity;
+import com.alexrnl.commons.database.structure.EntityColumn;
+import com.alexrnl.commons.utils.object.ReflectUtils;
+import com.alexrnl.commons.utils.object.ReflectionException;
+
+/**
+ * Maps the entities to the rows of their table, using the metadata of the entity.<br />
+ * The properties of the columns are accessed through
+ * {@link MethodHandle method handles} resolved from the {@link EntityColumn#getFieldName() field
+ * names} (<code>getField</code> or <code>isField</code>, and <code>setField</code>), and the values
+ * are read and bound with the JDBC methods specific to the {@link Column#getType() type} of the
+ * column, so no reflection nor name resolution happens for each row.<br />
+ * The parameters are bound by index, in the order of the {@link QueryGenerator generated queries}.
+ * The indices of the columns in the results are resolved on the first row read, as all the
+ * queries of an entity select the same columns: a mapper should only read the results of a single
+ * table, each {@link SQLDAO} has its own mapper.<br />
+ * The entity must have a public constructor without parameter. The mapper is thread-safe.
+ * @author Alex
+ * @param <T>
+ *        The class of the entity to map.
+ */
+public final class EntityMapper<T extends Entity> {
+	/** Logger */
+	private static final Logger			LG	= Logger.getLogger(EntityMapper.class.getName());
+	
+	/** The name of the entity */
+	private final String				entityName;
+	/** The constructor of the entity, of type <code>()Object</code> */
+	private final MethodHandle			constructor;
+	/** The property of the id column, <code>null</code> if the entity has none */
+	private final Property				id;
+	/** The properties of the other columns, in the order of their declaration */
+	private final Property[]			properties;
+	/** The properties of all the columns, by column */
+	private final Map<Column, Property>	columnProperties;
+	/** The indices of the columns in the results, the id being first, <code>null</code> until resolved */
+	private volatile int[]				resultIndices;
+	
+	/**
+	 * The JDBC types of the values, with their specialised reader and binder.
+	 * @author Alex
+	 */
+	private enum ValueType {
+		/** A {@link String} value */
+		STRING (String.class) {
+			@Override
+			Object read (final ResultSet result, final int index) throws SQLException {
+				return result.getString(index);
+			}
+			
+			@Override
+			void bind (final PreparedStatement statement, final int index, final Object value) throws SQLException {
+				statement.setString(index, (String) value);
+			}
+		},
+		/** An {@link Integer} value */
+		INTEGER (Integer.class) {
+			@Override
+			Object read (final ResultSet result, final int index) throws SQLException {
+				final int value = result.getInt(index);
+				return result.wasNull() ? null : Integer.valueOf(value);
+			}
+			
+			@Override
+			void bind (final PreparedStatement statement, final int index, final Object value) throws SQLException {
+				if (value == null) {
+					statement.setNull(index, Types.INTEGER);
+				} else {
+					statement.setInt(index, (Integer) value);
+				}
+			}
+		},
+		/** A {@link Long} value */
+		LONG (Long.class) {
+			@Override
+			Object read (final ResultSet result, final int index) throws SQLException {
+				final long value = result.getLong(index);
+				return result.wasNull() ? null : Long.valueOf(value);
+			}
+			
+			@Override
+			void bind (final PreparedStatement statement, final int index, final Object value) throws SQLException {
+				if (value == null) {
+					statement.setNull(index, Types.BIGINT);
+				} else {
+					statement.setLong(index, (Long) value);
+				}
+			}
+		},
+		/** A {@link Double} value */
+		DOUBLE (Double.class) {
+			@Override
+			Object read (final ResultSet result, final int index) throws SQLException {
+				final double value = result.getDouble(index);
+				return result.wasNull() ? null : Double.valueOf(value);
+			}
+			
+			@Override
+			void bind (final PreparedStatement statement, final int index, final Object value) throws SQLException {
+				if (value == null) {
+					statement.setNull(index, Types.DOUBLE);
+				} else {
+					statement.setDouble(index, (Double) value);
+				}
+			}
+		},
+		/** A {@link Boolean} value */
+		BOOLEAN (Boolean.class) {
+			@Override
+			Object read (final ResultSet result, final int index) throws SQLException {
+				final boolean value = result.getBoolean(index);
+				return result.wasNull() ? null : Boolean.valueOf(value);
+			}
+			
+			@Override
+			void bind (final PreparedStatement statement, final int index, final Object value) throws SQLException {
+				if (value == null) {
+					statement.setNull(index, Types.BOOLEAN);
+				} else {
+					statement.setBoolean(index, (Boolean) value);
+				}
+			}
+		},
+		/** A {@link Date} value, stored as a time stamp */
+		DATE (Date.class) {
+			@Override
+			Object read (final ResultSet result, final int index) throws SQLException {
+				final Timestamp value = result.getTimestamp(index);
+				return value == null ? null : new Date(value.getTime());
+			}
+			
+			@Override
+			void bind (final PreparedStatement statement, final int index, final Object value) throws SQLException {
+				statement.setTimestamp(index, value == null ? null : new Timestamp(((Date) value).getTime()));
+			}
+		},
+		/** Any other value, left to the driver */
+		OBJECT (Object.class) {
+			@Override
+			Object read (final ResultSet result, final int index) throws SQLException {
+				return result.getObject(index);
+			}
+			
+			@Override
+			void bind (final PreparedStatement statement, final int index, final Object value) throws SQLException {
+				statement.setObject(index, value);
+			}
+		};
+		
+		/** The class of the values */
+		private final Class<?>	valueClass;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param valueClass
+		 *        the class of the values.
+		 */
+		private ValueType (final Class<?> valueClass) {
+			this.valueClass = valueClass;
+		}
+		
+		/**
+		 * Read the value of a column in the current row of the result.
+		 * @param result
+		 *        the result to read.
+		 * @param index
+		 *        the index of the column.
+		 * @return the value read, <code>null</code> if the column is <code>NULL</code>.
+		 * @throws SQLException
+		 *         if the value could not be read.
+		 */
+		abstract Object read (ResultSet result, int index) throws SQLException;
+		
+		/**
+		 * Bind a value to a parameter of the statement.
+		 * @param statement
+		 *        the statement.
+		 * @param index
+		 *        the index of the parameter.
+		 * @param value
+		 *        the value to bind, may be <code>null</code>.
+		 * @throws SQLException
+		 *         if the value could not be bound.
+		 */
+		abstract void bind (PreparedStatement statement, int index, Object value) throws SQLException;
+		
+		/**
+		 * Return the value type to use for a column type.
+		 * @param type
+		 *        the type of the column.
+		 * @return the value type.
+		 */
+		static ValueType forType (final Class<?> type) {
+			if (type == String.class) {
+				return STRING;
+			} else if (type == Integer.class || type == int.class) {
+				return INTEGER;
+			} else if (type == Long.class || type == long.class) {
+				return LONG;
+			} else if (type == Double.class || type == double.class) {
+				return DOUBLE;
+			} else if (type == Boolean.class || type == boolean.class) {
+				return BOOLEAN;
+			} else if (type == Date.class) {
+				return DATE;
+			}
+			return OBJECT;
+		}
+	}
+	
+	/**
+	 * The property of the entity mapped to a column.
+	 * @author Alex
+	 */
+	private static final class Property {
+		/** The column of the property */
+		private final Column		column;
+		/** The type of the values of the column */
+		private final ValueType		type;
+		/** The getter of the property, of type <code>(Object)Object</code> */
+		private final MethodHandle	getter;
+		/** The setter of the property, of type <code>(Object, Object)void</code> */
+		private final MethodHandle	setter;
+		/** <code>true</code> if the setter takes a primitive type, which cannot be set to null */
+		private final boolean		primitive;
+		
+		/**
+		 * Constructor #1.<br />
+		 * Resolve the accessors of the property.
+		 * @param entityClass
+		 *        the class of the entity.
+		 * @param column
+		 *        the column of the property.
+		 * @param fieldName
+		 *        the name of the property.
+		 * @throws ReflectionException
+		 *         if the accessors of the property could not be found.
+		 */
+		private Property (final Class<?> entityClass, final Column column, final String fieldName) {
+			super();
+			this.column = column;
+			this.type = ValueType.forType(column.getType());
+			final Method getterMethod = findGetter(entityClass, fieldName);
+			final Method setterMethod = findSetter(entityClass, fieldName, column.getType());
+			try {
+				final MethodHandles.Lookup lookup = MethodHandles.lookup();
+				getterMethod.setAccessible(true);
+				setterMethod.setAccessible(true);
+				this.getter = lookup.unreflect(getterMethod).asType(
+						MethodType.methodType(Object.class, Object.class));
+				this.setter = lookup.unreflect(setterMethod).asType(
+						MethodType.methodType(void.class, Object.class, Object.class));
+			} catch (final IllegalAccessException | SecurityException e) {
+				throw new ReflectionException("Could not access property " + fieldName + " of " + entityClass, e);
+			}
+			this.primitive = setterMethod.getParameterTypes()[0].isPrimitive();
+		}
+		
+		/**
+		 * Find the getter of a property.
+		 * @param entityClass
+		 *        the class of the entity.
+		 * @param fieldName
+		 *        the name of the property.
+		 * @return the getter.
+		 * @throws ReflectionException
+		 *         if the class has no getter for the property.
+		 */
+		private static Method findGetter (final Class<?> entityClass, final String fieldName) {
+			for (final String prefix : new String[] { ReflectUtils.GETTER_PREFIX, ReflectUtils.GETTER_BOOL_PREFIX }) {
+				try {
+					return entityClass.getMethod(prefix + fieldName);
+				} catch (final NoSuchMethodException e) {
+					continue;
+				}
+			}
+			throw new ReflectionException("No getter found for property " + fieldName + " of " + entityClass);
+		}
+		
+		/**
+		 * Find the setter of a property.<br />
+		 * The setter taking the type of the column is preferred, otherwise any setter with a
+		 * single parameter is used.
+		 * @param entityClass
+		 *        the class of the entity.
+		 * @param fieldName
+		 *        the name of the property.
+		 * @param type
+		 *        the type of the column.
+		 * @return the setter.
+		 * @throws ReflectionException
+		 *         if the class has no setter for the property.
+		 */
+		private static Method findSetter (final Class<?> entityClass, final String fieldName, final Class<?> type) {
+			Method setter = null;
+			for (final Method method : entityClass.getMethods()) {
+				if (method.getName().equals(ReflectUtils.SETTER_PREFIX + fieldName)
+						&& method.getParameterTypes().length == 1) {
+					if (method.getParameterTypes()[0] == type) {
+						return method;
+					}
+					setter = method;
+				}
+			}
+			if (setter == null) {
+				throw new ReflectionException("No setter found for property " + fieldName + " of " + entityClass);
+			}
+			return setter;
+		}
+		
+		/**
+		 * Read the value of the property from an entity.
+		 * @param entity
+		 *        the entity.
+		 * @return the value of the property.
+		 * @throws SQLException
+		 *         if the getter failed.
+		 */
+		private Object get (final Entity entity) throws SQLException {
+			try {
+				return getter.invokeExact((Object) entity);
+			} catch (final Error e) {
+				throw e;
+			} catch (final Throwable e) {
+				throw new SQLException("Could not read column " + column.getName() + " of " + entity, e);
+			}
+		}
+		
+		/**
+		 * Set the value of the property of an entity.<br />
+		 * A <code>null</code> value is ignored if the property is a primitive.
+		 * @param entity
+		 *        the entity.
+		 * @param value
+		 *        the value to set.
+		 * @throws SQLException
+		 *         if the setter failed.
+		 */
+		private void set (final Object entity, final Object value) throws SQLException {
+			if (value == null && primitive) {
+				return;
+			}
+			try {
+				setter.invokeExact(entity, value);
+			} catch (final Error e) {
+				throw e;
+			} catch (final Throwable e) {
+				throw new SQLException("Could not set column " + column.getName() + " to " + value, e);
+			}
+		}
+	}
+	
+	/**
+	 * Constructor #1.<br />
+	 * Resolve the accessors of the columns of the entity.
+	 * @param sample
+	 *        a sample of the entity.
+	 * @throws ReflectionException
+	 *         if the entity cannot be built or its properties cannot be accessed.
+	 */
+	public EntityMapper (final T sample) {
+		super();
+		final Class<?> entityClass = sample.getClass();
+		entityName = sample.getEntityName();
+		try {
+			constructor = MethodHandles.lookup().findConstructor(entityClass, MethodType.methodType(void.class))
+					.asType(MethodType.methodType(Object.class));
+		} catch (final NoSuchMethodException | IllegalAccessException e) {
+			throw new ReflectionException("No public constructor without parameter found for " + entityClass, e);
+		}
+		
+		final Map<Column, String> fieldNames = new HashMap<>(sample.getEntityColumns().size());
+		for (final Map.Entry<? extends Enum<? extends EntityColumn>, Column> entry : sample.getEntityColumns().entrySet()) {
+			fieldNames.put(entry.getValue(), ((EntityColumn) entry.getKey()).getFieldName());
+		}
+		final EntityMetadata metadata = QueryGenerator.getMetadata(sample);
+		if (metadata.hasIDColumn()) {
+			id = new Property(entityClass, metadata.getIDColumn(), fieldNames.get(metadata.getIDColumn()));
+		} else {
+			id = null;
+		}
+		final List<Column> columns = metadata.getColumns();
+		properties = new Property[columns.size()];
+		for (int index = 0; index < properties.length; ++index) {
+			properties[index] = new Property(entityClass, columns.get(index), fieldNames.get(columns.get(index)));
+		}
+		columnProperties = new HashMap<>(properties.length + 1);
+		if (id != null) {
+			columnProperties.put(id.column, id);
+		}
+		for (final Property property : properties) {
+			columnProperties.put(property.column, property);
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Mapper built for entity " + entityName);
+		}
+	}
+	
+	/**
+	 * Fill the prepared statement with the values of the object for the insert query.<br />
+	 * The values are set in the order of their column declaration, without the id column.
+	 * @param statement
+	 *        the statement to fill.
+	 * @param obj
+	 *        the object to use.
+	 * @throws SQLException
+	 *         if there was a problem while filling the statement.
+	 * @see QueryGenerator#insertPrepared(Entity)
+	 */
+	public void fillInsertStatement (final PreparedStatement statement, final T obj) throws SQLException {
+		for (int index = 0; index < properties.length; ++index) {
+			final Property property = properties[index];
+			property.type.bind(statement, index + 1, property.get(obj));
+		}
+	}
+	
+	/**
+	 * Fill the prepared statement with the values of the object for the update query.<br />
+	 * The values are set in the order of their column declaration, the id column being last.
+	 * @param statement
+	 *        the statement to fill.
+	 * @param obj
+	 *        the object to use.
+	 * @throws SQLException
+	 *         if there was a problem while filling the statement, or if the entity has no id.
+	 * @see QueryGenerator#updatePrepared(Entity)
+	 * @see QueryGenerator#mergePrepared(Entity)
+	 */
+	public void fillUpdateStatement (final PreparedStatement statement, final T obj) throws SQLException {
+		if (id == null) {
+			throw new SQLException("Entity " + entityName + " has no id column");
+		}
+		fillInsertStatement(statement, obj);
+		id.type.bind(statement, properties.length + 1, id.get(obj));
+	}
+	
+	/**
+	 * Fill the prepared statement with the values of some columns of the object for a partial
+	 * update query.<br />
+	 * The values are set in the order of the columns specified, the id column being last.
+	 * @param statement
+	 *        the statement to fill.
+	 * @param obj
+	 *        the object to use.
+	 * @param columns
+	 *        the columns to update.
+	 * @throws SQLException
+	 *         if there was a problem while filling the statement, if a column does not belong to
+	 *         the entity or if the entity has no id.
+	 * @see QueryGenerator#updatePrepared(Entity, java.util.Collection)
+	 */
+	public void fillUpdateStatement (final PreparedStatement statement, final T obj, final List<Column> columns)
+			throws SQLException {
+		if (id == null) {
+			throw new SQLException("Entity " + entityName + " has no id column");
+		}
+		for (int index = 0; index < columns.size(); ++index) {
+			final Property property = columnProperties.get(columns.get(index));
+			if (property == null) {
+				throw new SQLException("Column " + columns.get(index).getName() + " is not a column of " + entityName);
+			}
+			property.type.bind(statement, index + 1, property.get(obj));
+		}
+		id.type.bind(statement, columns.size() + 1, id.get(obj));
+	}
+	
+	/**
+	 * Bind a value to a parameter of a statement, with the setter matching the type of a column.
+	 * @param statement
+	 *        the statement.
+	 * @param index
+	 *        the index of the parameter.
+	 * @param column
+	 *        the column the value is compared to.
+	 * @param value
+	 *        the value to bind, may be <code>null</code>.
+	 * @throws SQLException
+	 *         if the value could not be bound.
+	 * @throws IllegalArgumentException
+	 *         if the value is not of the type of the column.
+	 */
+	static void bind (final PreparedStatement statement, final int index, final Column column,
+			final Object value) throws SQLException {
+		final ValueType type = ValueType.forType(column.getType());
+		if (value != null && !type.valueClass.isInstance(value)) {
+			throw new IllegalArgumentException("Value " + value + " is not a " + type.valueClass.getSimpleName()
+					+ " as required by column " + column.getName());
+		}
+		type.bind(statement, index, value);
+	}
+	
+	/**
+	 * Read a value of the current row of a result, with the getter matching the type of a column.
+	 * @param result
+	 *        the result to read.
+	 * @param index
+	 *        the index of the column in the result.
+	 * @param column
+	 *        the column of the entity the value comes from.
+	 * @return the value read, <code>null</code> if the column is <code>NULL</code>.
+	 * @throws SQLException
+	 *         if the value could not be read.
+	 */
+	static Object read (final ResultSet result, final int index, final Column column) throws SQLException {
+		return ValueType.forType(column.getType()).read(result, index);
+	}
+	
+	/**
+	 * Return the value of a column for an object.
+	 * @param obj
+	 *        the object.
+	 * @param column
+	 *        the column to read.
+	 * @return the value of the column.
+	 * @throws SQLException
+	 *         if the column does not belong to the entity or if its getter failed.
+	 */
+	Object getValue (final T obj, final Column column) throws SQLException {
+		final Property property = columnProperties.get(column);
+		if (property == null) {
+			throw new SQLException("Column " + column.getName() + " is not a column of " + entityName);
+		}
+		return property.get(obj);
+	}
+	
+	/**
+	 * Resolve the indices of the columns in the results.
+	 * @param result
+	 *        the result of a query of the entity.
+	 * @return the indices of the columns, the id being first.
+	 * @throws SQLException
+	 *         if a column is missing from the result.
+	 */
+	private int[] getResultIndices (final ResultSet result) throws SQLException {
+		int[] indices = resultIndices;
+		if (indices == null) {
+			indices = new int[properties.length + 1];
+			indices[0] = id == null ? 0 : result.findColumn(id.column.getName());
+			for (int index = 0; index < properties.length; ++index) {
+				indices[index + 1] = result.findColumn(properties[index].column.getName());
+			}
+			resultIndices = indices;
+		}
+		return indices;
+	}
+	
+	/**
+	 * Create an entity from the current row of the result.<br />
+	 * Do not move to the next result.
+	 * @param result
+	 *        the result of the query.
+	 * @return the entity created.
+	 * @throws SQLException
+	 *         if there was a problem while reading the data from the columns.
+	 */
+	public T createEntityFromResult (final ResultSet result) throws SQLException {
+		final int[] indices = getResultIndices(result);
+		final Object entity = newEntity();
+		if (id != null) {
+			id.set(entity, id.type.read(result, indices[0]));
+		}
+		for (int index = 0; index < properties.length; ++index) {
+			final Property property = properties[index];
+			property.set(entity, property.type.read(result, indices[index + 1]));
+		}
+		return clean(entity);
+	}
+	
+	/**
+	 * Build the entity created in the database from the object inserted and the generated key.<br />
+	 * The object is {@link Entity#clone() cloned} and the id of the clone is set to the key, the
+	 * object itself is not modified.
+	 * @param obj
+	 *        the object inserted.
+	 * @param key
+	 *        the key generated for the object.
+	 * @return the entity created, <code>null</code> if the entity has no id column or cannot be
+	 *         cloned.
+	 * @throws SQLException
+	 *         if the id could not be set.
+	 */
+	public T createEntityFromKey (final T obj, final int key) throws SQLException {
+		if (id == null) {
+			return null;
+		}
+		final Object entity;
+		try {
+			entity = obj.clone();
+		} catch (final CloneNotSupportedException e) {
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("Entity " + entityName + " cannot be cloned, it will be read from the database");
+			}
+			return null;
+		}
+		if (id.type == ValueType.STRING) {
+			id.set(entity, Integer.toString(key));
+		} else if (id.type == ValueType.LONG) {
+			id.set(entity, Long.valueOf(key));
+		} else {
+			id.set(entity, Integer.valueOf(key));
+		}
+		return clean(entity);
+	}
+	
+	/**
+	 * Mark the entity read from the database as unmodified.<br />
+	 * The setters called to populate a {@link DirtyTrackable} entity mark its columns as dirty,
+	 * although they hold the values of the database.<br />
+	 * The entity is built by the constructor of the class of the sample, or cloned from an
+	 * instance of <code>T</code>, so it is always an instance of <code>T</code>.
+	 * @param entity
+	 *        the entity read.
+	 * @return the entity.
+	 */
+	@SuppressWarnings("unchecked")
+	private T clean (final Object entity) {
+		if (entity instanceof DirtyTrackable) {
+			((DirtyTrackable) entity).clearDirtyColumns();
+		}
+		return (T) entity;
+	}
+	
+	/**
+	 * Create an entity from the current row of the result of a projection.<br />
+	 * Only the properties of the columns of the projection are set, the other properties keep the
+	 * value set by the constructor of the entity. Do not move to the next result.
+	 * @param result
+	 *        the result of the query.
+	 * @param columns
+	 *        the columns of the result, in their order.
+	 * @return the entity created, partially populated.
+	 * @throws SQLException
+	 *         if a column does not belong to the entity or if there was a problem while reading the
+	 *         data from the columns.
+	 * @see QueryGenerator#searchAll(Entity, java.util.Collection)
+	 */
+	public T createEntityFromProjection (final ResultSet result, final List<Column> columns) throws SQLException {
+		final Object entity = newEntity();
+		for (int index = 0; index < columns.size(); ++index) {
+			final Property property = columnProperties.get(columns.get(index));
+			if (property == null) {
+				throw new SQLException("Column " + columns.get(index).getName() + " is not a column of " + entityName);
+			}
+			property.set(entity, property.type.read(result, index + 1));
+		}
+		return clean(entity);
+	}
+	
+	/**
+	 * Build a new instance of the entity.
+	 * @return the new entity.
+	 * @throws SQLException
+	 *         if the constructor of the entity failed.
+	 */
+	private Object newEntity () throws SQLException {
+		try {
+			return constructor.invokeExact();
+		} catch (final Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new SQLException("Could not build entity " + entityName, e);
+		}
+	}
+	
+}
@@ -0,0 +1,77 @@
+package com.alexrnl.commons.database.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+import com.alexrnl.commons.database.structure.NoIdError;
+
+/**
+ * Structure of an entity, as required to generate its queries.<br />
+ * Holds the id column of the entity and its other columns, in the order of their declaration. The
+ * metadata is immutable, it can be shared by several threads.
+ * @author Alex
+ * @see QueryGenerator#getMetadata(Entity)
+ */
+public final class EntityMetadata {
+	/** The class of the entity */
+	private final Class<? extends Entity>	entityClass;
+	/** The id column, <code>null</code> if the entity has none */
+	private final Column					idColumn;
+	/** The columns which are not the id, in the order of their declaration */
+	private final List<Column>				columns;
+	
+	/**
+	 * Constructor #1.<br />
+	 * Resolve the structure of the entity.
+	 * @param object
+	 *        the object which represent the entity.
+	 */
+	EntityMetadata (final Entity object) {
+		super();
+		Column id = null;
+		final List<Column> otherColumns = new ArrayList<>(object.getEntityColumns().size());
+		for (final Column column : object.getEntityColumns().values()) {
+			if (column.isID() && id == null) {
+				id = column;
+			} else {
+				otherColumns.add(column);
+			}
+		}
+		entityClass = object.getClass();
+		idColumn = id;
+		columns = Collections.unmodifiableList(otherColumns);
+	}
+	
+	/**
+	 * Return the id column of the entity.<br />
+	 * A {@link NoIdError} is thrown if the entity has none.
+	 * @return the {@link Column} which is defined as the unique (and identifying) column of the
+	 *         entity.
+	 */
+	public Column getIDColumn () {
+		if (idColumn == null) {
+			throw new NoIdError(entityClass);
+		}
+		return idColumn;
+	}
+	
+	/**
+	 * Check if the entity has an id column.
+	 * @return <code>true</code> if the entity has an id column.
+	 */
+	public boolean hasIDColumn () {
+		return idColumn != null;
+	}
+	
+	/**
+	 * Return the columns of the entity which are not the id column.
+	 * @return the columns, in the order of their declaration.
+	 */
+	public List<Column> getColumns () {
+		return columns;
+	}
+
+}
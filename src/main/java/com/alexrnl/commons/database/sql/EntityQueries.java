@@ -0,0 +1,314 @@
+package com.alexrnl.commons.database.sql;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alexrnl.commons.database.dao.Comparison;
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * Catalog of the SQL queries of an entity.<br />
+ * Holds the text of all the prepared statements used to manipulate an entity, generated once by
+ * the {@link QueryGenerator}. The queries of the core operations are generated with the catalog,
+ * the queries which compare or count the values of a column are generated on their first use, as
+ * most columns are never used this way. The catalog can be shared between all the DAOs of the
+ * entity and by several threads.
+ * @author Alex
+ * @see QueryGenerator#getQueries(Entity)
+ */
+public final class EntityQueries {
+	/** The numbers of ids of the queries which find several entities */
+	private static final int[]							FIND_ALL_SIZES		= { 1, 4, 16, 64, 256 };
+	/** The maximum number of ids of a query which finds several entities */
+	public static final int								MAX_FIND_ALL_SIZE	= FIND_ALL_SIZES[FIND_ALL_SIZES.length - 1];
+	
+	/** The insert query */
+	private final String								insert;
+	/** The query which finds an entity by its id */
+	private final String								find;
+	/** The update query */
+	private final String								update;
+	/** The merge query */
+	private final String								merge;
+	/** The delete query */
+	private final String								delete;
+	/** The query which retrieves all the entities */
+	private final String								searchAll;
+	/** The query which retrieves a page of entities */
+	private final String								page;
+	/** The query which counts the entities */
+	private final String								count;
+	/** The query which checks if an entity exists */
+	private final String								exists;
+	/** The queries which find several entities, by number of ids */
+	private final Map<Integer, String>					findAll;
+	/** The search queries, by column */
+	private final Map<Column, String>					searches;
+	/** The queries which retrieve a page of the entities matching a column, by column */
+	private final Map<Column, String>					pages;
+	/** The queries which compare a column to a value, by column and comparison, generated lazily */
+	private final Map<Column, Map<Comparison, String>>	comparisons;
+	/** The queries which match the values of a column in a range, by column, generated lazily */
+	private final Map<Column, String>					betweens;
+	/** The queries which count the entities matching a column, by column, generated lazily */
+	private final Map<Column, String>					counts;
+	
+	/**
+	 * Constructor #1.<br />
+	 * Generate the queries of the entity.
+	 * @param object
+	 *        the object which represent the entity.
+	 */
+	EntityQueries (final Entity object) {
+		super();
+		insert = QueryGenerator.insertPrepared(object);
+		searchAll = QueryGenerator.searchAll(object);
+		find = searchAll + QueryGenerator.whereID(object, null);
+		update = QueryGenerator.updatePrepared(object);
+		merge = QueryGenerator.mergePrepared(object);
+		delete = QueryGenerator.delete(object, true);
+		page = QueryGenerator.pagePrepared(object);
+		count = QueryGenerator.count(object);
+		exists = QueryGenerator.existsPrepared(object);
+		
+		final Map<Integer, String> findAllQueries = new HashMap<>(FIND_ALL_SIZES.length);
+		for (final int size : FIND_ALL_SIZES) {
+			findAllQueries.put(size, QueryGenerator.findAllPrepared(object, size));
+		}
+		findAll = Collections.unmodifiableMap(findAllQueries);
+		
+		final Map<Column, String> columnSearches = new HashMap<>(object.getEntityColumns().size());
+		final Map<Column, String> columnPages = new HashMap<>(object.getEntityColumns().size());
+		for (final Column column : object.getEntityColumns().values()) {
+			columnSearches.put(column, searchAll + QueryGenerator.where(column, null, isLike(column)));
+			columnPages.put(column, QueryGenerator.pagePrepared(object, column, isLike(column)));
+		}
+		searches = Collections.unmodifiableMap(columnSearches);
+		pages = Collections.unmodifiableMap(columnPages);
+		comparisons = new ConcurrentHashMap<>();
+		betweens = new ConcurrentHashMap<>();
+		counts = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Check if the values of a column are matched with the LIKE operator.
+	 * @param column
+	 *        the column.
+	 * @return <code>true</code> for the {@link String} columns.
+	 */
+	private static boolean isLike (final Column column) {
+		return column.getType().equals(String.class);
+	}
+	
+	/**
+	 * Return the insert query, without the id column.
+	 * @return the insert query.
+	 * @see QueryGenerator#insertPrepared(Entity)
+	 */
+	public String getInsert () {
+		return insert;
+	}
+	
+	/**
+	 * Return the query which finds an entity by its id.
+	 * @return the find query.
+	 */
+	public String getFind () {
+		return find;
+	}
+	
+	/**
+	 * Return the number of ids of the query used to find the number of entities specified.<br />
+	 * Only a few sizes of queries are generated, so their statements can be reused: the size
+	 * returned is the smallest size which can hold the number of entities, or
+	 * {@link #MAX_FIND_ALL_SIZE} if there are more entities. The extra parameters of the query
+	 * should be filled with an id already present.
+	 * @param count
+	 *        the number of entities to find.
+	 * @return the number of ids of the query to use.
+	 */
+	public static int getFindAllSize (final int count) {
+		for (final int size : FIND_ALL_SIZES) {
+			if (size >= count) {
+				return size;
+			}
+		}
+		return MAX_FIND_ALL_SIZE;
+	}
+	
+	/**
+	 * Return the query which finds several entities by their id.
+	 * @param size
+	 *        the number of ids of the query, as returned by {@link #getFindAllSize(int)}.
+	 * @return the find all query, <code>null</code> if no query has this number of ids.
+	 * @see QueryGenerator#findAllPrepared(Entity, int)
+	 */
+	public String getFindAll (final int size) {
+		return findAll.get(size);
+	}
+	
+	/**
+	 * Return the update query.
+	 * @return the update query.
+	 * @see QueryGenerator#updatePrepared(Entity)
+	 */
+	public String getUpdate () {
+		return update;
+	}
+	
+	/**
+	 * Return the merge query, which inserts or updates an entity.
+	 * @return the merge query.
+	 * @see QueryGenerator#mergePrepared(Entity)
+	 */
+	public String getMerge () {
+		return merge;
+	}
+	
+	/**
+	 * Return the delete query.
+	 * @return the delete query.
+	 * @see QueryGenerator#delete(Entity, boolean)
+	 */
+	public String getDelete () {
+		return delete;
+	}
+	
+	/**
+	 * Return the query which retrieves all the entities.
+	 * @return the search all query.
+	 * @see QueryGenerator#searchAll(Entity)
+	 */
+	public String getSearchAll () {
+		return searchAll;
+	}
+	
+	/**
+	 * Return the query which retrieves a page of entities.
+	 * @return the page query.
+	 * @see QueryGenerator#pagePrepared(Entity)
+	 */
+	public String getPage () {
+		return page;
+	}
+	
+	/**
+	 * Return the query which counts the entities.
+	 * @return the count query.
+	 * @see QueryGenerator#count(Entity)
+	 */
+	public String getCount () {
+		return count;
+	}
+	
+	/**
+	 * Return the query which counts the entities matching a value on a column.<br />
+	 * The LIKE operator is used for the {@link String} columns.
+	 * @param column
+	 *        the column to search.
+	 * @return the count query, <code>null</code> if the column does not belong to the entity.
+	 */
+	public String getCount (final Column column) {
+		if (!hasColumn(column)) {
+			return null;
+		}
+		String query = counts.get(column);
+		if (query == null) {
+			query = count + QueryGenerator.where(column, null, isLike(column));
+			counts.put(column, query);
+		}
+		return query;
+	}
+	
+	/**
+	 * Return the query which checks if an entity exists.
+	 * @return the exists query.
+	 * @see QueryGenerator#existsPrepared(Entity)
+	 */
+	public String getExists () {
+		return exists;
+	}
+	
+	/**
+	 * Return the query which searches the entities on a column.<br />
+	 * The LIKE operator is used for the {@link String} columns.
+	 * @param column
+	 *        the column to search.
+	 * @return the search query, <code>null</code> if the column does not belong to the entity.
+	 */
+	public String getSearch (final Column column) {
+		return searches.get(column);
+	}
+	
+	/**
+	 * Return the query which compares a column to a value.<br />
+	 * The value is compared with the type of the column, the LIKE operator is never used.
+	 * @param column
+	 *        the column to compare.
+	 * @param comparison
+	 *        the comparison.
+	 * @return the search query, <code>null</code> if the column does not belong to the entity.
+	 * @see QueryGenerator#whereComparison(Column, Comparison)
+	 */
+	public String getSearch (final Column column, final Comparison comparison) {
+		if (!hasColumn(column)) {
+			return null;
+		}
+		Map<Comparison, String> columnComparisons = comparisons.get(column);
+		if (columnComparisons == null) {
+			final Map<Comparison, String> comparisonQueries = new EnumMap<>(Comparison.class);
+			for (final Comparison columnComparison : Comparison.values()) {
+				comparisonQueries.put(columnComparison, searchAll + QueryGenerator.whereComparison(column, columnComparison));
+			}
+			columnComparisons = Collections.unmodifiableMap(comparisonQueries);
+			comparisons.put(column, columnComparisons);
+		}
+		return columnComparisons.get(comparison);
+	}
+	
+	/**
+	 * Return the query which matches the values of a column in a range.
+	 * @param column
+	 *        the column to compare.
+	 * @return the search query, <code>null</code> if the column does not belong to the entity.
+	 * @see QueryGenerator#whereBetween(Column)
+	 */
+	public String getSearchBetween (final Column column) {
+		if (!hasColumn(column)) {
+			return null;
+		}
+		String query = betweens.get(column);
+		if (query == null) {
+			query = searchAll + QueryGenerator.whereBetween(column);
+			betweens.put(column, query);
+		}
+		return query;
+	}
+	
+	/**
+	 * Return the query which retrieves a page of the entities matching a value on a column.<br />
+	 * The LIKE operator is used for the {@link String} columns.
+	 * @param column
+	 *        the column to search.
+	 * @return the page query, <code>null</code> if the column does not belong to the entity.
+	 * @see QueryGenerator#pagePrepared(Entity, Column, boolean)
+	 */
+	public String getPage (final Column column) {
+		return pages.get(column);
+	}
+	
+	/**
+	 * Check if the column belongs to the entity.
+	 * @param column
+	 *        the column to check.
+	 * @return <code>true</code> if the column is a column of the entity.
+	 */
+	public boolean hasColumn (final Column column) {
+		return searches.containsKey(column);
+	}
+
+}
@@ -0,0 +1,217 @@
+package com.alexrnl.commons.database.sql;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+import com.alexrnl.commons.database.structure.EntityUtils;
+
+/**
+ * In-memory index of the entities on the values of a {@link String} column.<br />
+ * The entities are kept sorted by value, so the entities whose value starts with a prefix are
+ * found without querying the database. The index stores {@link Entity#clone() copies} of the
+ * entities and returns copies of them.<br />
+ * This class is thread-safe.
+ * @author Alex
+ * @param <T>
+ *        The class of the entities indexed.
+ * @see SQLDAO#enablePrefixIndex(Column, boolean)
+ */
+public final class PrefixIndex<T extends Entity> {
+	/** The character following all the others, used to bound the prefix ranges */
+	private static final char							MAX_CHARACTER	= Character.MAX_VALUE;
+	
+	/** The column indexed */
+	private final Column								column;
+	/** <code>true</code> if the values are compared regardless of their case */
+	private final boolean								ignoreCase;
+	/** The entities, by value and by id, guarded by the lock */
+	private final NavigableMap<String, Map<Integer, T>>	entities;
+	/** The values of the entities indexed, by id, guarded by the lock */
+	private final Map<Integer, String>					values;
+	/** The lock of the index */
+	private final ReadWriteLock							lock;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param column
+	 *        the column indexed.
+	 * @param ignoreCase
+	 *        <code>true</code> if the values should be compared regardless of their case.
+	 */
+	public PrefixIndex (final Column column, final boolean ignoreCase) {
+		super();
+		if (column == null || !String.class.equals(column.getType())) {
+			throw new IllegalArgumentException("Only String columns can be indexed (was " + column + ")");
+		}
+		this.column = column;
+		this.ignoreCase = ignoreCase;
+		this.entities = new TreeMap<>();
+		this.values = new HashMap<>();
+		this.lock = new ReentrantReadWriteLock();
+	}
+	
+	/**
+	 * Return the column indexed.
+	 * @return the column.
+	 */
+	public Column getColumn () {
+		return column;
+	}
+	
+	/**
+	 * Check if the values are compared regardless of their case.
+	 * @return <code>true</code> if the case is ignored.
+	 */
+	public boolean isIgnoreCase () {
+		return ignoreCase;
+	}
+	
+	/**
+	 * Return the number of entities indexed.
+	 * @return the size of the index.
+	 */
+	public int size () {
+		lock.readLock().lock();
+		try {
+			return values.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Return the key of a value in the index.
+	 * @param value
+	 *        the value.
+	 * @return the key.
+	 */
+	private String key (final String value) {
+		return ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+	}
+	
+	/**
+	 * Add an entity to the index, or replace its previous version.<br />
+	 * An entity which cannot be copied is removed from the index.
+	 * @param id
+	 *        the id of the entity.
+	 * @param value
+	 *        the value of the column for the entity, <code>null</code> if the entity should not be
+	 *        indexed.
+	 * @param entity
+	 *        the entity.
+	 */
+	public void put (final int id, final String value, final T entity) {
+		final T snapshot = value == null ? null : EntityUtils.copy(entity);
+		lock.writeLock().lock();
+		try {
+			removeLocked(id);
+			if (snapshot != null) {
+				final String key = key(value);
+				Map<Integer, T> sameValue = entities.get(key);
+				if (sameValue == null) {
+					sameValue = new HashMap<>(2);
+					entities.put(key, sameValue);
+				}
+				sameValue.put(id, snapshot);
+				values.put(id, key);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Remove an entity from the index.
+	 * @param id
+	 *        the id of the entity.
+	 */
+	public void remove (final int id) {
+		lock.writeLock().lock();
+		try {
+			removeLocked(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Remove an entity from the index, the write lock being held.
+	 * @param id
+	 *        the id of the entity.
+	 */
+	private void removeLocked (final int id) {
+		final String previous = values.remove(id);
+		if (previous != null) {
+			final Map<Integer, T> sameValue = entities.get(previous);
+			sameValue.remove(id);
+			if (sameValue.isEmpty()) {
+				entities.remove(previous);
+			}
+		}
+	}
+	
+	/**
+	 * Remove all the entities from the index.
+	 */
+	public void clear () {
+		lock.writeLock().lock();
+		try {
+			entities.clear();
+			values.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Find the entities whose value starts with the prefix specified.
+	 * @param prefix
+	 *        the prefix of the values.
+	 * @return copies of the entities whose value starts with the prefix.
+	 */
+	public Set<T> search (final String prefix) {
+		final String from = key(prefix);
+		final Set<T> found = new HashSet<>();
+		lock.readLock().lock();
+		try {
+			for (final Map<Integer, T> sameValue : entities.subMap(from, true, from + MAX_CHARACTER, false).values()) {
+				for (final T entity : sameValue.values()) {
+					found.add(EntityUtils.copy(entity));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		found.remove(null);
+		return found;
+	}
+	
+	/**
+	 * Check if a pattern of the SQL <code>LIKE</code> operator is a simple prefix search, which
+	 * can be served by the index: a value followed by a single <code>%</code> wildcard, without
+	 * any other wildcard nor escape character.
+	 * @param pattern
+	 *        the pattern to check.
+	 * @return the prefix of the pattern, <code>null</code> if the pattern is not a prefix search.
+	 */
+	public static String getPrefix (final String pattern) {
+		if (pattern == null || pattern.isEmpty() || pattern.charAt(pattern.length() - 1) != '%') {
+			return null;
+		}
+		final String prefix = pattern.substring(0, pattern.length() - 1);
+		if (prefix.indexOf('%') >= 0 || prefix.indexOf('_') >= 0 || prefix.indexOf('\\') >= 0) {
+			return null;
+		}
+		return prefix;
+	}
+
+}
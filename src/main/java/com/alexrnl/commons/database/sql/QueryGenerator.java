@@ -1,11 +1,14 @@
 package com.alexrnl.commons.database.sql;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.alexrnl.commons.database.DataBaseConfigurationError;
+import com.alexrnl.commons.database.dao.Aggregate;
+import com.alexrnl.commons.database.dao.Comparison;
 import com.alexrnl.commons.database.structure.Column;
 import com.alexrnl.commons.database.structure.Entity;
 import com.alexrnl.commons.database.structure.NoIdError;
@@ -18,8 +21,10 @@ public final class QueryGenerator {
 	/** Logger */
 	private static final Logger							LG					= Logger.getLogger(QueryGenerator.class.getName());
 	
-	/** Map between the entities and their id columns */
-	private static final Map<Class<? extends Entity>, Column>	ID_COLUMNS	= new HashMap<>();
+	/** Map between the entities and their metadata */
+	private static final ConcurrentMap<Class<? extends Entity>, EntityMetadata>	METADATA	= new ConcurrentHashMap<>();
+	/** Map between the entities and their queries */
+	private static final ConcurrentMap<Class<? extends Entity>, EntityQueries>	QUERIES	= new ConcurrentHashMap<>();
 	
 	/**
 	 * Default constructor.<br />
@@ -38,25 +43,56 @@ public final class QueryGenerator {
 	 *         object.
 	 */
 	public static Column getIDColumn (final Entity object) {
-		synchronized (ID_COLUMNS) {
-			// If the id column has previously been found
-			if (ID_COLUMNS.containsKey(object.getClass())) {
-				return ID_COLUMNS.get(object.getClass());
-			}
-			// Searching the id column
-			for (final Column column : object.getEntityColumns().values()) {
-				if (column.isID()) {
-					if (LG.isLoggable(Level.FINE)) {
-						LG.fine("ID column found for entity " + object.getEntityName() + ": "
-								+ column.getName());
-					}
-					ID_COLUMNS.put(object.getClass(), column);
-					return ID_COLUMNS.get(object.getClass());
-				}
-			}
+		return getMetadata(object).getIDColumn();
+	}
+	
+	/**
+	 * Return the metadata of the entity.<br />
+	 * The metadata is resolved on the first call for the class of the entity, and shared by all the
+	 * following calls, without locking. The metadata of the entities without id column is not
+	 * kept.
+	 * @param object
+	 *        the object which represent the entity.
+	 * @return the metadata of the entity.
+	 */
+	public static EntityMetadata getMetadata (final Entity object) {
+		final EntityMetadata metadata = METADATA.get(object.getClass());
+		if (metadata != null) {
+			return metadata;
+		}
+		final EntityMetadata newMetadata = new EntityMetadata(object);
+		if (!newMetadata.hasIDColumn()) {
+			return newMetadata;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("ID column found for entity " + object.getEntityName() + ": "
+					+ newMetadata.getIDColumn().getName());
+		}
+		final EntityMetadata previous = METADATA.putIfAbsent(object.getClass(), newMetadata);
+		return previous == null ? newMetadata : previous;
+	}
+	
+	/**
+	 * Return the catalog of the queries of the entity.<br />
+	 * The catalog is generated on the first call for the class of the entity, and shared by all the
+	 * following calls. The columns of an entity are thus expected to be the same for all the
+	 * instances of its class.
+	 * @param object
+	 *        the object which represent the entity.
+	 * @return the queries of the entity.
+	 */
+	public static EntityQueries getQueries (final Entity object) {
+		final EntityQueries queries = QUERIES.get(object.getClass());
+		if (queries != null) {
+			return queries;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Generating queries for entity " + object.getEntityName());
 		}
-		// If none, throw error
-		throw new NoIdError(object.getClass());
+		// Concurrent generations may occur, but a single catalog is kept
+		final EntityQueries newQueries = new EntityQueries(object);
+		final EntityQueries previous = QUERIES.putIfAbsent(object.getClass(), newQueries);
+		return previous == null ? newQueries : previous;
 	}
 	
 	/**
@@ -101,10 +137,8 @@ public final class QueryGenerator {
 	public static String insert (final Entity object, final boolean putID) {
 		final StringBuilder columnsNames = new StringBuilder();
 		
-		for (final Column currentColumn : object.getEntityColumns().values()) {
-			if (!putID && currentColumn.isID()) {
-				continue;
-			}
+		for (final Column currentColumn : putID ? object.getEntityColumns().values()
+				: getMetadata(object).getColumns()) {
 			// Adding a comma between fields
 			if (columnsNames.length() > 0) {
 				columnsNames.append(",");
@@ -233,6 +267,33 @@ public final class QueryGenerator {
 		return where(field, value, true);
 	}
 	
+	/**
+	 * Generates the 'WHERE' part of a prepared query comparing a column to a value.<br />
+	 * <code> WHERE fieldName &lt; ?</code><br />
+	 * The value should be bound with the type of the column, so the database can use the indexes
+	 * of the column.
+	 * @param field
+	 *        the column to compare.
+	 * @param comparison
+	 *        the comparison to use.
+	 * @return the WHERE clause of a query.
+	 */
+	public static String whereComparison (final Column field, final Comparison comparison) {
+		return " WHERE " + field.getName() + " " + comparison.getOperator() + " ?";
+	}
+	
+	/**
+	 * Generates the 'WHERE' part of a prepared query matching the values of a column in a range.<br />
+	 * <code> WHERE fieldName BETWEEN ? AND ?</code><br />
+	 * The bounds are inclusive, the lower bound is the first parameter.
+	 * @param field
+	 *        the column to compare.
+	 * @return the WHERE clause of a query.
+	 */
+	public static String whereBetween (final Column field) {
+		return " WHERE " + field.getName() + " BETWEEN ? AND ?";
+	}
+	
 	/**
 	 * Generates the 'SELECT *' query for the current object.<br />
 	 * <code>SELECT * FROM entity</code>
@@ -244,6 +305,85 @@ public final class QueryGenerator {
 		return "SELECT * FROM " + object.getEntityName();
 	}
 	
+	/**
+	 * Generates the 'SELECT' query of some columns of the current object.<br />
+	 * <code>SELECT column1, column2 FROM entity</code>
+	 * @param object
+	 *        the object which represent the entity.
+	 * @param columns
+	 *        the columns to select, in the order of the result.
+	 * @return the SQL query for retrieving the columns of all the rows from an entity.
+	 */
+	public static String searchAll (final Entity object, final Collection<Column> columns) {
+		if (columns.isEmpty()) {
+			throw new IllegalArgumentException("At least one column must be selected");
+		}
+		final StringBuilder query = new StringBuilder("SELECT ");
+		for (final Column column : columns) {
+			query.append(column.getName()).append(", ");
+		}
+		query.delete(query.length() - 2, query.length());
+		return query.append(" FROM ").append(object.getEntityName()).toString();
+	}
+	
+	/**
+	 * Generates the query which counts the rows of the current object.<br />
+	 * <code>SELECT COUNT(*) FROM entity</code>
+	 * @param object
+	 *        the object which represent the entity.
+	 * @return the SQL query for counting the rows of an entity.
+	 */
+	public static String count (final Entity object) {
+		return "SELECT COUNT(*) FROM " + object.getEntityName();
+	}
+	
+	/**
+	 * Generates the query which reads the range of the ids of the current object.<br />
+	 * <code>SELECT MIN(idColumn), MAX(idColumn) FROM entity</code>
+	 * @param object
+	 *        the object which represent the entity.
+	 * @return the SQL query for reading the smallest and the greatest id of an entity.
+	 */
+	public static String idRange (final Entity object) {
+		final String id = getIDColumn(object).getName();
+		return "SELECT MIN(" + id + "), MAX(" + id + ") FROM " + object.getEntityName();
+	}
+	
+	/**
+	 * Generates the prepared statement which checks if a row exists.<br />
+	 * <code>SELECT 1 FROM entity WHERE idColumn = ?</code>
+	 * @param object
+	 *        the object which represent the entity.
+	 * @return the prepared query.
+	 */
+	public static String existsPrepared (final Entity object) {
+		return "SELECT 1 FROM " + object.getEntityName() + whereID(object, null);
+	}
+	
+	/**
+	 * Generates the query which computes an aggregate of a column.<br />
+	 * <code>SELECT groupColumn, SUM(column) FROM entity GROUP BY groupColumn</code><br />
+	 * The grouping column is omitted when the rows are not grouped.
+	 * @param object
+	 *        the object which represent the entity.
+	 * @param aggregate
+	 *        the aggregate to compute.
+	 * @param column
+	 *        the column to aggregate.
+	 * @param groupBy
+	 *        the column whose values group the rows, <code>null</code> to aggregate all the rows.
+	 * @return the SQL query for computing the aggregate.
+	 */
+	public static String aggregate (final Entity object, final Aggregate aggregate, final Column column,
+			final Column groupBy) {
+		final String function = aggregate.getFunction() + "(" + column.getName() + ")";
+		if (groupBy == null) {
+			return "SELECT " + function + " FROM " + object.getEntityName();
+		}
+		return "SELECT " + groupBy.getName() + ", " + function + " FROM " + object.getEntityName()
+				+ " GROUP BY " + groupBy.getName();
+	}
+	
 	/**
 	 * Generates the insert prepared statement.<br />
 	 * <code>INSERT INTO entity (columns) VALUES (?, ?, ?)</code>
@@ -252,7 +392,7 @@ public final class QueryGenerator {
 	 * @return the prepared query.
 	 */
 	public static String insertPrepared (final Entity object) {
-		int columnNumber = object.getEntityColumns().size() - 1;
+		int columnNumber = getMetadata(object).getColumns().size();
 		if (columnNumber == 0) {
 			throw new DataBaseConfigurationError("Single column tables are not supported");
 		}
@@ -272,13 +412,22 @@ public final class QueryGenerator {
 	 * @return the prepared query
 	 */
 	public static String updatePrepared (final Entity object) {
+		// Don't set the id of a column
+		return updatePrepared(object, getMetadata(object).getColumns());
+	}
+	
+	/**
+	 * Generate the update prepared statement of some columns of the entity.<br />
+	 * <code>UPDATE entity SET column1 = ?, column2 = ? WHERE idColumn = ?</code>
+	 * @param object
+	 *        the target entity.
+	 * @param columns
+	 *        the columns to update, which should not contain the id column.
+	 * @return the prepared query.
+	 */
+	public static String updatePrepared (final Entity object, final Collection<Column> columns) {
 		final StringBuilder update = new StringBuilder(update(object));
-		
-		for (final Column column : object.getEntityColumns().values()) {
-			if (column.isID()) {
-				// Don't set the id of a column
-				continue;
-			}
+		for (final Column column : columns) {
 			update.append(column.getName()).append(" = ?, ");
 		}
 		update.delete(update.length() - 2, update.length());
@@ -286,4 +435,95 @@ public final class QueryGenerator {
 		return update.append(whereID(object, null)).toString();
 	}
 	
+	/**
+	 * Generate the merge prepared statement, which inserts the entity or updates it if an entity
+	 * with the same id exists.<br />
+	 * <code>MERGE INTO entity (columns, idColumn) KEY (idColumn) VALUES (?, ?, ?)</code><br />
+	 * The id column is the last parameter, as in the {@link #updatePrepared(Entity) update
+	 * statement}, so both statements can be filled the same way.
+	 * @param object
+	 *        the target entity.
+	 * @return the prepared query.
+	 */
+	public static String mergePrepared (final Entity object) {
+		final EntityMetadata metadata = getMetadata(object);
+		final String idName = "`" + metadata.getIDColumn().getName() + "`";
+		final StringBuilder columnsNames = new StringBuilder();
+		final StringBuilder parameters = new StringBuilder();
+		for (final Column column : metadata.getColumns()) {
+			columnsNames.append("`").append(column.getName()).append("`,");
+			parameters.append("?, ");
+		}
+		return "MERGE INTO " + object.getEntityName() + "(" + columnsNames + idName + ") KEY("
+				+ idName + ") VALUES (" + parameters + "?)";
+	}
+	
+	/**
+	 * Generate the prepared statement which retrieves several entities by their id.<br />
+	 * <code>SELECT * FROM entity WHERE idColumn IN (?, ?, ?)</code>
+	 * @param object
+	 *        the target entity.
+	 * @param count
+	 *        the number of ids of the statement.
+	 * @return the prepared query.
+	 */
+	public static String findAllPrepared (final Entity object, final int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("Number of ids must be strictly positive (was " + count + ")");
+		}
+		final StringBuilder query = new StringBuilder(searchAll(object)).append(" WHERE ")
+				.append(getIDColumn(object).getName()).append(" IN (");
+		for (int index = 1; index < count; ++index) {
+			query.append("?, ");
+		}
+		return query.append("?)").toString();
+	}
+	
+	/**
+	 * Generate the prepared statement which retrieves a page of entities, ordered by their id.<br />
+	 * <code>SELECT * FROM entity WHERE idColumn > ? ORDER BY idColumn LIMIT ?</code><br />
+	 * The first parameter is the id after which the page starts, the second the maximum number of
+	 * entities of the page. As the start of the page is found with the id, the cost of a page
+	 * does not depend on its position.
+	 * @param object
+	 *        the target entity.
+	 * @return the prepared query.
+	 */
+	public static String pagePrepared (final Entity object) {
+		final String idName = getIDColumn(object).getName();
+		return searchAll(object) + " WHERE " + idName + " > ?" + orderByLimit(idName);
+	}
+	
+	/**
+	 * Generate the prepared statement which retrieves a page of the entities matching a value on a
+	 * column, ordered by their id.<br />
+	 * <code>SELECT * FROM entity WHERE fieldName = ? AND idColumn > ? ORDER BY idColumn LIMIT ?</code>
+	 * <br />
+	 * The first parameter is the value to match, the second the id after which the page starts and
+	 * the third the maximum number of entities of the page.
+	 * @param object
+	 *        the target entity.
+	 * @param field
+	 *        the column to filter.
+	 * @param like
+	 *        <code>true</code> if the LIKE operator should be used to match the value.
+	 * @return the prepared query.
+	 */
+	public static String pagePrepared (final Entity object, final Column field, final boolean like) {
+		final String idName = getIDColumn(object).getName();
+		return searchAll(object) + where(field, null, like) + " AND " + idName + " > ?"
+				+ orderByLimit(idName);
+	}
+	
+	/**
+	 * Generates the end of a page query.<br />
+	 * <code> ORDER BY idColumn LIMIT ?</code>
+	 * @param idName
+	 *        the name of the id column.
+	 * @return the ORDER BY and LIMIT clauses of a page query.
+	 */
+	private static String orderByLimit (final String idName) {
+		return " ORDER BY " + idName + " LIMIT ?";
+	}
+	
 }
\ No newline at end of file
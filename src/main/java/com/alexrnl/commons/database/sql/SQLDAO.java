@@ -5,18 +5,43 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.alexrnl.commons.database.dao.Aggregate;
+import com.alexrnl.commons.database.dao.Comparison;
 import com.alexrnl.commons.database.dao.DAO;
+import com.alexrnl.commons.database.dao.DAOStatistics;
+import com.alexrnl.commons.database.dao.DAOStatistics.Operation;
+import com.alexrnl.commons.database.dao.EntityConsumer;
+import com.alexrnl.commons.database.dao.EntityIterator;
+import com.alexrnl.commons.database.dao.MonitoredDAO;
+import com.alexrnl.commons.database.dao.WarmableDAO;
 import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.DirtyTrackable;
 import com.alexrnl.commons.database.structure.Entity;
+import com.alexrnl.commons.database.structure.EntityUtils;
 import com.alexrnl.commons.error.ExceptionUtils;
+import com.alexrnl.commons.utils.object.ReflectionException;
 
 /**
  * This class shall be the super class of all SQL {@link DAO}.<br />
@@ -27,60 +52,581 @@ import com.alexrnl.commons.error.ExceptionUtils;
  * @param <T>
  *        The class of the object to manipulate.
  */
-public abstract class SQLDAO<T extends Entity> implements DAO<T> {
+public abstract class SQLDAO<T extends Entity> implements MonitoredDAO<T>, WarmableDAO<T> {
 	/** Logger */
-	private static final Logger						LG	= Logger.getLogger(SQLDAO.class.getName());
+	private static final Logger						LG					= Logger.getLogger(SQLDAO.class.getName());
+	/** The default number of statements sent in a single batch */
+	public static final int							DEFAULT_BATCH_SIZE	= 500;
+	/** The default number of rows fetched at a time by the iterators */
+	public static final int							DEFAULT_FETCH_SIZE	= 100;
 	
 	/** Name of the entity manipulated */
 	private final String							entityName;
+	/** The queries of the entity */
+	private final EntityQueries						queries;
+	/** The queries of the projections, by set of columns (without the id column) */
+	private final Map<Set<Column>, Projection>		projections;
+	/** The queries of the partial updates, by list of columns updated */
+	private final Map<List<Column>, String>			partialUpdates;
+	/** The maximum number of statements sent in a single batch */
+	private int										batchSize;
+	/** The number of rows fetched at a time by the iterators */
+	private int										fetchSize;
+	/** <code>true</code> if the entities created are read back from the database */
+	private boolean									reloadOnCreate;
+	/** <code>true</code> if the dirty columns of the trackable entities can be updated alone */
+	private final boolean							partialUpdate;
+	/** <code>false</code> once the driver did not return all the keys generated by a batch */
+	private volatile boolean						batchGeneratedKeys;
 	
-	// Prepared statements
-	/** Prepared statement for the create operation */
-	private final PreparedStatement					create;
-	/** Prepared statement for the read operation */
-	private final PreparedStatement					find;
-	/** Prepared statement for the update operation */
-	private final PreparedStatement					update;
-	/** Prepared statement for the delete operation */
-	private final PreparedStatement					delete;
-	/** Prepared statement for the search all operation */
-	private final PreparedStatement					searchAll;
-	/** Prepared statement for the search operation (one per column) */
-	private final Map<Column, PreparedStatement>	searches;
+	/** The mapper of the entity, <code>null</code> until its first use */
+	private volatile EntityMapper<T>				mapper;
+	/** The prefix indexes of the entity, by column */
+	private final Map<Column, PrefixIndex<T>>		prefixIndexes;
+	/** The cache of the searches, <code>null</code> if the searches are not cached */
+	private volatile SearchCache<T>					searchCache;
+	
+	/** The statistics of the operations */
+	private final DAOStatistics						statistics;
+	
+	/** The pool of connections to the database */
+	private final ConnectionPool					pool;
+	/** The prepared statements of each connection of the pool */
+	private final Map<Connection, Statements>		statements;
 	
 	/**
 	 * Constructor #1.<br />
+	 * The DAO will use the connection only, its operations are serialized on it.
 	 * @param connection
 	 *        the connection to the database.
 	 * @throws SQLException
-	 *         The prepared statements could not be created.
+	 *         if the DAO could not be initialized.
 	 */
 	public SQLDAO (final Connection connection) throws SQLException {
+		this(new ConnectionPool(connection));
+	}
+	
+	/**
+	 * Constructor #2.<br />
+	 * The DAO will acquire a connection of the pool for each operation, which allows to use it
+	 * from several threads concurrently. Each connection has its own set of prepared statements,
+	 * which are prepared on their first use.
+	 * @param pool
+	 *        the pool of connections to the database.
+	 * @throws SQLException
+	 *         if the DAO could not be initialized.
+	 * @see #warmUp()
+	 */
+	public SQLDAO (final ConnectionPool pool) throws SQLException {
 		super();
 		this.entityName = getEntitySample().getEntityName();
+		this.queries = QueryGenerator.getQueries(getEntitySample());
+		this.projections = new ConcurrentHashMap<>();
+		this.partialUpdates = new ConcurrentHashMap<>();
+		this.partialUpdate = !isOverridden(getClass(), PreparedStatement.class, Entity.class)
+				|| isOverridden(getClass(), PreparedStatement.class, Entity.class, List.class);
+		this.pool = pool;
+		this.statements = new ConcurrentHashMap<>(pool.getMaxSize());
+		this.batchSize = DEFAULT_BATCH_SIZE;
+		this.fetchSize = DEFAULT_FETCH_SIZE;
+		this.reloadOnCreate = true;
+		this.batchGeneratedKeys = true;
+		this.statistics = new DAOStatistics();
+		this.prefixIndexes = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * The prepared statements of the DAO for a connection.<br />
+	 * The statements are prepared on their first use and kept until the DAO is closed. As a
+	 * connection is used by a single thread at a time, so are its statements.
+	 * @author Alex
+	 */
+	private final class Statements {
+		/** The connection of the statements */
+		private final Connection						connection;
+		/** The statements prepared, by query */
+		private final Map<String, PreparedStatement>	prepared;
 		
-		// Create prepared statements
-		create = connection.prepareStatement(QueryGenerator.insertPrepared(getEntitySample()),
-				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
-		find = connection.prepareStatement(QueryGenerator.searchAll(getEntitySample()) +
-				QueryGenerator.whereID(getEntitySample(), null));
-		update = connection.prepareStatement(QueryGenerator.updatePrepared(getEntitySample()),
-				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
-		delete = connection.prepareStatement(QueryGenerator.delete(getEntitySample(), true));
-		searchAll = connection.prepareStatement(QueryGenerator.searchAll(getEntitySample()));
-		searches = new HashMap<>(getEntitySample().getEntityColumns().size());
-		for (final Column column : getEntitySample().getEntityColumns().values()) {
-			final PreparedStatement statement;
-			if (column.getType().equals(String.class)) {
-				statement = connection.prepareStatement(QueryGenerator.searchAll(getEntitySample()) +
-						QueryGenerator.whereLike(column, null));
-			} else {
-				statement = connection.prepareStatement(QueryGenerator.searchAll(getEntitySample()) +
-						QueryGenerator.where(column, null));
+		/**
+		 * Constructor #1.<br />
+		 * @param connection
+		 *        the connection to use.
+		 */
+		private Statements (final Connection connection) {
+			super();
+			this.connection = connection;
+			this.prepared = new HashMap<>();
+		}
+		
+		/**
+		 * Return the statement of a query, preparing it if required.
+		 * @param query
+		 *        the query of the statement.
+		 * @param updatable
+		 *        <code>true</code> if the statement should be prepared with an updatable result.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement get (final String query, final boolean updatable) throws SQLException {
+			PreparedStatement statement = prepared.get(query);
+			if (statement == null) {
+				if (LG.isLoggable(Level.FINE)) {
+					LG.fine("Preparing statement for " + entityName + ": " + query);
+				}
+				if (updatable) {
+					statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+							ResultSet.CONCUR_UPDATABLE);
+				} else {
+					statement = connection.prepareStatement(query);
+				}
+				prepared.put(query, statement);
 			}
-			
-			searches.put(column, statement);
+			return statement;
+		}
+		
+		/**
+		 * Return the statement for the create operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement create () throws SQLException {
+			return get(queries.getInsert(), true);
+		}
+		
+		/**
+		 * Return the statement for the read operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement find () throws SQLException {
+			return get(queries.getFind(), false);
+		}
+		
+		/**
+		 * Return the statement for the read operation of several entities.
+		 * @param size
+		 *        the number of ids of the statement.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 * @see EntityQueries#getFindAllSize(int)
+		 */
+		private PreparedStatement findAll (final int size) throws SQLException {
+			return get(queries.getFindAll(size), false);
+		}
+		
+		/**
+		 * Return the statement for the update operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement update () throws SQLException {
+			return get(queries.getUpdate(), true);
+		}
+		
+		/**
+		 * Return the statement for the update operation of some columns.
+		 * @param columns
+		 *        the columns to update.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 * @see #getPartialUpdate(List)
+		 */
+		private PreparedStatement update (final List<Column> columns) throws SQLException {
+			return get(getPartialUpdate(columns), true);
+		}
+		
+		/**
+		 * Return the statement for the save operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement merge () throws SQLException {
+			return get(queries.getMerge(), false);
+		}
+		
+		/**
+		 * Return the statement for the delete operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement delete () throws SQLException {
+			return get(queries.getDelete(), false);
+		}
+		
+		/**
+		 * Return the statement for the search all operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement searchAll () throws SQLException {
+			return get(queries.getSearchAll(), false);
+		}
+		
+		/**
+		 * Return the statement for the search operation on a column of the entity.
+		 * @param column
+		 *        the column to search.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement search (final Column column) throws SQLException {
+			return get(queries.getSearch(column), false);
+		}
+		
+		/**
+		 * Return the statement for the comparison of a column of the entity with a value.
+		 * @param column
+		 *        the column to compare.
+		 * @param comparison
+		 *        the comparison.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement search (final Column column, final Comparison comparison) throws SQLException {
+			return get(queries.getSearch(column, comparison), false);
+		}
+		
+		/**
+		 * Return the statement for the range search on a column of the entity.
+		 * @param column
+		 *        the column to compare.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement searchBetween (final Column column) throws SQLException {
+			return get(queries.getSearchBetween(column), false);
+		}
+		
+		/**
+		 * Return the statement for the count operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement count () throws SQLException {
+			return get(queries.getCount(), false);
+		}
+		
+		/**
+		 * Return the statement for the count operation on a column of the entity.
+		 * @param column
+		 *        the column to search.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement count (final Column column) throws SQLException {
+			return get(queries.getCount(column), false);
+		}
+		
+		/**
+		 * Return the statement for the exists operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement exists () throws SQLException {
+			return get(queries.getExists(), false);
+		}
+		
+		/**
+		 * Return the statement of an aggregate query.
+		 * @param query
+		 *        the query of the aggregate.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 * @see QueryGenerator#aggregate(Entity, Aggregate, Column, Column)
+		 */
+		private PreparedStatement aggregate (final String query) throws SQLException {
+			return get(query, false);
+		}
+		
+		/**
+		 * Return the statement of a projection query.
+		 * @param query
+		 *        the query of the projection.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 * @see Projection
+		 */
+		private PreparedStatement projection (final String query) throws SQLException {
+			return get(query, false);
+		}
+		
+		/**
+		 * Return the statement for the page operation.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement page () throws SQLException {
+			return get(queries.getPage(), false);
+		}
+		
+		/**
+		 * Return the statement for the page operation filtered on a column of the entity.
+		 * @param column
+		 *        the column to filter.
+		 * @return the prepared statement.
+		 * @throws SQLException
+		 *         if the statement could not be prepared.
+		 */
+		private PreparedStatement page (final Column column) throws SQLException {
+			return get(queries.getPage(column), false);
+		}
+		
+		/**
+		 * Prepare the statements of the core operations of the entity: create, find, update, save,
+		 * delete, retrieve all and search.
+		 * @throws SQLException
+		 *         if a statement could not be prepared.
+		 */
+		private void prepareCore () throws SQLException {
+			create();
+			find();
+			update();
+			merge();
+			delete();
+			searchAll();
+			for (final Column column : getEntitySample().getEntityColumns().values()) {
+				search(column);
+			}
+		}
+		
+		/**
+		 * Close the statements.
+		 * @throws SQLException
+		 *         if a statement could not be closed.
+		 */
+		private void close () throws SQLException {
+			for (final PreparedStatement statement : prepared.values()) {
+				statement.close();
+			}
+			prepared.clear();
+		}
+	}
+	
+	/**
+	 * The queries of a projection of the entity on a set of columns.<br />
+	 * The id column is always read first, followed by the columns requested in the order of their
+	 * declaration, so the same set of columns always produces the same queries, and reuses the same
+	 * prepared statements.
+	 * @author Alex
+	 */
+	private final class Projection {
+		/** The columns read, in the order of the result */
+		private final List<Column>			columns;
+		/** The query which retrieves the columns of all the entities */
+		private final String				searchAll;
+		/** The search queries, by column */
+		private final Map<Column, String>	searches;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param requested
+		 *        the columns requested, which must belong to the entity.
+		 */
+		private Projection (final Set<Column> requested) {
+			super();
+			final EntityMetadata metadata = QueryGenerator.getMetadata(getEntitySample());
+			columns = new ArrayList<>(requested.size() + 1);
+			if (metadata.hasIDColumn()) {
+				columns.add(metadata.getIDColumn());
+			}
+			for (final Column column : metadata.getColumns()) {
+				if (requested.contains(column)) {
+					columns.add(column);
+				}
+			}
+			searchAll = QueryGenerator.searchAll(getEntitySample(), columns);
+			searches = new HashMap<>(getEntitySample().getEntityColumns().size());
+			for (final Column column : getEntitySample().getEntityColumns().values()) {
+				// The LIKE operator is used for the String columns, as in the full searches
+				searches.put(column, searchAll + QueryGenerator.where(column, null, column.getType().equals(String.class)));
+			}
+		}
+	}
+	
+	/**
+	 * Return the projection of the entity on a set of columns, building it on its first use.
+	 * @param columns
+	 *        the columns requested, which must belong to the entity.
+	 * @return the projection.
+	 */
+	private Projection getProjection (final Collection<Column> columns) {
+		final Set<Column> key = new HashSet<>(columns);
+		if (QueryGenerator.getMetadata(getEntitySample()).hasIDColumn()) {
+			key.remove(QueryGenerator.getIDColumn(getEntitySample()));
+		}
+		Projection projection = projections.get(key);
+		if (projection == null) {
+			projection = new Projection(key);
+			projections.put(key, projection);
+		}
+		return projection;
+	}
+	
+	/**
+	 * Return the query updating some columns of the entity, generating it on its first use.
+	 * @param columns
+	 *        the columns to update, which must belong to the entity.
+	 * @return the update query.
+	 */
+	private String getPartialUpdate (final List<Column> columns) {
+		String update = partialUpdates.get(columns);
+		if (update == null) {
+			update = QueryGenerator.updatePrepared(getEntitySample(), columns);
+			partialUpdates.put(columns, update);
+		}
+		return update;
+	}
+	
+	/**
+	 * Check if a sub-class overrides one of the update fillers of the DAO.
+	 * @param type
+	 *        the class of the DAO.
+	 * @param parameters
+	 *        the parameters of the filler.
+	 * @return <code>true</code> if a class between the class of the DAO and this class declares
+	 *         the filler.
+	 */
+	private static boolean isOverridden (final Class<?> type, final Class<?>... parameters) {
+		for (Class<?> current = type; current != null && current != SQLDAO.class; current = current.getSuperclass()) {
+			try {
+				current.getDeclaredMethod("fillUpdateStatement", parameters);
+				return true;
+			} catch (final NoSuchMethodException e) {
+				// Not declared in this class, check its parent
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Return the dirty columns of an entity, in the order of the columns of the entity.
+	 * @param obj
+	 *        the entity.
+	 * @return the columns to update, <code>null</code> if the entity does not track its dirty
+	 *         columns or if the update filler is overridden, and all its columns should be updated.
+	 */
+	private List<Column> getDirtyColumns (final T obj) {
+		if (!partialUpdate || !(obj instanceof DirtyTrackable)) {
+			return null;
+		}
+		final Set<?> dirty = ((DirtyTrackable) obj).getDirtyColumns();
+		final List<Column> columns = new ArrayList<>(dirty.size());
+		for (final Entry<? extends Enum<?>, Column> column : obj.getEntityColumns().entrySet()) {
+			if (!column.getValue().isID() && dirty.contains(column.getKey())) {
+				columns.add(column.getValue());
+			}
+		}
+		return columns;
+	}
+	
+	/**
+	 * Mark the columns of an entity as unmodified, once written or read from the database.
+	 * @param obj
+	 *        the entity.
+	 */
+	private static void clearDirtyColumns (final Entity obj) {
+		if (obj instanceof DirtyTrackable) {
+			((DirtyTrackable) obj).clearDirtyColumns();
+		}
+	}
+	
+	/**
+	 * A connection acquired from the pool, along with its prepared statements.<br />
+	 * Closing the lease releases the connection.
+	 * @author Alex
+	 */
+	private final class Lease implements AutoCloseable {
+		/** The connection acquired */
+		private final Connection	connection;
+		/** The statements of the connection */
+		private final Statements	statements;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param connection
+		 *        the connection acquired.
+		 * @param statements
+		 *        the statements of the connection.
+		 */
+		private Lease (final Connection connection, final Statements statements) {
+			super();
+			this.connection = connection;
+			this.statements = statements;
+		}
+		
+		@Override
+		public void close () {
+			pool.release(connection);
+		}
+	}
+	
+	/**
+	 * Acquire a connection from the pool and prepare its statements if required.
+	 * @return the lease on the connection, which must be closed after use.
+	 * @throws SQLException
+	 *         if no connection could be acquired or if the statements could not be prepared.
+	 */
+	private Lease lease () throws SQLException {
+		final Connection connection = pool.acquire();
+		Statements connectionStatements = statements.get(connection);
+		if (connectionStatements == null) {
+			connectionStatements = new Statements(connection);
+			statements.put(connection, connectionStatements);
+		}
+		return new Lease(connection, connectionStatements);
+	}
+	
+	/**
+	 * Prepare the statements of the core operations of the DAO.<br />
+	 * The statements are otherwise prepared on their first use. This allows the services which
+	 * are sensitive to latency to pay the cost of the preparation upfront, and to check that the
+	 * queries are valid. Only the statements of the create, find, update, save, delete, retrieve
+	 * all and search operations are prepared, the other statements (comparisons, counts, pages...)
+	 * are still prepared on their first use. Only the statements of the connection acquired by the
+	 * calling thread are prepared.
+	 * @throws SQLException
+	 *         if no connection could be acquired or if a statement could not be prepared.
+	 */
+	@Override
+	public void warmUp () throws SQLException {
+		long timeBefore = 0;
+		if (LG.isLoggable(Level.FINER)) {
+			timeBefore = System.nanoTime();
+		}
+		try (final Lease lease = lease()) {
+			lease.statements.prepareCore();
 		}
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for preparing statements of " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+	}
+	
+	/**
+	 * Check if the column belongs to the entity of the DAO.
+	 * @param column
+	 *        the column to check.
+	 * @return <code>true</code> if the column is a column of the entity.
+	 */
+	private boolean isEntityColumn (final Column column) {
+		return queries.hasColumn(column);
 	}
 	
 	/**
@@ -91,21 +637,220 @@ public abstract class SQLDAO<T extends Entity> implements DAO<T> {
 	 */
 	protected abstract T getEntitySample ();
 	
+	/**
+	 * Return the mapper of the entity, building it on the first call.
+	 * @return the mapper.
+	 * @throws SQLException
+	 *         if the entity cannot be mapped automatically.
+	 */
+	private EntityMapper<T> getMapper () throws SQLException {
+		EntityMapper<T> entityMapper = mapper;
+		if (entityMapper == null) {
+			try {
+				entityMapper = new EntityMapper<>(getEntitySample());
+			} catch (final ReflectionException e) {
+				throw new SQLException("Could not map entity " + entityName + " automatically", e);
+			}
+			mapper = entityMapper;
+		}
+		return entityMapper;
+	}
+	
+	/**
+	 * Enable the cache of the results of the {@link #search(Column, String)} operation.<br />
+	 * The results are invalidated by the write operations of this DAO, so the table should not be
+	 * modified by other means. When the invalidation is done per column, the update of an entity
+	 * which {@link com.alexrnl.commons.database.structure.DirtyTrackable tracks its dirty columns}
+	 * only invalidates the searches on these columns and the results which contain the entity;
+	 * otherwise, any write invalidates the whole cache. Enabling the cache again replaces it.
+	 * @param maxEntities
+	 *        the maximum number of entities held by the cache.
+	 * @param perColumn
+	 *        <code>true</code> if the results should be invalidated per column.
+	 * @see SearchCache
+	 */
+	public void enableSearchCache (final int maxEntities, final boolean perColumn) {
+		searchCache = new SearchCache<>(maxEntities, perColumn);
+	}
+	
+	/**
+	 * Disable the cache of the searches.
+	 */
+	public void disableSearchCache () {
+		searchCache = null;
+	}
+	
+	/**
+	 * Return the cache of the searches, which exposes its hit ratio and its size.
+	 * @return the search cache, <code>null</code> if the searches are not cached.
+	 */
+	public SearchCache<T> getSearchCache () {
+		return searchCache;
+	}
+	
+	/**
+	 * Invalidate all the searches cached.
+	 */
+	private void invalidateSearches () {
+		final SearchCache<T> cache = searchCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+	
+	/**
+	 * Invalidate the searches cached affected by the modification of an entity.
+	 * @param obj
+	 *        the entity modified.
+	 * @param columns
+	 *        the columns modified, <code>null</code> if all the columns may have been modified.
+	 */
+	private void invalidateSearches (final T obj, final Collection<Column> columns) {
+		final SearchCache<T> cache = searchCache;
+		if (cache != null) {
+			cache.invalidate(obj, columns);
+		}
+	}
+	
+	/**
+	 * Enable an in-memory prefix index on a {@link String} column of the entity.<br />
+	 * The index is built by reading all the entities, then the searches on the column whose value
+	 * is a simple prefix pattern (<code>value%</code>) are served by the index. It is kept current
+	 * by the write operations of this DAO, so the table should not be modified by other means. The
+	 * index should be enabled at startup, before the DAO is used by other threads, as the updates
+	 * done while it is being built may be missed. The entity must be mapped by its
+	 * {@link EntityMapper}, which reads the values of the column.
+	 * @param column
+	 *        the column to index.
+	 * @param ignoreCase
+	 *        <code>true</code> if the index should ignore the case of the values, which should match
+	 *        the collation of the database.
+	 * @throws SQLException
+	 *         if the entity cannot be mapped or if the entities could not be read.
+	 * @see PrefixIndex#getPrefix(String)
+	 */
+	public void enablePrefixIndex (final Column column, final boolean ignoreCase) throws SQLException {
+		if (column == null || !isEntityColumn(column)) {
+			throw new IllegalArgumentException("Column " + column + " is not a column of " + entityName);
+		}
+		final PrefixIndex<T> index = new PrefixIndex<>(column, ignoreCase);
+		long timeBefore = 0;
+		if (LG.isLoggable(Level.FINER)) {
+			timeBefore = System.nanoTime();
+		}
+		buildPrefixIndex(index);
+		prefixIndexes.put(column, index);
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for indexing " + index.size() + " " + entityName + " on column "
+					+ column.getName() + ": " + usTimeDiff(timeBefore));
+		}
+	}
+	
+	/**
+	 * Fill a prefix index with all the entities of the database, streaming them with a forward
+	 * only cursor.
+	 * @param index
+	 *        the index to build.
+	 * @throws SQLException
+	 *         if the entities could not be read.
+	 */
+	private void buildPrefixIndex (final PrefixIndex<T> index) throws SQLException {
+		final EntityMapper<T> entityMapper = getMapper();
+		index.clear();
+		try (final Lease lease = lease();
+				final PreparedStatement statement = lease.connection.prepareStatement(queries.getSearchAll(),
+						ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			statement.setFetchSize(fetchSize);
+			try (final ResultSet result = statement.executeQuery()) {
+				while (result.next()) {
+					final T entity = createEntityFromResult(result);
+					final Integer key = EntityUtils.getKey(entity);
+					if (key != null) {
+						index.put(key, (String) entityMapper.getValue(entity, index.getColumn()), entity);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Update the prefix indexes with the current state of an entity.<br />
+	 * An entity whose values cannot be read is removed from the indexes.
+	 * @param obj
+	 *        the entity written in the database.
+	 */
+	private void indexed (final T obj) {
+		if (prefixIndexes.isEmpty() || obj == null) {
+			return;
+		}
+		final Integer key = EntityUtils.getKey(obj);
+		if (key == null) {
+			return;
+		}
+		for (final PrefixIndex<T> index : prefixIndexes.values()) {
+			try {
+				index.put(key, (String) getMapper().getValue(obj, index.getColumn()), obj);
+			} catch (final SQLException e) {
+				LG.warning("Could not index " + entityName + " " + obj + ": " + ExceptionUtils.display(e));
+				index.remove(key);
+			}
+		}
+	}
+	
+	/**
+	 * Remove an entity from the prefix indexes.
+	 * @param obj
+	 *        the entity deleted from the database.
+	 */
+	private void unindexed (final T obj) {
+		if (prefixIndexes.isEmpty() || obj == null) {
+			return;
+		}
+		final Integer key = EntityUtils.getKey(obj);
+		if (key == null) {
+			return;
+		}
+		for (final PrefixIndex<T> index : prefixIndexes.values()) {
+			index.remove(key);
+		}
+	}
+	
+	/**
+	 * Rebuild the prefix indexes from the database.<br />
+	 * Used when a batch operation failed, as the batches executed before the failure have been
+	 * kept. An index which could not be rebuilt is disabled.
+	 */
+	private void rebuildPrefixIndexes () {
+		for (final PrefixIndex<T> index : prefixIndexes.values()) {
+			try {
+				buildPrefixIndex(index);
+			} catch (final SQLException e) {
+				LG.warning("Could not rebuild index of " + entityName + " on column "
+						+ index.getColumn().getName() + ", disabling it: " + ExceptionUtils.display(e));
+				prefixIndexes.remove(index.getColumn());
+			}
+		}
+	}
+	
 	/**
 	 * Creates an entity from a row of result.<br />
-	 * Do not move to the next result.
+	 * Do not move to the next result. The default implementation uses the {@link EntityMapper} of
+	 * the entity.
 	 * @param result
 	 *        the result of the query.
 	 * @return the newly created entity.
 	 * @throws SQLException
 	 *         if there was a problem while reading the data from the columns.
 	 */
-	protected abstract T createEntityFromResult (final ResultSet result) throws SQLException;
+	protected T createEntityFromResult (final ResultSet result) throws SQLException {
+		return getMapper().createEntityFromResult(result);
+	}
 	
 	/**
 	 * Fill the prepared statement with the object value for the insert query.<br />
 	 * The values must be set in the order of their column declaration, and the id column should not
-	 * be set as it is an insert statement.
+	 * be set as it is an insert statement. The default implementation uses the
+	 * {@link EntityMapper} of the entity.
 	 * @param statement
 	 *        the statement to fill.
 	 * @param obj
@@ -113,13 +858,16 @@ public abstract class SQLDAO<T extends Entity> implements DAO<T> {
 	 * @throws SQLException
 	 *         if there was a problem while filling the statement.
 	 */
-	protected abstract void fillInsertStatement (final PreparedStatement statement, final T obj)
-			throws SQLException;
+	protected void fillInsertStatement (final PreparedStatement statement, final T obj)
+			throws SQLException {
+		getMapper().fillInsertStatement(statement, obj);
+	}
 	
 	/**
-	 * Fill the prepared statement with the object value for the insert query.<br />
-	 * The values must be set in the order of their column declaration, and the id column should not
-	 * be set as it is an insert statement.
+	 * Fill the prepared statement with the object value for the update query.<br />
+	 * The values must be set in the order of their column declaration, the id column being set
+	 * last. The statement is also used for the {@link #save(Entity) save} operation. The default
+	 * implementation uses the {@link EntityMapper} of the entity.
 	 * @param statement
 	 *        the statement to fill.
 	 * @param obj
@@ -127,242 +875,1660 @@ public abstract class SQLDAO<T extends Entity> implements DAO<T> {
 	 * @throws SQLException
 	 *         if there was a problem while filling the statement.
 	 */
-	protected abstract void fillUpdateStatement (final PreparedStatement statement, final T obj)
-			throws SQLException;
+	protected void fillUpdateStatement (final PreparedStatement statement, final T obj)
+			throws SQLException {
+		getMapper().fillUpdateStatement(statement, obj);
+	}
 	
-	@Override
-	public void close () throws IOException {
-		if (LG.isLoggable(Level.FINE)) {
-			LG.fine("Closing statements.");
-		}
-		try {
-			create.close();
-			find.close();
-			delete.close();
-			searchAll.close();
-			for (final PreparedStatement search : searches.values()) {
-				search.close();
-			}
-			searches.clear();
-		} catch (final SQLException e) {
-			LG.warning("Error while closing statements: " + ExceptionUtils.display(e));
-			throw new IOException("Exception while closing statements", e);
+	/**
+	 * Fill the prepared statement with the object value for the update of some columns.<br />
+	 * The values must be set in the order of the columns specified, the id column being set last.
+	 * Used for the {@link DirtyTrackable} entities. The default implementation uses the
+	 * {@link EntityMapper} of the entity; a sub-class which overrides
+	 * {@link #fillUpdateStatement(PreparedStatement, Entity)} without overriding this method
+	 * always updates all the columns.
+	 * @param statement
+	 *        the statement to fill.
+	 * @param obj
+	 *        the object to use.
+	 * @param columns
+	 *        the columns to update.
+	 * @throws SQLException
+	 *         if there was a problem while filling the statement.
+	 */
+	protected void fillUpdateStatement (final PreparedStatement statement, final T obj, final List<Column> columns)
+			throws SQLException {
+		getMapper().fillUpdateStatement(statement, obj, columns);
+	}
+	
+	/**
+	 * Build the entity created in the database from the object inserted and the generated key.<br />
+	 * Used when the entities created are not {@link #setReloadOnCreate(boolean) read back} from
+	 * the database. The object inserted must not be modified, a new entity should be returned.<br />
+	 * The default implementation clones the object and sets the id of the clone with the
+	 * {@link EntityMapper} of the entity; if the entity cannot be cloned, it is read from the
+	 * database.
+	 * @param obj
+	 *        the object inserted.
+	 * @param id
+	 *        the key generated for the object.
+	 * @return the entity created, or <code>null</code> if it should be read from the database.
+	 * @throws SQLException
+	 *         if the entity could not be built.
+	 */
+	protected T createEntityFromKey (final T obj, final int id) throws SQLException {
+		return getMapper().createEntityFromKey(obj, id);
+	}
+	
+	/**
+	 * Check if the database sets values which are not part of the object inserted (default values,
+	 * triggers, etc.).<br />
+	 * Such entities are always read back from the database after their creation. The default
+	 * implementation returns <code>false</code>.
+	 * @param obj
+	 *        the object inserted.
+	 * @return <code>true</code> if the entity created must be read from the database.
+	 */
+	protected boolean hasDatabaseDefaults (final T obj) {
+		return false;
+	}
+	
+	/**
+	 * Fill a prepared statement with the value of an object.
+	 * @author Alex
+	 * @param <T>
+	 *        The class of the object to use.
+	 */
+	private interface StatementFiller<T> {
+		/**
+		 * Fill the statement with the object values.
+		 * @param statement
+		 *        the statement to fill.
+		 * @param obj
+		 *        the object to use.
+		 * @throws SQLException
+		 *         if there was a problem while filling the statement.
+		 */
+		void fill (PreparedStatement statement, T obj) throws SQLException;
+	}
+	
+	/**
+	 * Return the maximum number of statements sent in a single batch.
+	 * @return the batch size.
+	 */
+	public int getBatchSize () {
+		return batchSize;
+	}
+	
+	/**
+	 * Set the maximum number of statements sent in a single batch.<br />
+	 * The batch operations ({@link #createAll(Collection)}, {@link #updateAll(Collection)},
+	 * {@link #saveAll(Collection)} and {@link #deleteAll(Collection)}) execute each batch in its
+	 * own transaction.
+	 * @param batchSize
+	 *        the batch size, must be strictly positive.
+	 */
+	public void setBatchSize (final int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be strictly positive (was " + batchSize + ")");
 		}
+		this.batchSize = batchSize;
+	}
+	
+	/**
+	 * Return the number of rows fetched at a time by the iterators.
+	 * @return the fetch size.
+	 */
+	public int getFetchSize () {
+		return fetchSize;
+	}
+	
+	/**
+	 * Set the number of rows fetched at a time by the iterators.<br />
+	 * Used by the forward only cursors of {@link #iterateAll()},
+	 * {@link #iterateSearch(Column, String)} and {@link #scanAll(ExecutorService, int, EntityConsumer)}.
+	 * @param fetchSize
+	 *        the fetch size, must be strictly positive.
+	 */
+	public void setFetchSize (final int fetchSize) {
+		if (fetchSize < 1) {
+			throw new IllegalArgumentException("Fetch size must be strictly positive (was " + fetchSize + ")");
+		}
+		this.fetchSize = fetchSize;
+	}
+	
+	/**
+	 * Return the statistics of the operations of the DAO.<br />
+	 * The statistics are always recorded, whatever the log level.
+	 * @return the statistics.
+	 */
+	@Override
+	public DAOStatistics getStatistics () {
+		return statistics;
+	}
+	
+	/**
+	 * Check if the entities created are read back from the database.
+	 * @return <code>true</code> if the created entities are read from the database.
+	 */
+	public boolean isReloadOnCreate () {
+		return reloadOnCreate;
+	}
+	
+	/**
+	 * Set whether the entities created are read back from the database.<br />
+	 * When disabled, the entities returned by the create operations are built from the objects
+	 * inserted and the generated keys, which saves a query per entity created. The sub-classes
+	 * whose entities have columns filled by the database should then implement
+	 * {@link #hasDatabaseDefaults(Entity)}.
+	 * @param reloadOnCreate
+	 *        <code>true</code> if the created entities should be read from the database.
+	 * @see #createEntityFromKey(Entity, int)
+	 */
+	public void setReloadOnCreate (final boolean reloadOnCreate) {
+		this.reloadOnCreate = reloadOnCreate;
+	}
+	
+	@Override
+	public void close () throws IOException {
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Closing statements.");
+		}
+		try {
+			for (final Statements connectionStatements : statements.values()) {
+				connectionStatements.close();
+			}
+			statements.clear();
+		} catch (final SQLException e) {
+			LG.warning("Error while closing statements: " + ExceptionUtils.display(e));
+			throw new IOException("Exception while closing statements", e);
+		}
+	}
+	
+	/**
+	 * Return a string with the time difference from the reference with the unit appended.<br />
+	 * The time difference will be in microseconds.
+	 * @param nanoTimeReference
+	 *        the reference time, in nanoseconds.
+	 * @return the string to display.
+	 */
+	private static String usTimeDiff (final long nanoTimeReference) {
+		return TimeUnit.MICROSECONDS.convert(System.nanoTime() - nanoTimeReference, TimeUnit.NANOSECONDS) + " µseconds";
+	}
+	
+	@Override
+	public T create (final T obj) {
+		if (obj == null) {
+			return null;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Creating the " + entityName + ": " + obj.toString());
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		T newEntity = null;
+		try (final Lease lease = lease()) {
+			final PreparedStatement create = lease.statements.create();
+			fillInsertStatement(create, obj);
+			create.executeUpdate();
+			// Retrieving the created object
+			try (final ResultSet resultSet = create.getGeneratedKeys()) {
+				create.clearParameters();
+				if (resultSet.next()) {
+					newEntity = created(lease, obj, resultSet.getInt(1));
+				} else {
+					LG.warning("Could not retrieve last inserted id for " + entityName);
+				}
+			}
+		} catch (final SQLException e) {
+			LG.warning("Exception while creating a " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.CREATE, timeBefore, false);
+			return null;
+		}
+		
+		statistics.record(Operation.CREATE, timeBefore, newEntity != null);
+		invalidateSearches();
+		indexed(newEntity);
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for creating " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return newEntity;
+	}
+	
+	@Override
+	public T find (final int id) {
+		T entity = null;
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Finding the " + entityName + " with id = " + id);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		try (final Lease lease = lease()) {
+			entity = find(lease, id);
+		} catch (final SQLException e) {
+			LG.warning("Could not find " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.FIND, timeBefore, false);
+			return null;
+		}
+		
+		statistics.record(Operation.FIND, timeBefore, true);
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for finding " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return entity;
+	}
+	
+	/**
+	 * Return the entity created in the database.<br />
+	 * The entity is built from the object inserted if possible, otherwise it is read from the
+	 * database.
+	 * @param lease
+	 *        the lease to use.
+	 * @param obj
+	 *        the object inserted.
+	 * @param id
+	 *        the key generated for the object.
+	 * @return the entity created.
+	 * @throws SQLException
+	 *         if the entity could not be built or read.
+	 * @see #setReloadOnCreate(boolean)
+	 */
+	private T created (final Lease lease, final T obj, final int id) throws SQLException {
+		if (!reloadOnCreate && !hasDatabaseDefaults(obj)) {
+			final T entity = createEntityFromKey(obj, id);
+			if (entity != null) {
+				clearDirtyColumns(entity);
+				return entity;
+			}
+		}
+		return find(lease, id);
+	}
+	
+	/**
+	 * Find the object with the specified id, using the statements of the lease.
+	 * @param lease
+	 *        the lease to use.
+	 * @param id
+	 *        the id of the object to retrieve.
+	 * @return The object which matches the <code>id</code> or <code>null</code> if no matches had
+	 *         been found.
+	 * @throws SQLException
+	 *         if the object could not be read.
+	 */
+	private T find (final Lease lease, final int id) throws SQLException {
+		final PreparedStatement find = lease.statements.find();
+		find.setInt(1, id);
+		try (final ResultSet result = find.executeQuery()) {
+			find.clearParameters();
+			if (result.first()) {
+				return createEntityFromResult(result);
+			} else if (LG.isLoggable(Level.INFO)) {
+				LG.info("Could not retrieve " + entityName + " with id = " + id);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Find the objects with the specified ids.<br />
+	 * The entities are read by chunks of ids, using a few fixed sizes of <code>IN</code> lists so
+	 * their statements are reused.
+	 * @param ids
+	 *        the ids of the objects to retrieve.
+	 * @return the objects found, by id, in the order of the ids; the ids which do not match any
+	 *         object are not present in the map.
+	 */
+	@Override
+	public Map<Integer, T> findAll (final Collection<Integer> ids) {
+		if (ids == null) {
+			return null;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Finding " + ids.size() + " " + entityName);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		final Map<Integer, T> entities;
+		try (final Lease lease = lease()) {
+			entities = findAll(lease, ids);
+		} catch (final SQLException e) {
+			LG.warning("Could not find " + entityName + " in batch: " + ExceptionUtils.display(e));
+			statistics.record(Operation.FIND_ALL, timeBefore, false);
+			return null;
+		}
+		
+		statistics.record(Operation.FIND_ALL, timeBefore, true);
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for finding " + ids.size() + " " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return entities;
+	}
+	
+	/**
+	 * Find the objects with the specified ids, using the statements of the lease.<br />
+	 * The ids are sent by chunks of {@link EntityQueries#MAX_FIND_ALL_SIZE} at most, the unused
+	 * parameters of the last chunk being filled with its last id.
+	 * @param lease
+	 *        the lease to use.
+	 * @param ids
+	 *        the ids of the objects to retrieve, <code>null</code> and duplicate ids are ignored.
+	 * @return the objects found, by id, in the order of the ids.
+	 * @throws SQLException
+	 *         if the objects could not be read.
+	 */
+	private Map<Integer, T> findAll (final Lease lease, final Collection<Integer> ids) throws SQLException {
+		final List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		distinctIds.remove(null);
+		
+		final Map<Integer, T> found = new HashMap<>(distinctIds.size());
+		for (int start = 0; start < distinctIds.size(); start += EntityQueries.MAX_FIND_ALL_SIZE) {
+			final List<Integer> chunk = distinctIds.subList(start,
+					Math.min(start + EntityQueries.MAX_FIND_ALL_SIZE, distinctIds.size()));
+			final int size = EntityQueries.getFindAllSize(chunk.size());
+			final PreparedStatement findAll = lease.statements.findAll(size);
+			for (int index = 0; index < size; ++index) {
+				findAll.setInt(index + 1, chunk.get(Math.min(index, chunk.size() - 1)));
+			}
+			try (final ResultSet result = findAll.executeQuery()) {
+				findAll.clearParameters();
+				while (result.next()) {
+					final T entity = createEntityFromResult(result);
+					found.put(Integer.valueOf(entity.getID()), entity);
+				}
+			}
+		}
+		
+		// Return the entities in the order of the ids requested
+		final Map<Integer, T> entities = new LinkedHashMap<>(found.size());
+		for (final Integer id : distinctIds) {
+			final T entity = found.get(id);
+			if (entity != null) {
+				entities.put(id, entity);
+			}
+		}
+		return entities;
+	}
+	
+	/**
+	 * Update the object in the database.<br />
+	 * The update of a {@link DirtyTrackable} entity writes only its dirty columns, with a statement
+	 * generated once per set of columns, and is skipped when no column is dirty.
+	 * @param obj
+	 *        the object to update.
+	 * @return <code>true</code> if the update of the object has been successful.
+	 */
+	@Override
+	public boolean update (final T obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Updating the " + entityName + " with " + obj);
+		}
+		final List<Column> dirtyColumns = getDirtyColumns(obj);
+		if (dirtyColumns != null && dirtyColumns.isEmpty()) {
+			if (LG.isLoggable(Level.FINE)) {
+				LG.fine("No column of the " + entityName + " has been modified, update skipped");
+			}
+			return true;
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		final boolean updated;
+		try (final Lease lease = lease()) {
+			final PreparedStatement update;
+			if (dirtyColumns == null) {
+				update = lease.statements.update();
+				fillUpdateStatement(update, obj);
+			} else {
+				update = lease.statements.update(dirtyColumns);
+				fillUpdateStatement(update, obj, dirtyColumns);
+			}
+			updated = update.executeUpdate() > 0;
+			update.clearParameters();
+		} catch (final SQLException e) {
+			LG.warning("Could not update " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.UPDATE, timeBefore, false);
+			return false;
+		}
+		
+		statistics.record(Operation.UPDATE, timeBefore, true);
+		if (updated) {
+			clearDirtyColumns(obj);
+			invalidateSearches(obj, dirtyColumns);
+			indexed(obj);
+		}
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for updating " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public boolean save (final T obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Saving the " + entityName + " " + obj);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		try (final Lease lease = lease()) {
+			final PreparedStatement merge = lease.statements.merge();
+			fillUpdateStatement(merge, obj);
+			merge.executeUpdate();
+			merge.clearParameters();
+		} catch (final SQLException e) {
+			LG.warning("Could not save " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.SAVE, timeBefore, false);
+			return false;
+		}
+		
+		statistics.record(Operation.SAVE, timeBefore, true);
+		clearDirtyColumns(obj);
+		invalidateSearches();
+		indexed(obj);
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for saving " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public boolean delete (final T obj) {
+		if (obj == null) {
+			return true;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Deleting " + entityName + " " + obj);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		try (final Lease lease = lease()) {
+			final PreparedStatement delete = lease.statements.delete();
+			delete.setObject(1, obj.getID());
+			delete.execute();
+			delete.clearParameters();
+		} catch (final SQLException e) {
+			LG.warning("Could not delete " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.DELETE, timeBefore, false);
+			return false;
+		}
+		
+		statistics.record(Operation.DELETE, timeBefore, true);
+		invalidateSearches(obj, Collections.<Column> emptyList());
+		unindexed(obj);
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for deleting " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Execute the statement in batches for all the objects of the collection.<br />
+	 * Each batch is executed in its own transaction, which is rolled back if any statement of the
+	 * batch fails. The batches which were already executed are kept.<br />
+	 * When the keys generated are required and the driver does not return all the keys of a batch
+	 * (H2 only returns the last one), the batch is rolled back and its statements are executed one
+	 * by one, in the same transaction, to read their actual key. The following batches are then
+	 * always executed one statement at a time.
+	 * @param operation
+	 *        the name of the operation, for logging purposes.
+	 * @param connection
+	 *        the connection of the statement.
+	 * @param statement
+	 *        the statement to execute.
+	 * @param objects
+	 *        the objects to use for filling the statement, <code>null</code> elements are ignored.
+	 * @param filler
+	 *        the filler of the statement.
+	 * @param generatedKeys
+	 *        the list where to add the keys generated by the statements, <code>null</code> if they
+	 *        should not be retrieved.
+	 * @throws SQLException
+	 *         if a batch could not be executed.
+	 */
+	private void executeBatches (final String operation, final Connection connection,
+			final PreparedStatement statement, final Collection<T> objects, final StatementFiller<T> filler,
+			final List<Integer> generatedKeys) throws SQLException {
+		final boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			final Iterator<T> objectIterator = objects.iterator();
+			final List<T> batch = new ArrayList<>(Math.min(batchSize, objects.size()));
+			while (objectIterator.hasNext()) {
+				long timeBefore = 0;
+				if (LG.isLoggable(Level.FINER)) {
+					timeBefore = System.nanoTime();
+				}
+				
+				batch.clear();
+				while (batch.size() < batchSize && objectIterator.hasNext()) {
+					final T obj = objectIterator.next();
+					if (obj != null) {
+						batch.add(obj);
+					}
+				}
+				try {
+					boolean singly = generatedKeys != null && !batchGeneratedKeys;
+					if (!singly) {
+						for (final T obj : batch) {
+							filler.fill(statement, obj);
+							statement.addBatch();
+						}
+						statement.executeBatch();
+						if (generatedKeys != null && !readGeneratedKeys(statement, batch.size(), generatedKeys)) {
+							LG.info("Driver does not return the keys generated by the batches of " + entityName
+									+ ", executing the statements one by one");
+							connection.rollback();
+							batchGeneratedKeys = false;
+							singly = true;
+						}
+					}
+					if (singly) {
+						for (final T obj : batch) {
+							filler.fill(statement, obj);
+							statement.executeUpdate();
+							if (!readGeneratedKeys(statement, 1, generatedKeys)) {
+								throw new SQLException("Could not retrieve the key generated for " + entityName);
+							}
+						}
+					}
+					connection.commit();
+				} catch (final SQLException e) {
+					statement.clearBatch();
+					connection.rollback();
+					throw e;
+				}
+				
+				if (LG.isLoggable(Level.FINER)) {
+					LG.finer("Time for " + operation + " batch of " + batch.size() + " " + entityName + ": "
+							+ usTimeDiff(timeBefore));
+				}
+			}
+		} finally {
+			statement.clearParameters();
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+	
+	/**
+	 * Read the keys generated by the last execution of the statement.<br />
+	 * The keys are added to the list only if the driver returned one key per row inserted.
+	 * @param statement
+	 *        the statement which has been executed.
+	 * @param count
+	 *        the number of rows inserted.
+	 * @param generatedKeys
+	 *        the list where to add the keys.
+	 * @return <code>true</code> if all the keys were returned by the driver.
+	 * @throws SQLException
+	 *         if the keys could not be retrieved.
+	 */
+	private static boolean readGeneratedKeys (final PreparedStatement statement, final int count,
+			final List<Integer> generatedKeys) throws SQLException {
+		final List<Integer> keys = new ArrayList<>(count);
+		try (final ResultSet resultSet = statement.getGeneratedKeys()) {
+			while (resultSet.next()) {
+				keys.add(resultSet.getInt(1));
+			}
+		}
+		if (keys.size() != count) {
+			return false;
+		}
+		generatedKeys.addAll(keys);
+		return true;
+	}
+	
+	@Override
+	public List<T> createAll (final Collection<T> objects) {
+		if (objects == null) {
+			return null;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Creating " + objects.size() + " " + entityName);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		final List<Integer> keys = new ArrayList<>(objects.size());
+		final List<T> newEntities = new ArrayList<>(objects.size());
+		try (final Lease lease = lease()) {
+			executeBatches("creating", lease.connection, lease.statements.create(), objects, new StatementFiller<T>() {
+				@Override
+				public void fill (final PreparedStatement statement, final T obj) throws SQLException {
+					fillInsertStatement(statement, obj);
+				}
+			}, keys);
+			
+			// Build the entities which do not need to be read back, then read the others at once
+			final Iterator<Integer> key = keys.iterator();
+			final List<Integer> reloadKeys = new ArrayList<>();
+			for (final T obj : objects) {
+				if (obj == null) {
+					continue;
+				}
+				final int id = key.next();
+				T entity = null;
+				if (!reloadOnCreate && !hasDatabaseDefaults(obj)) {
+					entity = createEntityFromKey(obj, id);
+					clearDirtyColumns(entity);
+				}
+				if (entity == null) {
+					reloadKeys.add(id);
+				}
+				newEntities.add(entity);
+			}
+			if (!reloadKeys.isEmpty()) {
+				final Map<Integer, T> reloaded = findAll(lease, reloadKeys);
+				for (int index = 0; index < newEntities.size(); ++index) {
+					if (newEntities.get(index) == null) {
+						newEntities.set(index, reloaded.get(keys.get(index)));
+					}
+				}
+			}
+		} catch (final SQLException e) {
+			LG.warning("Exception while creating " + entityName + " in batch: " + ExceptionUtils.display(e));
+			statistics.record(Operation.CREATE_ALL, timeBefore, false);
+			invalidateSearches();
+			rebuildPrefixIndexes();
+			return null;
+		}
+		statistics.record(Operation.CREATE_ALL, timeBefore, true);
+		invalidateSearches();
+		for (final T entity : newEntities) {
+			indexed(entity);
+		}
+		return newEntities;
+	}
+	
+	@Override
+	public boolean updateAll (final Collection<T> objects) {
+		if (objects == null) {
+			return false;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Updating " + objects.size() + " " + entityName);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		// Group the entities by columns to update, the entities without dirty column are skipped
+		final Map<List<Column>, List<T>> groups = new LinkedHashMap<>();
+		for (final T obj : objects) {
+			if (obj == null) {
+				continue;
+			}
+			final List<Column> dirtyColumns = getDirtyColumns(obj);
+			if (dirtyColumns != null && dirtyColumns.isEmpty()) {
+				continue;
+			}
+			List<T> group = groups.get(dirtyColumns);
+			if (group == null) {
+				group = new ArrayList<>();
+				groups.put(dirtyColumns, group);
+			}
+			group.add(obj);
+		}
+		
+		try (final Lease lease = lease()) {
+			for (final Entry<List<Column>, List<T>> group : groups.entrySet()) {
+				final List<Column> columns = group.getKey();
+				if (columns == null) {
+					executeBatches("updating", lease.connection, lease.statements.update(), group.getValue(), new StatementFiller<T>() {
+						@Override
+						public void fill (final PreparedStatement statement, final T obj) throws SQLException {
+							fillUpdateStatement(statement, obj);
+						}
+					}, null);
+				} else {
+					executeBatches("updating", lease.connection, lease.statements.update(columns), group.getValue(), new StatementFiller<T>() {
+						@Override
+						public void fill (final PreparedStatement statement, final T obj) throws SQLException {
+							fillUpdateStatement(statement, obj, columns);
+						}
+					}, null);
+				}
+			}
+		} catch (final SQLException e) {
+			LG.warning("Could not update " + entityName + " in batch: " + ExceptionUtils.display(e));
+			statistics.record(Operation.UPDATE_ALL, timeBefore, false);
+			invalidateSearches();
+			rebuildPrefixIndexes();
+			return false;
+		}
+		statistics.record(Operation.UPDATE_ALL, timeBefore, true);
+		for (final Entry<List<Column>, List<T>> group : groups.entrySet()) {
+			for (final T obj : group.getValue()) {
+				clearDirtyColumns(obj);
+				invalidateSearches(obj, group.getKey());
+				indexed(obj);
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public boolean saveAll (final Collection<T> objects) {
+		if (objects == null) {
+			return false;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Saving " + objects.size() + " " + entityName);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		try (final Lease lease = lease()) {
+			executeBatches("saving", lease.connection, lease.statements.merge(), objects, new StatementFiller<T>() {
+				@Override
+				public void fill (final PreparedStatement statement, final T obj) throws SQLException {
+					fillUpdateStatement(statement, obj);
+				}
+			}, null);
+		} catch (final SQLException e) {
+			LG.warning("Could not save " + entityName + " in batch: " + ExceptionUtils.display(e));
+			statistics.record(Operation.SAVE_ALL, timeBefore, false);
+			invalidateSearches();
+			rebuildPrefixIndexes();
+			return false;
+		}
+		statistics.record(Operation.SAVE_ALL, timeBefore, true);
+		invalidateSearches();
+		for (final T obj : objects) {
+			clearDirtyColumns(obj);
+			indexed(obj);
+		}
+		return true;
+	}
+	
+	@Override
+	public boolean deleteAll (final Collection<T> objects) {
+		if (objects == null) {
+			return true;
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Deleting " + objects.size() + " " + entityName);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		try (final Lease lease = lease()) {
+			executeBatches("deleting", lease.connection, lease.statements.delete(), objects, new StatementFiller<T>() {
+				@Override
+				public void fill (final PreparedStatement statement, final T obj) throws SQLException {
+					statement.setObject(1, obj.getID());
+				}
+			}, null);
+		} catch (final SQLException e) {
+			LG.warning("Could not delete " + entityName + " in batch: " + ExceptionUtils.display(e));
+			statistics.record(Operation.DELETE_ALL, timeBefore, false);
+			invalidateSearches();
+			rebuildPrefixIndexes();
+			return false;
+		}
+		statistics.record(Operation.DELETE_ALL, timeBefore, true);
+		for (final T obj : objects) {
+			if (obj != null) {
+				invalidateSearches(obj, Collections.<Column> emptyList());
+			}
+			unindexed(obj);
+		}
+		return true;
+	}
+	
+	@Override
+	public Set<T> retrieveAll () {
+		final Set<T> allEntities = new HashSet<>();
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Retrieving all " + entityName);
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		try (final Lease lease = lease();
+				final ResultSet result = lease.statements.searchAll().executeQuery()) {
+			while (result.next()) {
+				allEntities.add(createEntityFromResult(result));
+			}
+		} catch (final SQLException e) {
+			LG.warning("Could not retrieve all " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.RETRIEVE_ALL, timeBefore, false);
+			return allEntities;
+		}
+		
+		statistics.record(Operation.RETRIEVE_ALL, timeBefore, true);
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for retrieving all " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return allEntities;
+	}
+	
+	/**
+	 * Read all the entities in parallel and pass them to a consumer.<br />
+	 * The range of the ids of the entities is split into partitions of equal size. Each partition
+	 * is read by a task of the executor, on its own connection of the pool, with a forward only
+	 * cursor which fetches {@link #getFetchSize()} rows at a time. The number of partitions read
+	 * at the same time is thus bounded by the threads of the executor and the size of the pool.<br />
+	 * The consumer is called by the threads of the executor as the entities are read, it must be
+	 * thread-safe. The entity must have an integer id column.
+	 * @param executor
+	 *        the executor running the partitions.
+	 * @param partitions
+	 *        the number of partitions, must be strictly positive.
+	 * @param consumer
+	 *        the consumer of the entities.
+	 * @return the number of entities read, <code>-1</code> if a partition could not be read, in
+	 *         which case the consumer may have received part of the entities.
+	 */
+	public long scanAll (final ExecutorService executor, final int partitions, final EntityConsumer<? super T> consumer) {
+		if (partitions < 1) {
+			throw new IllegalArgumentException("Number of partitions must be strictly positive (was " + partitions + ")");
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Scanning all " + entityName + " in " + partitions + " partitions");
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		long scanned = 0;
+		final List<Future<Long>> results = new ArrayList<>(partitions);
+		try {
+			final int[] range = getIdRange();
+			if (range != null) {
+				final long size = ((long) range[1] - range[0]) / partitions + 1;
+				for (long lower = range[0]; lower <= range[1]; lower += size) {
+					final int from = (int) lower;
+					final int to = (int) Math.min(lower + size - 1, range[1]);
+					results.add(executor.submit(new Callable<Long>() {
+						@Override
+						public Long call () throws SQLException {
+							return scan(from, to, consumer);
+						}
+					}));
+				}
+			}
+			for (final Future<Long> result : results) {
+				scanned += result.get();
+			}
+		} catch (final SQLException | ExecutionException e) {
+			LG.warning("Could not scan all " + entityName + ": " + ExceptionUtils.display(e));
+			cancel(results);
+			statistics.record(Operation.SCAN_ALL, timeBefore, false);
+			return -1;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancel(results);
+			statistics.record(Operation.SCAN_ALL, timeBefore, false);
+			return -1;
+		}
+		
+		statistics.record(Operation.SCAN_ALL, timeBefore, true);
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for scanning " + scanned + " " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return scanned;
+	}
+	
+	/**
+	 * Read the smallest and the greatest id of the entities.
+	 * @return the range of the ids, <code>null</code> if there is no entity.
+	 * @throws SQLException
+	 *         if the range could not be read.
+	 */
+	private int[] getIdRange () throws SQLException {
+		try (final Lease lease = lease();
+				final PreparedStatement statement = lease.connection.prepareStatement(
+						QueryGenerator.idRange(getEntitySample()));
+				final ResultSet result = statement.executeQuery()) {
+			result.next();
+			final int min = result.getInt(1);
+			if (result.wasNull()) {
+				return null;
+			}
+			return new int[] { min, result.getInt(2) };
+		}
+	}
+	
+	/**
+	 * Read the entities of a partition of a scan.
+	 * @param from
+	 *        the smallest id of the partition.
+	 * @param to
+	 *        the greatest id of the partition.
+	 * @param consumer
+	 *        the consumer of the entities.
+	 * @return the number of entities read.
+	 * @throws SQLException
+	 *         if the entities could not be read.
+	 */
+	private long scan (final int from, final int to, final EntityConsumer<? super T> consumer) throws SQLException {
+		long scanned = 0;
+		final Column id = QueryGenerator.getIDColumn(getEntitySample());
+		try (final Lease lease = lease();
+				final PreparedStatement statement = lease.connection.prepareStatement(queries.getSearchBetween(id),
+						ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			statement.setFetchSize(fetchSize);
+			statement.setInt(1, from);
+			statement.setInt(2, to);
+			try (final ResultSet result = statement.executeQuery()) {
+				while (result.next()) {
+					consumer.accept(createEntityFromResult(result));
+					++scanned;
+				}
+			}
+		}
+		return scanned;
+	}
+	
+	/**
+	 * Cancel the partitions of a scan which have not been started yet.
+	 * @param results
+	 *        the results of the partitions.
+	 */
+	private static void cancel (final List<Future<Long>> results) {
+		for (final Future<Long> result : results) {
+			result.cancel(false);
+		}
+	}
+	
+	/**
+	 * Search the objects matching the value on the specified column.<br />
+	 * The search is served from memory by the {@link #enablePrefixIndex(Column, boolean) prefix
+	 * index} of the column when the value is a simple prefix, or by the
+	 * {@link #enableSearchCache(int, boolean) search cache} when it is enabled.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @return the objects matching the value.
+	 */
+	@Override
+	public Set<T> search (final Column field, final String value) {
+		if (field == null || value == null) {
+			return retrieveAll();
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Searching " + entityName + " for " + value + " in column " + field.getName());
+		}
+		
+		final long timeBefore = System.nanoTime();
+		
+		final Set<T> entities = new HashSet<>();
+		if (!isEntityColumn(field)) {
+			LG.warning("Could not find prepared query for column " + field.getName() + " in entity "
+					+ entityName + ". Check that the column is indeed defined in the entity.");
+			statistics.record(Operation.SEARCH, timeBefore, false);
+			return entities;
+		}
+		final PrefixIndex<T> index = prefixIndexes.get(field);
+		final String prefix = PrefixIndex.getPrefix(value);
+		if (index != null && prefix != null) {
+			entities.addAll(index.search(prefix));
+			statistics.record(Operation.SEARCH_MEMORY, timeBefore, true);
+			return entities;
+		}
+		final SearchCache<T> cache = searchCache;
+		long version = 0;
+		if (cache != null) {
+			final Set<T> cached = cache.get(field, value);
+			if (cached != null) {
+				statistics.record(Operation.SEARCH_MEMORY, timeBefore, true);
+				return cached;
+			}
+			version = cache.getVersion();
+		}
+		try (final Lease lease = lease()) {
+			final PreparedStatement search = lease.statements.search(field);
+			search.setString(1, value);
+			try (final ResultSet result = search.executeQuery()) {
+				search.clearParameters();
+				while (result.next()) {
+					entities.add(createEntityFromResult(result));
+				}
+			}
+		} catch (final SQLException e) {
+			LG.warning("Could not retrieve " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.SEARCH, timeBefore, false);
+			return entities;
+		}
+		
+		statistics.record(Operation.SEARCH, timeBefore, true);
+		if (cache != null) {
+			cache.put(field, value, entities, version);
+		}
+		
+		if (LG.isLoggable(Level.FINER)) {
+			LG.finer("Time for searching " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		
+		return entities;
 	}
 	
 	/**
-	 * Return a string with the time difference from the reference with the unit appended.<br />
-	 * The time difference will be in microseconds.
-	 * @param nanoTimeReference
-	 *        the reference time, in nanoseconds.
-	 * @return the string to display.
+	 * Search the objects whose column is equal to the value.<br />
+	 * Like the other typed searches, the value is bound with the type of the column, so the
+	 * database can use the indexes of the column.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test, of the type of the column.
+	 * @return the objects whose field is equal to the value.
+	 * @see #search(Column, Comparison, Object)
+	 * @see #searchBetween(Column, Object, Object)
 	 */
-	private static String usTimeDiff (final long nanoTimeReference) {
-		return TimeUnit.MICROSECONDS.convert(System.nanoTime() - nanoTimeReference, TimeUnit.NANOSECONDS) + " µseconds";
+	@Override
+	public Set<T> searchEqual (final Column field, final Object value) {
+		return search(field, Comparison.EQUAL, value);
 	}
 	
 	@Override
-	public T create (final T obj) {
-		if (obj == null) {
-			return null;
+	public Set<T> search (final Column field, final Comparison comparison, final Object value) {
+		if (field == null || comparison == null || value == null) {
+			return retrieveAll();
 		}
 		if (LG.isLoggable(Level.FINE)) {
-			LG.fine("Creating the " + entityName + ": " + obj.toString());
+			LG.fine("Searching " + entityName + " with column " + field.getName() + " "
+					+ comparison.getOperator() + " " + value);
 		}
-		
-		long timeBefore = 0;
-		if (LG.isLoggable(Level.FINER)) {
-			timeBefore = System.nanoTime();
+		return search(field, comparison, value, null);
+	}
+	
+	@Override
+	public Set<T> searchBetween (final Column field, final Object from, final Object to) {
+		if (field == null || from == null || to == null) {
+			return retrieveAll();
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Searching " + entityName + " with column " + field.getName() + " between " + from
+					+ " and " + to);
 		}
+		return search(field, null, from, to);
+	}
+	
+	/**
+	 * Execute a typed search, the values being bound with the type of the column.
+	 * @param field
+	 *        the field to search.
+	 * @param comparison
+	 *        the comparison of the field with the value, <code>null</code> for a range search.
+	 * @param value
+	 *        the value to compare, or the lower bound of the range.
+	 * @param upperValue
+	 *        the upper bound of the range, ignored if the comparison is not <code>null</code>.
+	 * @return the objects matching.
+	 * @throws IllegalArgumentException
+	 *         if a value is not of the type of the column.
+	 */
+	private Set<T> search (final Column field, final Comparison comparison, final Object value,
+			final Object upperValue) {
+		final long timeBefore = System.nanoTime();
 		
-		T newEntity = null;
-		try {
-			fillInsertStatement(create, obj);
-			create.executeUpdate();
-			// Retrieving the created object
-			try (final ResultSet resultSet = create.getGeneratedKeys()) {
-				create.clearParameters();
-				if (resultSet.next()) {
-					newEntity = find(resultSet.getInt(1));
-				} else {
-					LG.warning("Could not retrieve last inserted id for " + entityName);
+		final Set<T> entities = new HashSet<>();
+		if (!isEntityColumn(field)) {
+			LG.warning("Could not find prepared query for column " + field.getName() + " in entity "
+					+ entityName + ". Check that the column is indeed defined in the entity.");
+			statistics.record(Operation.SEARCH, timeBefore, false);
+			return entities;
+		}
+		try (final Lease lease = lease()) {
+			final PreparedStatement search;
+			if (comparison == null) {
+				search = lease.statements.searchBetween(field);
+				EntityMapper.bind(search, 1, field, value);
+				EntityMapper.bind(search, 2, field, upperValue);
+			} else {
+				search = lease.statements.search(field, comparison);
+				EntityMapper.bind(search, 1, field, value);
+			}
+			try (final ResultSet result = search.executeQuery()) {
+				search.clearParameters();
+				while (result.next()) {
+					entities.add(createEntityFromResult(result));
 				}
 			}
 		} catch (final SQLException e) {
-			LG.warning("Exception while creating a " + entityName + ": " + ExceptionUtils.display(e));
-			return null;
+			LG.warning("Could not retrieve " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.SEARCH, timeBefore, false);
+			return entities;
 		}
 		
+		statistics.record(Operation.SEARCH, timeBefore, true);
+		
 		if (LG.isLoggable(Level.FINER)) {
-			LG.finer("Time for creating " + entityName + ": " + usTimeDiff(timeBefore));
+			LG.finer("Time for searching " + entityName + ": " + usTimeDiff(timeBefore));
 		}
 		
-		return newEntity;
+		return entities;
 	}
 	
 	@Override
-	public T find (final int id) {
-		T entity = null;
+	public long count () {
+		return count(null, null);
+	}
+	
+	@Override
+	public long count (final Column field, final String value) {
+		final boolean all = field == null || value == null;
 		if (LG.isLoggable(Level.FINE)) {
-			LG.fine("Finding the " + entityName + " with id = " + id);
+			LG.fine("Counting " + entityName + (all ? "" : " for " + value + " in column " + field.getName()));
 		}
 		
-		long timeBefore = 0;
-		if (LG.isLoggable(Level.FINER)) {
-			timeBefore = System.nanoTime();
-		}
+		final long timeBefore = System.nanoTime();
 		
-		try {
-			find.setInt(1, id);
-			try (final ResultSet result = find.executeQuery()) {
-				find.clearParameters();
-				if (result.first()) {
-					entity = createEntityFromResult(result);
-				} else if (LG.isLoggable(Level.INFO)) {
-					LG.info("Could not retrieve " + entityName + " with id = " + id);
-				}
+		if (!all && !isEntityColumn(field)) {
+			LG.warning("Could not find prepared query for column " + field.getName() + " in entity "
+					+ entityName + ". Check that the column is indeed defined in the entity.");
+			statistics.record(Operation.COUNT, timeBefore, false);
+			return -1;
+		}
+		final long count;
+		try (final Lease lease = lease()) {
+			final PreparedStatement statement;
+			if (all) {
+				statement = lease.statements.count();
+			} else {
+				statement = lease.statements.count(field);
+				statement.setString(1, value);
+			}
+			try (final ResultSet result = statement.executeQuery()) {
+				statement.clearParameters();
+				result.next();
+				count = result.getLong(1);
 			}
 		} catch (final SQLException e) {
-			LG.warning("Could not find " + entityName + ": " + ExceptionUtils.display(e));
-			return null;
+			LG.warning("Could not count " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.COUNT, timeBefore, false);
+			return -1;
 		}
 		
+		statistics.record(Operation.COUNT, timeBefore, true);
+		
 		if (LG.isLoggable(Level.FINER)) {
-			LG.finer("Time for finding " + entityName + ": " + usTimeDiff(timeBefore));
+			LG.finer("Time for counting " + entityName + ": " + usTimeDiff(timeBefore));
 		}
 		
-		return entity;
+		return count;
 	}
 	
 	@Override
-	public boolean update (final T obj) {
-		if (obj == null) {
-			return false;
-		}
+	public boolean exists (final int id) {
 		if (LG.isLoggable(Level.FINE)) {
-			LG.fine("Updating the " + entityName + " with " + obj);
+			LG.fine("Checking if the " + entityName + " with id = " + id + " exists");
 		}
 		
-		long timeBefore = 0;
-		if (LG.isLoggable(Level.FINER)) {
-			timeBefore = System.nanoTime();
-		}
+		final long timeBefore = System.nanoTime();
 		
-		try {
-			fillUpdateStatement(update, obj);
-			update.executeUpdate();
-			update.clearParameters();
+		final boolean exists;
+		try (final Lease lease = lease()) {
+			final PreparedStatement statement = lease.statements.exists();
+			statement.setInt(1, id);
+			try (final ResultSet result = statement.executeQuery()) {
+				statement.clearParameters();
+				exists = result.next();
+			}
 		} catch (final SQLException e) {
-			LG.warning("Could not update " + entityName + ": " + ExceptionUtils.display(e));
+			LG.warning("Could not check if " + entityName + " exists: " + ExceptionUtils.display(e));
+			statistics.record(Operation.EXISTS, timeBefore, false);
 			return false;
 		}
 		
+		statistics.record(Operation.EXISTS, timeBefore, true);
+		
 		if (LG.isLoggable(Level.FINER)) {
-			LG.finer("Time for updating " + entityName + ": " + usTimeDiff(timeBefore));
+			LG.finer("Time for checking existence of " + entityName + ": " + usTimeDiff(timeBefore));
 		}
 		
-		return true;
+		return exists;
 	}
 	
+	/**
+	 * Compute an aggregate of a column in the database, only its results are transferred.<br />
+	 * The minimums and maximums are read with the type of their column, the type of the sums
+	 * depends on the database.
+	 * @param aggregate
+	 *        the aggregate to compute.
+	 * @param field
+	 *        the field to aggregate.
+	 * @param groupBy
+	 *        the field whose values group the objects, <code>null</code> to aggregate all the
+	 *        objects.
+	 * @return the aggregate of each group, by value of the grouping field, <code>null</code> if the
+	 *         aggregate could not be computed.
+	 */
 	@Override
-	public boolean delete (final T obj) {
-		if (obj == null) {
-			return true;
+	public Map<Object, Object> aggregate (final Aggregate aggregate, final Column field, final Column groupBy) {
+		if (aggregate == null || field == null) {
+			return null;
 		}
 		if (LG.isLoggable(Level.FINE)) {
-			LG.fine("Deleting " + entityName + " " + obj);
+			LG.fine("Computing " + aggregate + " of column " + field.getName() + " of " + entityName
+					+ (groupBy == null ? "" : " by " + groupBy.getName()));
 		}
 		
-		long timeBefore = 0;
-		if (LG.isLoggable(Level.FINER)) {
-			timeBefore = System.nanoTime();
-		}
+		final long timeBefore = System.nanoTime();
 		
-		try {
-			delete.setObject(1, obj.getID());
-			delete.execute();
-			delete.clearParameters();
+		if (!isEntityColumn(field) || groupBy != null && !isEntityColumn(groupBy)) {
+			LG.warning("Could not find column " + field.getName() + (groupBy == null ? "" : " or " + groupBy.getName())
+					+ " in entity " + entityName + ". Check that the column is indeed defined in the entity.");
+			statistics.record(Operation.AGGREGATE, timeBefore, false);
+			return null;
+		}
+		final Map<Object, Object> values = new LinkedHashMap<>();
+		try (final Lease lease = lease()) {
+			final PreparedStatement statement = lease.statements.aggregate(
+					QueryGenerator.aggregate(getEntitySample(), aggregate, field, groupBy));
+			try (final ResultSet result = statement.executeQuery()) {
+				final int valueIndex = groupBy == null ? 1 : 2;
+				while (result.next()) {
+					final Object value = aggregate == Aggregate.SUM ? result.getObject(valueIndex)
+							: EntityMapper.read(result, valueIndex, field);
+					values.put(groupBy == null ? null : EntityMapper.read(result, 1, groupBy), value);
+				}
+			}
 		} catch (final SQLException e) {
-			LG.warning("Could not delete " + entityName + ": " + ExceptionUtils.display(e));
-			return false;
+			LG.warning("Could not compute " + aggregate + " of " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.AGGREGATE, timeBefore, false);
+			return null;
 		}
 		
+		statistics.record(Operation.AGGREGATE, timeBefore, true);
+		
 		if (LG.isLoggable(Level.FINER)) {
-			LG.finer("Time for deleting " + entityName + ": " + usTimeDiff(timeBefore));
+			LG.finer("Time for computing " + aggregate + " of " + entityName + ": " + usTimeDiff(timeBefore));
 		}
 		
-		return true;
+		return values;
 	}
 	
+	/**
+	 * Read only the columns specified of all the objects.<br />
+	 * The entities returned are partially populated by the {@link EntityMapper} of the entity. The
+	 * queries of the projections are generated once per set of columns.
+	 * @param columns
+	 *        the columns to read, the id column is always read.
+	 * @return A collection with all the objects, partially populated.
+	 */
 	@Override
-	public Set<T> retrieveAll () {
-		final Set<T> allEntities = new HashSet<>();
+	public Set<T> project (final Collection<Column> columns) {
+		if (columns == null) {
+			return retrieveAll();
+		}
 		if (LG.isLoggable(Level.FINE)) {
-			LG.fine("Retrieving all " + entityName);
+			LG.fine("Retrieving columns " + columns + " of all " + entityName);
 		}
-		
-		long timeBefore = 0;
-		if (LG.isLoggable(Level.FINER)) {
-			timeBefore = System.nanoTime();
+		return project(columns, null, null);
+	}
+	
+	@Override
+	public Set<T> project (final Column field, final String value, final Collection<Column> columns) {
+		if (columns == null) {
+			return search(field, value);
 		}
+		if (field == null || value == null) {
+			return project(columns);
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Searching columns " + columns + " of " + entityName + " for " + value + " in column "
+					+ field.getName());
+		}
+		return project(columns, field, value);
+	}
+	
+	/**
+	 * Execute a projection query.
+	 * @param columns
+	 *        the columns to read.
+	 * @param field
+	 *        the field to search, <code>null</code> to read all the entities.
+	 * @param value
+	 *        the value to test, ignored if the field is <code>null</code>.
+	 * @return the entities read, partially populated.
+	 */
+	private Set<T> project (final Collection<Column> columns, final Column field, final String value) {
+		final long timeBefore = System.nanoTime();
 		
-		try {
-			try (final ResultSet result = searchAll.executeQuery()) {
+		final Set<T> entities = new HashSet<>();
+		final List<Column> checked = new ArrayList<>(columns);
+		if (field != null) {
+			checked.add(field);
+		}
+		for (final Column column : checked) {
+			if (column == null || !isEntityColumn(column)) {
+				LG.warning("Could not find column " + (column == null ? null : column.getName()) + " in entity "
+						+ entityName + ". Check that the column is indeed defined in the entity.");
+				statistics.record(Operation.PROJECT, timeBefore, false);
+				return entities;
+			}
+		}
+		final Projection projection = getProjection(columns);
+		try (final Lease lease = lease()) {
+			final EntityMapper<T> entityMapper = getMapper();
+			final PreparedStatement statement;
+			if (field == null) {
+				statement = lease.statements.projection(projection.searchAll);
+			} else {
+				statement = lease.statements.projection(projection.searches.get(field));
+				statement.setString(1, value);
+			}
+			try (final ResultSet result = statement.executeQuery()) {
+				statement.clearParameters();
 				while (result.next()) {
-					allEntities.add(createEntityFromResult(result));
+					entities.add(entityMapper.createEntityFromProjection(result, projection.columns));
 				}
 			}
 		} catch (final SQLException e) {
-			LG.warning("Could not retrieve all " + entityName + ": " + ExceptionUtils.display(e));
-			return allEntities;
+			LG.warning("Could not retrieve columns of " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.PROJECT, timeBefore, false);
+			return entities;
 		}
 		
+		statistics.record(Operation.PROJECT, timeBefore, true);
+		
 		if (LG.isLoggable(Level.FINER)) {
-			LG.finer("Time for retrieving all " + entityName + ": " + usTimeDiff(timeBefore));
+			LG.finer("Time for retrieving columns of " + entityName + ": " + usTimeDiff(timeBefore));
 		}
 		
-		return allEntities;
+		return entities;
 	}
 	
 	@Override
-	public Set<T> search (final Column field, final String value) {
-		if (field == null || value == null) {
-			return retrieveAll();
-		}
+	public List<T> page (final int afterId, final int limit) {
 		if (LG.isLoggable(Level.FINE)) {
-			LG.fine("Searching " + entityName + " for " + value + " in column " + field.getName());
+			LG.fine("Retrieving " + limit + " " + entityName + " after id " + afterId);
 		}
 		
-		long timeBefore = 0;
+		final long timeBefore = System.nanoTime();
+		
+		final List<T> entities;
+		try (final Lease lease = lease()) {
+			entities = page(lease.statements.page(), 1, afterId, limit);
+		} catch (final SQLException e) {
+			LG.warning("Could not retrieve page of " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.PAGE, timeBefore, false);
+			return new ArrayList<>(0);
+		}
+		
+		statistics.record(Operation.PAGE, timeBefore, true);
+		
 		if (LG.isLoggable(Level.FINER)) {
-			timeBefore = System.nanoTime();
+			LG.finer("Time for retrieving page of " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		return entities;
+	}
+	
+	@Override
+	public List<T> page (final Column field, final String value, final int afterId, final int limit) {
+		if (field == null || value == null) {
+			return page(afterId, limit);
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Retrieving " + limit + " " + entityName + " after id " + afterId + " for "
+					+ value + " in column " + field.getName());
 		}
 		
-		final Set<T> entities = new HashSet<>();
-		final PreparedStatement search = searches.get(field);
-		if (search == null) {
+		final long timeBefore = System.nanoTime();
+		
+		if (!isEntityColumn(field)) {
 			LG.warning("Could not find prepared query for column " + field.getName() + " in entity "
 					+ entityName + ". Check that the column is indeed defined in the entity.");
-			return entities;
+			statistics.record(Operation.PAGE, timeBefore, false);
+			return new ArrayList<>(0);
 		}
-		try {
-			search.setString(1, value);
-			try (final ResultSet result = search.executeQuery()) {
-				search.clearParameters();
-				while (result.next()) {
-					entities.add(createEntityFromResult(result));
-				}
-			}
+		final List<T> entities;
+		try (final Lease lease = lease()) {
+			final PreparedStatement columnPage = lease.statements.page(field);
+			columnPage.setString(1, value);
+			entities = page(columnPage, 2, afterId, limit);
 		} catch (final SQLException e) {
-			LG.warning("Could not retrieve " + entityName + ": " + ExceptionUtils.display(e));
-			return entities;
+			LG.warning("Could not retrieve page of " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.PAGE, timeBefore, false);
+			return new ArrayList<>(0);
 		}
 		
+		statistics.record(Operation.PAGE, timeBefore, true);
+		
 		if (LG.isLoggable(Level.FINER)) {
-			LG.finer("Time for searching " + entityName + ": " + usTimeDiff(timeBefore));
+			LG.finer("Time for retrieving page of " + entityName + ": " + usTimeDiff(timeBefore));
+		}
+		return entities;
+	}
+	
+	/**
+	 * Execute a page query.<br />
+	 * The id and the limit are the last two parameters of the statement, the other parameters must
+	 * have been set.
+	 * @param statement
+	 *        the page statement.
+	 * @param idParameter
+	 *        the index of the id parameter in the statement.
+	 * @param afterId
+	 *        the id after which the page starts, exclusive.
+	 * @param limit
+	 *        the maximum number of objects of the page.
+	 * @return the objects of the page.
+	 * @throws SQLException
+	 *         if the page could not be read.
+	 */
+	private List<T> page (final PreparedStatement statement, final int idParameter,
+			final int afterId, final int limit) throws SQLException {
+		if (limit < 1) {
+			throw new IllegalArgumentException("Page limit must be strictly positive (was " + limit + ")");
+		}
+		statement.setInt(idParameter, afterId);
+		statement.setInt(idParameter + 1, limit);
+		final List<T> entities = new ArrayList<>(Math.min(limit, fetchSize));
+		try (final ResultSet result = statement.executeQuery()) {
+			statement.clearParameters();
+			while (result.next()) {
+				entities.add(createEntityFromResult(result));
+			}
 		}
-		
 		return entities;
 	}
 	
+	/**
+	 * Iterate over all the objects available.<br />
+	 * The objects are read from the database while iterating, with a forward only cursor which
+	 * fetches {@link #getFetchSize()} rows at a time. The iterator should be closed if the
+	 * iteration is stopped before the end.
+	 * @return an iterator over all the objects.
+	 */
+	public EntityIterator<T> iterateAll () {
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Iterating over all " + entityName);
+		}
+		return iterate(queries.getSearchAll(), null);
+	}
+	
+	/**
+	 * Iterate over the objects matching the value on the specified column.<br />
+	 * The objects are read from the database while iterating, the iterator should be closed if the
+	 * iteration is stopped before the end.
+	 * @param field
+	 *        the field to search.
+	 * @param value
+	 *        the value to test.
+	 * @return an iterator over the objects matching the value.
+	 * @see #search(Column, String)
+	 */
+	public EntityIterator<T> iterateSearch (final Column field, final String value) {
+		if (field == null || value == null) {
+			return iterateAll();
+		}
+		if (LG.isLoggable(Level.FINE)) {
+			LG.fine("Iterating over " + entityName + " matching " + value + " in column " + field.getName());
+		}
+		if (!isEntityColumn(field)) {
+			LG.warning("Could not find column " + field.getName() + " in entity " + entityName
+					+ ". Check that the column is indeed defined in the entity.");
+			return iterate(null, null);
+		}
+		return iterate(queries.getSearch(field), value);
+	}
+	
+	/**
+	 * Build an iterator over the result of the query.
+	 * @param query
+	 *        the query to execute, <code>null</code> for an empty iterator.
+	 * @param parameter
+	 *        the parameter of the query, <code>null</code> if the query has no parameter.
+	 * @return the iterator on the result of the query.
+	 */
+	private EntityIterator<T> iterate (final String query, final String parameter) {
+		final long timeBefore = System.nanoTime();
+		if (query == null) {
+			statistics.record(Operation.ITERATE, timeBefore, false);
+			return new ResultSetIterator(null, null, null);
+		}
+		Lease lease = null;
+		PreparedStatement statement = null;
+		try {
+			lease = lease();
+			statement = lease.connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(fetchSize);
+			if (parameter != null) {
+				statement.setString(1, parameter);
+			}
+			final ResultSetIterator iterator = new ResultSetIterator(lease, statement, statement.executeQuery());
+			statistics.record(Operation.ITERATE, timeBefore, true);
+			return iterator;
+		} catch (final SQLException e) {
+			LG.warning("Could not iterate over " + entityName + ": " + ExceptionUtils.display(e));
+			statistics.record(Operation.ITERATE, timeBefore, false);
+			if (statement != null) {
+				try {
+					statement.close();
+				} catch (final SQLException e1) {
+					LG.warning("Error while closing statement: " + ExceptionUtils.display(e1));
+				}
+			}
+			if (lease != null) {
+				lease.close();
+			}
+			return new ResultSetIterator(null, null, null);
+		}
+	}
+	
+	/**
+	 * Iterator over the entities of a query result.<br />
+	 * The iterator owns its statement, which is closed along with its result when the iterator is
+	 * closed. The connection of the statement is held until then. If an error occurs while reading
+	 * the result, it is logged and the iteration stops.
+	 * @author Alex
+	 */
+	private final class ResultSetIterator implements EntityIterator<T> {
+		/** The lease on the connection of the statement */
+		private final Lease			lease;
+		/** The statement of the query, <code>null</code> once the iterator is closed */
+		private PreparedStatement	statement;
+		/** The result of the query */
+		private ResultSet			result;
+		/** The next entity to return, <code>null</code> if it has not been read yet */
+		private T					next;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param lease
+		 *        the lease on the connection of the statement.
+		 * @param statement
+		 *        the statement which has been executed, <code>null</code> for an empty iterator.
+		 * @param result
+		 *        the result of the statement.
+		 */
+		private ResultSetIterator (final Lease lease, final PreparedStatement statement, final ResultSet result) {
+			super();
+			this.lease = lease;
+			this.statement = statement;
+			this.result = result;
+		}
+		
+		@Override
+		public boolean hasNext () {
+			if (next != null) {
+				return true;
+			}
+			if (statement == null) {
+				return false;
+			}
+			try {
+				if (result.next()) {
+					next = createEntityFromResult(result);
+				} else {
+					close();
+				}
+			} catch (final SQLException | IOException e) {
+				LG.warning("Could not read next " + entityName + ": " + ExceptionUtils.display(e));
+				closeQuietly();
+			}
+			return next != null;
+		}
+		
+		@Override
+		public T next () {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more " + entityName + " to read");
+			}
+			final T entity = next;
+			next = null;
+			return entity;
+		}
+		
+		@Override
+		public void remove () {
+			throw new UnsupportedOperationException("Cannot remove " + entityName + " from iterator");
+		}
+		
+		@Override
+		public void close () throws IOException {
+			if (statement == null) {
+				return;
+			}
+			try {
+				// Closing the statement also closes its result
+				statement.close();
+			} catch (final SQLException e) {
+				throw new IOException("Exception while closing iterator statement", e);
+			} finally {
+				statement = null;
+				result = null;
+				lease.close();
+			}
+		}
+		
+		/**
+		 * Close the iterator, logging the error if any.
+		 */
+		private void closeQuietly () {
+			try {
+				close();
+			} catch (final IOException e) {
+				LG.warning("Error while closing iterator: " + ExceptionUtils.display(e));
+			}
+		}
+	}
 }
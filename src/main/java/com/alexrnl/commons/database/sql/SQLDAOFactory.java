@@ -0,0 +1,64 @@
+package com.alexrnl.commons.database.sql;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.database.dao.AbstractDAOFactory;
+import com.alexrnl.commons.database.dao.DataSourceConfiguration;
+
+/**
+ * The abstract factory for the {@link SQLDAO}s.<br />
+ * The SQL DAOs of the factory can share its {@link #getConnectionPool() connection pool}, which is
+ * sized after the {@link DataSourceConfiguration#getPoolSize() pool size} of the configuration
+ * and closed along with the factory, once its DAOs have been closed.
+ * @author Alex
+ */
+public abstract class SQLDAOFactory extends AbstractDAOFactory {
+	/** Logger */
+	private static final Logger	LG	= Logger.getLogger(SQLDAOFactory.class.getName());
+	
+	/** The pool of connections to the data source, created on first use */
+	private ConnectionPool		connectionPool;
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param dataSourceConfig
+	 *        the configuration of the data source.
+	 */
+	public SQLDAOFactory (final DataSourceConfiguration dataSourceConfig) {
+		super(dataSourceConfig);
+	}
+	
+	/**
+	 * Return the pool of connections to the data source.<br />
+	 * The pool is created on the first call, using the data source configuration. The connections
+	 * of the pool are closed when the factory is closed.
+	 * @return the connection pool.
+	 */
+	protected synchronized ConnectionPool getConnectionPool () {
+		if (connectionPool == null) {
+			final DataSourceConfiguration dataSourceConfig = getDataSourceConfiguration();
+			if (LG.isLoggable(Level.INFO)) {
+				LG.info("Creating connection pool of size " + dataSourceConfig.getPoolSize()
+						+ " for " + dataSourceConfig.getUrl());
+			}
+			connectionPool = new ConnectionPool(dataSourceConfig);
+		}
+		return connectionPool;
+	}
+	
+	@Override
+	public void close () throws IOException {
+		try {
+			super.close();
+		} finally {
+			synchronized (this) {
+				if (connectionPool != null) {
+					connectionPool.close();
+				}
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,300 @@
+package com.alexrnl.commons.database.sql;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+import com.alexrnl.commons.database.structure.EntityUtils;
+
+/**
+ * Cache of the results of the searches on the columns of an entity, by column and value.<br />
+ * The cache holds at most {@link #getMaxEntities()} entities, the results least recently used
+ * being evicted first; an empty result counts as one entity. The cache stores
+ * {@link Entity#clone() copies} of the entities and returns copies of them.<br />
+ * The cache is invalidated by the write operations of the {@link SQLDAO} only: by default, any
+ * write clears the whole cache. When the cache is {@link #isPerColumn() invalidated per column},
+ * the update of an entity only removes the results of the searches on the columns updated and the
+ * results which contain the entity, the deletion of an entity only removes the results which
+ * contain it.<br />
+ * This class is thread-safe.
+ * @author Alex
+ * @param <T>
+ *        The class of the entities cached.
+ * @see SQLDAO#enableSearchCache(int, boolean)
+ */
+public final class SearchCache<T extends Entity> implements SearchCacheMBean {
+	/** The maximum number of entities held by the cache */
+	private final int										maxEntities;
+	/** <code>true</code> if the results are invalidated per column */
+	private final boolean									perColumn;
+	/** The results, by search, in access order, guarded by themselves */
+	private final LinkedHashMap<Search, Map<Integer, T>>	results;
+	/** The number of entities held by the cache, guarded by the results */
+	private int												entityCount;
+	/** The number of modifications of the cache, guarded by the results */
+	private long											modifications;
+	/** The number of searches served by the cache */
+	private final AtomicLong								hits;
+	/** The number of searches not found in the cache */
+	private final AtomicLong								misses;
+	/** The number of results evicted from the cache */
+	private final AtomicLong								evictions;
+	/** The number of invalidations of the cache */
+	private final AtomicLong								invalidations;
+	
+	/**
+	 * A search on a column of the entity.
+	 * @author Alex
+	 */
+	private static final class Search {
+		/** The column searched */
+		private final Column	column;
+		/** The value searched */
+		private final String	value;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param column
+		 *        the column searched.
+		 * @param value
+		 *        the value searched.
+		 */
+		private Search (final Column column, final String value) {
+			super();
+			this.column = column;
+			this.value = value;
+		}
+		
+		@Override
+		public int hashCode () {
+			return 31 * column.hashCode() + value.hashCode();
+		}
+		
+		@Override
+		public boolean equals (final Object obj) {
+			if (!(obj instanceof Search)) {
+				return false;
+			}
+			final Search other = (Search) obj;
+			return column.equals(other.column) && value.equals(other.value);
+		}
+	}
+	
+	/**
+	 * Constructor #1.<br />
+	 * @param maxEntities
+	 *        the maximum number of entities held by the cache.
+	 * @param perColumn
+	 *        <code>true</code> if the results should be invalidated per column.
+	 */
+	public SearchCache (final int maxEntities, final boolean perColumn) {
+		super();
+		if (maxEntities < 1) {
+			throw new IllegalArgumentException("Cache size must be strictly positive (was " + maxEntities + ")");
+		}
+		this.maxEntities = maxEntities;
+		this.perColumn = perColumn;
+		this.results = new LinkedHashMap<>(16, 0.75f, true);
+		this.entityCount = 0;
+		this.modifications = 0;
+		this.hits = new AtomicLong(0);
+		this.misses = new AtomicLong(0);
+		this.evictions = new AtomicLong(0);
+		this.invalidations = new AtomicLong(0);
+	}
+	
+	/**
+	 * Check if the results are invalidated per column.
+	 * @return <code>true</code> if only the results affected by a write are invalidated.
+	 */
+	public boolean isPerColumn () {
+		return perColumn;
+	}
+	
+	@Override
+	public int getMaxEntities () {
+		return maxEntities;
+	}
+	
+	@Override
+	public int getEntityCount () {
+		synchronized (results) {
+			return entityCount;
+		}
+	}
+	
+	@Override
+	public int getSize () {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+	
+	@Override
+	public long getHitCount () {
+		return hits.get();
+	}
+	
+	@Override
+	public long getMissCount () {
+		return misses.get();
+	}
+	
+	@Override
+	public double getHitRatio () {
+		final long hitCount = hits.get();
+		final long searches = hitCount + misses.get();
+		return searches == 0 ? 0 : (double) hitCount / searches;
+	}
+	
+	@Override
+	public long getEvictionCount () {
+		return evictions.get();
+	}
+	
+	@Override
+	public long getInvalidationCount () {
+		return invalidations.get();
+	}
+	
+	/**
+	 * Return the version of the cache, to give to {@link #put(Column, String, Set, long)}.<br />
+	 * The version changes each time the cache is invalidated.
+	 * @return the current version.
+	 */
+	public long getVersion () {
+		synchronized (results) {
+			return modifications;
+		}
+	}
+	
+	/**
+	 * Return the weight of a result in the cache.
+	 * @param result
+	 *        the result.
+	 * @return the number of entities the result counts for.
+	 */
+	private static int weight (final Map<Integer, ?> result) {
+		return Math.max(1, result.size());
+	}
+	
+	/**
+	 * Return the result of a search.
+	 * @param column
+	 *        the column searched.
+	 * @param value
+	 *        the value searched.
+	 * @return copies of the entities found, <code>null</code> if the search is not in the cache.
+	 */
+	public Set<T> get (final Column column, final String value) {
+		final Map<Integer, T> result;
+		synchronized (results) {
+			result = results.get(new Search(column, value));
+		}
+		if (result == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		// The entities of the cache are never modified, they can be copied outside of the lock
+		final Set<T> entities = new HashSet<>(result.size());
+		for (final T entity : result.values()) {
+			entities.add(EntityUtils.copy(entity));
+		}
+		entities.remove(null);
+		return entities;
+	}
+	
+	/**
+	 * Put the result of a search in the cache.<br />
+	 * The result is not cached if the cache has been invalidated since the version specified, if
+	 * an entity cannot be copied or if the result is larger than the cache.
+	 * @param column
+	 *        the column searched.
+	 * @param value
+	 *        the value searched.
+	 * @param entities
+	 *        the entities found.
+	 * @param version
+	 *        the {@link #getVersion() version} of the cache when the search was started.
+	 */
+	public void put (final Column column, final String value, final Set<T> entities, final long version) {
+		if (entities.size() > maxEntities) {
+			return;
+		}
+		final Map<Integer, T> result = new HashMap<>(entities.size());
+		for (final T entity : entities) {
+			final Integer key = EntityUtils.getKey(entity);
+			final T snapshot = EntityUtils.copy(entity);
+			if (key == null || snapshot == null) {
+				return;
+			}
+			result.put(key, snapshot);
+		}
+		synchronized (results) {
+			// Do not cache the result if the entities have been modified meanwhile
+			if (version != modifications) {
+				return;
+			}
+			final Map<Integer, T> previous = results.put(new Search(column, value), result);
+			if (previous != null) {
+				entityCount -= weight(previous);
+			}
+			entityCount += weight(result);
+			final Iterator<Map<Integer, T>> eldest = results.values().iterator();
+			while (entityCount > maxEntities) {
+				entityCount -= weight(eldest.next());
+				eldest.remove();
+				evictions.incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * Remove all the results from the cache.
+	 */
+	public void clear () {
+		synchronized (results) {
+			++modifications;
+			results.clear();
+			entityCount = 0;
+		}
+		invalidations.incrementAndGet();
+	}
+	
+	/**
+	 * Invalidate the results affected by the modification of an entity.<br />
+	 * When the cache is not invalidated per column, all the results are removed.
+	 * @param entity
+	 *        the entity modified.
+	 * @param columns
+	 *        the columns modified, <code>null</code> if all the columns may have been modified.
+	 */
+	public void invalidate (final T entity, final Collection<Column> columns) {
+		final Integer key = entity == null ? null : EntityUtils.getKey(entity);
+		if (!perColumn || columns == null || key == null) {
+			clear();
+			return;
+		}
+		synchronized (results) {
+			++modifications;
+			final Iterator<Map.Entry<Search, Map<Integer, T>>> entries = results.entrySet().iterator();
+			while (entries.hasNext()) {
+				final Map.Entry<Search, Map<Integer, T>> entry = entries.next();
+				if (columns.contains(entry.getKey().column) || entry.getValue().containsKey(key)) {
+					entityCount -= weight(entry.getValue());
+					entries.remove();
+				}
+			}
+		}
+		invalidations.incrementAndGet();
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.alexrnl.commons.database.sql;
+
+/**
+ * Management interface of the {@link SearchCache}.<br />
+ * The memory used by the cache is measured in entities held.
+ * @author Alex
+ */
+public interface SearchCacheMBean {
+	
+	/**
+	 * Return the maximum number of entities held by the cache.
+	 * @return the maximum number of entities.
+	 */
+	int getMaxEntities ();
+	
+	/**
+	 * Return the number of entities currently held by the cache.
+	 * @return the number of entities.
+	 */
+	int getEntityCount ();
+	
+	/**
+	 * Return the number of search results currently in the cache.
+	 * @return the number of results.
+	 */
+	int getSize ();
+	
+	/**
+	 * Return the number of searches served by the cache.
+	 * @return the number of cache hits.
+	 */
+	long getHitCount ();
+	
+	/**
+	 * Return the number of searches which were not found in the cache.
+	 * @return the number of cache misses.
+	 */
+	long getMissCount ();
+	
+	/**
+	 * Return the ratio of the searches served by the cache.
+	 * @return the hit ratio, between 0 and 1, 0 if there was no search.
+	 */
+	double getHitRatio ();
+	
+	/**
+	 * Return the number of results which have been evicted from the cache because it was full.
+	 * @return the number of evictions.
+	 */
+	long getEvictionCount ();
+	
+	/**
+	 * Return the number of times results have been invalidated by the write operations.
+	 * @return the number of invalidations.
+	 */
+	long getInvalidationCount ();
+}
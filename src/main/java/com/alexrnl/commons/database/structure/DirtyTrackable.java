@@ -0,0 +1,27 @@
+package com.alexrnl.commons.database.structure;
+
+import java.util.Set;
+
+/**
+ * Interface for the entities which track the columns modified since they were read from or
+ * written to the database.<br />
+ * The entities usually mark their columns as dirty in their setters. The DAOs which support it
+ * write only the dirty columns when updating the entity, skip the update when no column is dirty,
+ * and clear the dirty columns once the entity has been read or written. An entity which cannot
+ * track a modification should mark all its columns as dirty.
+ * @author Alex
+ */
+public interface DirtyTrackable {
+	
+	/**
+	 * Return the columns modified since the entity was last read or written.
+	 * @return the dirty columns, empty if the entity has not been modified.
+	 */
+	Set<? extends Enum<? extends EntityColumn>> getDirtyColumns ();
+	
+	/**
+	 * Clear the dirty columns of the entity.<br />
+	 * Called once the entity has been read from or written to the database.
+	 */
+	void clearDirtyColumns ();
+}
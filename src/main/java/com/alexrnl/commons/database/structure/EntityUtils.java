@@ -0,0 +1,56 @@
+package com.alexrnl.commons.database.structure;
+
+import java.util.logging.Logger;
+
+import com.alexrnl.commons.error.ExceptionUtils;
+
+/**
+ * Utility methods for the {@link Entity entities} kept in memory by the DAOs, their caches and
+ * their indexes.
+ * @author Alex
+ */
+public final class EntityUtils {
+	/** Logger */
+	private static final Logger	LG	= Logger.getLogger(EntityUtils.class.getName());
+	
+	/**
+	 * Constructor #1.<br />
+	 * Default private constructor.
+	 */
+	private EntityUtils () {
+		super();
+		throw new InstantiationError("Instantiation of class " + EntityUtils.class + " is forbidden");
+	}
+	
+	/**
+	 * Copy an entity, with its {@link Entity#clone() clone} method.
+	 * @param <T>
+	 *        the class of the entity.
+	 * @param entity
+	 *        the entity to copy.
+	 * @return the copy of the entity, <code>null</code> if the entity could not be copied.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Entity> T copy (final T entity) {
+		try {
+			return (T) entity.clone();
+		} catch (final CloneNotSupportedException | ClassCastException e) {
+			LG.warning("Could not copy entity " + entity + ": " + ExceptionUtils.display(e));
+			return null;
+		}
+	}
+	
+	/**
+	 * Return the key of an entity, used to store it by id.
+	 * @param entity
+	 *        the entity.
+	 * @return the key of the entity, <code>null</code> if its id is not an integer.
+	 */
+	public static Integer getKey (final Entity entity) {
+		try {
+			return Integer.valueOf(entity.getID());
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -1,8 +1,13 @@
 package com.alexrnl.commons.database;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import com.alexrnl.commons.database.dao.Aggregate;
+import com.alexrnl.commons.database.dao.Comparison;
 import com.alexrnl.commons.database.dao.DAO;
 import com.alexrnl.commons.database.structure.Column;
 import com.alexrnl.commons.database.structure.Entity;
@@ -34,11 +39,36 @@ public class DAOAdaptater<T extends Entity> implements DAO<T> {
 		return false;
 	}
 	
+	@Override
+	public boolean save (final T obj) {
+		return false;
+	}
+	
 	@Override
 	public boolean delete (final T obj) {
 		return false;
 	}
 	
+	@Override
+	public List<T> createAll (final Collection<T> objects) {
+		return null;
+	}
+	
+	@Override
+	public boolean updateAll (final Collection<T> objects) {
+		return false;
+	}
+	
+	@Override
+	public boolean saveAll (final Collection<T> objects) {
+		return false;
+	}
+	
+	@Override
+	public boolean deleteAll (final Collection<T> objects) {
+		return false;
+	}
+	
 	@Override
 	public Set<T> retrieveAll () {
 		return null;
@@ -49,4 +79,64 @@ public class DAOAdaptater<T extends Entity> implements DAO<T> {
 		return null;
 	}
 	
+	@Override
+	public Set<T> searchEqual (final Column field, final Object value) {
+		return null;
+	}
+	
+	@Override
+	public Set<T> search (final Column field, final Comparison comparison, final Object value) {
+		return null;
+	}
+	
+	@Override
+	public Set<T> searchBetween (final Column field, final Object from, final Object to) {
+		return null;
+	}
+	
+	@Override
+	public long count () {
+		return 0;
+	}
+	
+	@Override
+	public long count (final Column field, final String value) {
+		return 0;
+	}
+	
+	@Override
+	public boolean exists (final int id) {
+		return false;
+	}
+	
+	@Override
+	public Map<Object, Object> aggregate (final Aggregate aggregate, final Column field, final Column groupBy) {
+		return null;
+	}
+	
+	@Override
+	public Set<T> project (final Collection<Column> columns) {
+		return null;
+	}
+	
+	@Override
+	public Set<T> project (final Column field, final String value, final Collection<Column> columns) {
+		return null;
+	}
+	
+	@Override
+	public Map<Integer, T> findAll (final Collection<Integer> ids) {
+		return null;
+	}
+	
+	@Override
+	public List<T> page (final int afterId, final int limit) {
+		return null;
+	}
+	
+	@Override
+	public List<T> page (final Column field, final String value, final int afterId, final int limit) {
+		return null;
+	}
+	
 }
@@ -0,0 +1,198 @@
+package com.alexrnl.commons.database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alexrnl.commons.database.structure.Column;
+
+/**
+ * In-memory DAO for the {@link Dummy} entity, which counts the operations called, for test
+ * purposes.
+ * @author Alex
+ */
+public class DummyMemoryDAO extends DAOAdaptater<Dummy> {
+	/** The dummies stored */
+	private final Map<Integer, Dummy>	dummies;
+	/** The next id to use */
+	private final AtomicInteger			nextId;
+	/** The number of calls to find */
+	private final AtomicInteger			findCount;
+	/** The number of dummies updated */
+	private final AtomicInteger			updateCount;
+	/** The number of calls to the batch operations */
+	private final AtomicInteger			batchCount;
+	
+	/**
+	 * Constructor #1.<br />
+	 */
+	public DummyMemoryDAO () {
+		super();
+		dummies = new ConcurrentHashMap<>();
+		nextId = new AtomicInteger(1);
+		findCount = new AtomicInteger(0);
+		updateCount = new AtomicInteger(0);
+		batchCount = new AtomicInteger(0);
+	}
+	
+	/**
+	 * Copy a dummy.
+	 * @param dummy
+	 *        the dummy to copy.
+	 * @return the copy.
+	 */
+	private static Dummy copy (final Dummy dummy) {
+		try {
+			return dummy == null ? null : dummy.clone();
+		} catch (final CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Return the number of calls to find.
+	 * @return the find count.
+	 */
+	public int getFindCount () {
+		return findCount.get();
+	}
+	
+	/**
+	 * Return the number of dummies updated.
+	 * @return the update count.
+	 */
+	public int getUpdateCount () {
+		return updateCount.get();
+	}
+	
+	/**
+	 * Return the number of calls to the batch operations.
+	 * @return the batch count.
+	 */
+	public int getBatchCount () {
+		return batchCount.get();
+	}
+	
+	@Override
+	public Dummy create (final Dummy obj) {
+		if (obj == null || obj.getName() == null) {
+			return null;
+		}
+		final Dummy created = copy(obj);
+		created.setId(nextId.getAndIncrement());
+		dummies.put(created.getId(), created);
+		return copy(created);
+	}
+	
+	@Override
+	public Dummy find (final int id) {
+		findCount.incrementAndGet();
+		return copy(dummies.get(id));
+	}
+	
+	@Override
+	public Map<Integer, Dummy> findAll (final Collection<Integer> ids) {
+		batchCount.incrementAndGet();
+		final Map<Integer, Dummy> found = new LinkedHashMap<>();
+		for (final Integer id : ids) {
+			final Dummy dummy = dummies.get(id);
+			if (dummy != null) {
+				found.put(id, copy(dummy));
+			}
+		}
+		return found;
+	}
+	
+	@Override
+	public boolean update (final Dummy obj) {
+		if (obj == null || obj.getId() == null || !dummies.containsKey(obj.getId())) {
+			return false;
+		}
+		updateCount.incrementAndGet();
+		dummies.put(obj.getId(), copy(obj));
+		return true;
+	}
+	
+	@Override
+	public boolean save (final Dummy obj) {
+		if (obj == null || obj.getId() == null) {
+			return false;
+		}
+		dummies.put(obj.getId(), copy(obj));
+		return true;
+	}
+	
+	@Override
+	public boolean delete (final Dummy obj) {
+		if (obj != null && obj.getId() != null) {
+			dummies.remove(obj.getId());
+		}
+		return true;
+	}
+	
+	@Override
+	public List<Dummy> createAll (final Collection<Dummy> objects) {
+		batchCount.incrementAndGet();
+		final List<Dummy> created = new ArrayList<>();
+		for (final Dummy dummy : objects) {
+			created.add(create(dummy));
+		}
+		return created;
+	}
+	
+	@Override
+	public boolean updateAll (final Collection<Dummy> objects) {
+		batchCount.incrementAndGet();
+		boolean updated = true;
+		for (final Dummy dummy : objects) {
+			updated &= update(dummy);
+		}
+		return updated;
+	}
+	
+	@Override
+	public boolean saveAll (final Collection<Dummy> objects) {
+		batchCount.incrementAndGet();
+		boolean saved = true;
+		for (final Dummy dummy : objects) {
+			saved &= save(dummy);
+		}
+		return saved;
+	}
+	
+	@Override
+	public boolean deleteAll (final Collection<Dummy> objects) {
+		batchCount.incrementAndGet();
+		for (final Dummy dummy : objects) {
+			delete(dummy);
+		}
+		return true;
+	}
+	
+	@Override
+	public Set<Dummy> retrieveAll () {
+		final Set<Dummy> all = new HashSet<>();
+		for (final Dummy dummy : dummies.values()) {
+			all.add(copy(dummy));
+		}
+		return all;
+	}
+	
+	@Override
+	public Set<Dummy> search (final Column field, final String value) {
+		final Set<Dummy> found = new HashSet<>();
+		for (final Dummy dummy : dummies.values()) {
+			if (value == null || value.equals(dummy.getName())) {
+				found.add(copy(dummy));
+			}
+		}
+		return found;
+	}
+
+}
@@ -1,21 +1,42 @@
 package com.alexrnl.commons.database.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.junit.Test;
 
 import com.alexrnl.commons.database.DAOAdaptater;
 import com.alexrnl.commons.database.Dummy;
 import com.alexrnl.commons.database.DummyFactory;
+import com.alexrnl.commons.database.Fake;
+import com.alexrnl.commons.database.dao.DAOStatistics.Operation;
+import com.alexrnl.commons.database.structure.Entity;
 import com.alexrnl.commons.error.ExceptionUtils;
 
 /**
@@ -37,6 +58,60 @@ public class AbstractDAOFactoryTest {
 
 	}
 	
+	/**
+	 * Monitored DAO, for test purposes.
+	 * @author Alex
+	 */
+	private static class MonitoredDummyDAO extends DAOAdaptater<Dummy> implements MonitoredDAO<Dummy> {
+		/** The statistics of the DAO */
+		private final DAOStatistics	statistics;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param statistics
+		 *        the statistics of the DAO.
+		 */
+		private MonitoredDummyDAO (final DAOStatistics statistics) {
+			super();
+			this.statistics = statistics;
+		}
+		
+		@Override
+		public DAOStatistics getStatistics () {
+			return statistics;
+		}
+	}
+	
+	/**
+	 * Supplier of DAOs counting the DAOs built, for test purposes.
+	 * @author Alex
+	 */
+	private static class CountingSupplier implements DAOSupplier<Dummy> {
+		/** The number of DAOs built */
+		private final AtomicInteger	count	= new AtomicInteger();
+		/** The number of builds which fail before a DAO is built */
+		private final AtomicInteger	failures;
+		
+		/**
+		 * Constructor #1.<br />
+		 * @param failures
+		 *        the number of builds which fail before a DAO is built.
+		 */
+		private CountingSupplier (final int failures) {
+			super();
+			this.failures = new AtomicInteger(failures);
+		}
+		
+		@Override
+		public DAO<Dummy> get () throws SQLException {
+			if (failures.getAndDecrement() > 0) {
+				throw new SQLException("Database not available");
+			}
+			count.incrementAndGet();
+			return new DAOAdaptater<>();
+		}
+	}
+	
 	/**
 	 * Test method for {@link AbstractDAOFactory#buildFactory(java.lang.String, DataSourceConfiguration, Class)}.
 	 */
@@ -101,6 +176,79 @@ public class AbstractDAOFactoryTest {
 		}
 	}
 
+	/**
+	 * Test method for {@link AbstractDAOFactory#addDAOSupplier(Class, DAOSupplier)}.
+	 * @throws Exception
+	 *         if a DAO could not be requested.
+	 */
+	@Test
+	public void testAddDAOSupplier () throws Exception {
+		final CountingSupplier supplier = new CountingSupplier(0);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try (final AbstractDAOFactory factory = new DummyFactory(null)) {
+			factory.addDAOSupplier(Dummy.class, supplier);
+			assertTrue(factory.getDAOs().isEmpty());
+			assertEquals(0, supplier.count.get());
+			
+			final List<Future<DAO<Dummy>>> results = new ArrayList<>();
+			for (int thread = 0; thread < 4; ++thread) {
+				results.add(executor.submit(new Callable<DAO<Dummy>>() {
+					@Override
+					public DAO<Dummy> call () {
+						return factory.getDAO(Dummy.class);
+					}
+				}));
+			}
+			final DAO<Dummy> dao = factory.getDAO(Dummy.class);
+			assertNotNull(dao);
+			for (final Future<DAO<Dummy>> result : results) {
+				assertSame(dao, result.get());
+			}
+			assertEquals(1, supplier.count.get());
+			assertEquals(1, factory.getDAOs().size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Test method for {@link AbstractDAOFactory#addDAOSupplier(Class, DAOSupplier)} with a
+	 * <code>null</code> supplier.
+	 * @throws IOException
+	 *         if the factory could not be closed.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddNullDAOSupplier () throws IOException {
+		try (final AbstractDAOFactory factory = new DummyFactory(null)) {
+			factory.addDAOSupplier(Dummy.class, null);
+		}
+	}
+	
+	/**
+	 * Test method for {@link AbstractDAOFactory#warmUp(Collection)}.
+	 * @throws IOException
+	 *         if the factory could not be closed.
+	 */
+	@Test
+	public void testWarmUp () throws IOException {
+		Logger.getLogger(AbstractDAOFactory.class.getName()).setLevel(Level.SEVERE);
+		final CountingSupplier supplier = new CountingSupplier(1);
+		try (final AbstractDAOFactory factory = new DummyFactory(null)) {
+			factory.addDAOSupplier(Dummy.class, supplier);
+			final Collection<Class<? extends Entity>> dummy = new ArrayList<>();
+			dummy.add(Dummy.class);
+			// The first build fails, the next one is retried
+			assertFalse(factory.warmUp(dummy));
+			assertTrue(factory.getDAOs().isEmpty());
+			assertTrue(factory.warmUp(dummy));
+			assertEquals(1, factory.getDAOs().size());
+			assertEquals(1, supplier.count.get());
+			assertFalse(factory.warmUp(Arrays.<Class<? extends Entity>> asList(Dummy.class, Fake.class)));
+			assertEquals(1, supplier.count.get());
+		}
+		Logger.getLogger(AbstractDAOFactory.class.getName()).setLevel(Level.INFO);
+	}
+
 	/**
 	 * Test method for {@link AbstractDAOFactory#getDataSourceConfiguration()}.
 	 */
@@ -114,6 +262,44 @@ public class AbstractDAOFactoryTest {
 		}
 	}
 	
+	/**
+	 * Test method for {@link AbstractDAOFactory#getAsyncDAO(Class)}.
+	 */
+	@Test
+	public void testGetAsyncDAO () {
+		try (final AbstractDAOFactory factory = AbstractDAOFactory.buildFactory(DummyFactory.class.getName(), null)) {
+			final AsyncDAO<Dummy> asyncDAO = factory.getAsyncDAO(Dummy.class);
+			assertSame(factory.getDAO(Dummy.class), asyncDAO.getDAO());
+			assertSame(factory.getExecutor(), factory.getExecutor());
+			assertNull(factory.getAsyncDAO(Fake.class));
+		} catch (final IOException e) {
+			fail(ExceptionUtils.display(e));
+		}
+	}
+	
+	/**
+	 * Test the registration of the statistics of the monitored DAOs.
+	 * @throws Exception
+	 *         if the MBean could not be read.
+	 */
+	@Test
+	public void testStatisticsMBeans () throws Exception {
+		final DAOStatistics statistics = new DAOStatistics();
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = null;
+		try (final AbstractDAOFactory factory = new AbstractDAOFactory(null) {
+			{
+				addDAO(Dummy.class, new MonitoredDummyDAO(statistics));
+			}
+		}) {
+			name = factory.getStatisticsName(Dummy.class, Operation.FIND);
+			statistics.record(Operation.FIND, System.nanoTime(), false);
+			assertEquals(1L, server.getAttribute(name, "Count"));
+			assertEquals(1L, server.getAttribute(name, "ErrorCount"));
+		}
+		assertFalse(server.isRegistered(name));
+	}
+	
 	/**
 	 * Test method for {@link AbstractDAOFactory#addDAO(Class, DAO)}.
 	 * When adding multiple DAO to the same class.
@@ -0,0 +1,157 @@
+package com.alexrnl.commons.database.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.commons.database.Dummy;
+import com.alexrnl.commons.database.DummyMemoryDAO;
+
+/**
+ * Test suite for the {@link AsyncDAO} class.
+ * @author Alex
+ */
+public class AsyncDAOTest {
+	/** The DAO decorated */
+	private DummyMemoryDAO		memoryDAO;
+	/** The asynchronous DAO */
+	private AsyncDAO<Dummy>		asyncDAO;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		memoryDAO = new DummyMemoryDAO();
+		asyncDAO = new AsyncDAO<>(memoryDAO, 2, 4);
+	}
+	
+	/**
+	 * Close the asynchronous DAO.
+	 */
+	@After
+	public void tearDown () {
+		asyncDAO.close();
+	}
+	
+	/**
+	 * Test method for {@link AsyncDAO#AsyncDAO(DAO, ExecutorService)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testAsyncDAONullExecutor () {
+		new AsyncDAO<>(memoryDAO, null);
+	}
+	
+	/**
+	 * Test method for {@link AsyncDAO#newBoundedExecutor(int, int)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNewBoundedExecutorInvalidQueue () {
+		AsyncDAO.newBoundedExecutor(1, 0);
+	}
+	
+	/**
+	 * Test the operations of the asynchronous DAO.
+	 * @throws ExecutionException
+	 *         if an operation failed.
+	 * @throws InterruptedException
+	 *         if the test was interrupted.
+	 */
+	@Test
+	public void testOperations () throws InterruptedException, ExecutionException {
+		assertSame(memoryDAO, asyncDAO.getDAO());
+		final Dummy aba = asyncDAO.create(new Dummy("ABA")).get();
+		assertEquals(aba, asyncDAO.find(aba.getId()).get());
+		aba.setName("aba");
+		assertTrue(asyncDAO.update(aba).get());
+		assertEquals(1, asyncDAO.search(null, "aba").get().size());
+		assertEquals(2, asyncDAO.createAll(Arrays.asList(new Dummy("LDR"), new Dummy("AXE"))).get().size());
+		assertEquals(3, asyncDAO.retrieveAll().get().size());
+		assertTrue(asyncDAO.delete(aba).get());
+		assertNull(asyncDAO.find(aba.getId()).get());
+	}
+	
+	/**
+	 * Test that the operations are run by the caller when the queue is full.
+	 * @throws ExecutionException
+	 *         if an operation failed.
+	 * @throws InterruptedException
+	 *         if the test was interrupted.
+	 */
+	@Test
+	public void testBackPressure () throws InterruptedException, ExecutionException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final Thread caller = Thread.currentThread();
+		final List<Thread> runners = new ArrayList<>();
+		final DummyMemoryDAO blockingDAO = new DummyMemoryDAO() {
+			@Override
+			public Dummy find (final int id) {
+				synchronized (runners) {
+					runners.add(Thread.currentThread());
+				}
+				if (Thread.currentThread() != caller) {
+					try {
+						release.await();
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.find(id);
+			}
+		};
+		final AsyncDAO<Dummy> blockingAsyncDAO = new AsyncDAO<>(blockingDAO, 1, 1);
+		try {
+			// First runs on the executor thread, second waits in the queue, third runs in the caller
+			final List<Future<Dummy>> results = new ArrayList<>();
+			for (int i = 0; i < 3; ++i) {
+				results.add(blockingAsyncDAO.find(i));
+			}
+			synchronized (runners) {
+				assertTrue(runners.contains(caller));
+			}
+			release.countDown();
+			for (final Future<Dummy> result : results) {
+				assertNull(result.get());
+			}
+			assertEquals(3, blockingDAO.getFindCount());
+		} finally {
+			blockingAsyncDAO.close();
+		}
+	}
+	
+	/**
+	 * Test that the operations submitted after closing the DAO are rejected.
+	 */
+	@Test(expected = RejectedExecutionException.class)
+	public void testSubmitAfterClose () {
+		asyncDAO.close();
+		asyncDAO.find(1);
+	}
+	
+	/**
+	 * Test that a shared executor is not shut down with the asynchronous DAO.
+	 */
+	@Test
+	public void testCloseSharedExecutor () {
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		new AsyncDAO<>(memoryDAO, executor).close();
+		assertFalse(executor.isShutdown());
+		executor.shutdown();
+	}
+}
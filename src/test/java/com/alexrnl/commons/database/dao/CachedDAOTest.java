@@ -0,0 +1,235 @@
+package com.alexrnl.commons.database.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.commons.database.Dummy;
+import com.alexrnl.commons.database.DummyMemoryDAO;
+
+/**
+ * Test suite for the {@link CachedDAO} class.
+ * @author Alex
+ */
+public class CachedDAOTest {
+	/** The DAO decorated */
+	private DummyMemoryDAO		memoryDAO;
+	/** The cached DAO */
+	private CachedDAO<Dummy>	cachedDAO;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		memoryDAO = new DummyMemoryDAO();
+		cachedDAO = new CachedDAO<>(memoryDAO, 2);
+	}
+	
+	/**
+	 * Test method for {@link CachedDAO#CachedDAO(DAO, int)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCachedDAOInvalidSize () {
+		new CachedDAO<>(memoryDAO, 0);
+	}
+	
+	/**
+	 * Test method for {@link CachedDAO#CachedDAO(DAO, int, long, TimeUnit)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCachedDAOInvalidTimeToLive () {
+		new CachedDAO<>(memoryDAO, 2, -1, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * Test method for {@link DAODecorator#DAODecorator(DAO)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullDAO () {
+		new CachedDAO<Dummy>(null, 2);
+	}
+	
+	/**
+	 * Test method for {@link CachedDAO#find(int)}.
+	 */
+	@Test
+	public void testFind () {
+		assertSame(memoryDAO, cachedDAO.getDAO());
+		assertEquals(2, cachedDAO.getMaxSize());
+		final Dummy aba = memoryDAO.create(new Dummy("ABA"));
+		
+		final Dummy found = cachedDAO.find(aba.getId());
+		assertEquals(aba, found);
+		assertEquals(1, cachedDAO.getMissCount());
+		assertEquals(0, cachedDAO.getHitCount());
+		assertEquals(1, cachedDAO.getSize());
+		
+		// Modifying the entity returned does not alter the cache
+		found.setName("modified");
+		final Dummy cached = cachedDAO.find(aba.getId());
+		assertEquals(aba, cached);
+		assertNotSame(cachedDAO.find(aba.getId()), cached);
+		assertEquals(2, cachedDAO.getHitCount());
+		assertEquals(1, memoryDAO.getFindCount());
+		
+		assertNull(cachedDAO.find(42));
+		assertEquals(0, cachedDAO.getEvictionCount());
+	}
+	
+	/**
+	 * Test method for {@link CachedDAO#findAll(java.util.Collection)}.
+	 */
+	@Test
+	public void testFindAll () {
+		final Dummy aba = memoryDAO.create(new Dummy("ABA"));
+		final Dummy ldr = memoryDAO.create(new Dummy("LDR"));
+		cachedDAO.find(aba.getId());
+		
+		final Map<Integer, Dummy> found = cachedDAO.findAll(Arrays.asList(ldr.getId(), aba.getId(), 42));
+		assertEquals(Arrays.asList(ldr.getId(), aba.getId()), new ArrayList<>(found.keySet()));
+		assertEquals(aba, found.get(aba.getId()));
+		assertEquals(ldr, found.get(ldr.getId()));
+		assertEquals(1, cachedDAO.getHitCount());
+		assertEquals(3, cachedDAO.getMissCount());
+		assertEquals(1, memoryDAO.getBatchCount());
+		
+		// All the entities are cached now
+		assertEquals(2, cachedDAO.findAll(Arrays.asList(aba.getId(), ldr.getId())).size());
+		assertEquals(1, memoryDAO.getBatchCount());
+		assertEquals(3, cachedDAO.getHitCount());
+		assertNull(cachedDAO.findAll(null));
+	}
+	
+	/**
+	 * Test method for {@link CachedDAO#save(com.alexrnl.commons.database.structure.Entity)} and
+	 * {@link CachedDAO#saveAll(java.util.Collection)}.
+	 */
+	@Test
+	public void testSave () {
+		final Dummy aba = new Dummy(42);
+		aba.setName("ABA");
+		assertTrue(cachedDAO.save(aba));
+		assertEquals(aba, cachedDAO.find(42));
+		assertEquals(aba, cachedDAO.find(42));
+		assertEquals(1, memoryDAO.getFindCount());
+		
+		// The entity saved is read again
+		aba.setName("aba");
+		assertTrue(cachedDAO.saveAll(Arrays.asList(aba)));
+		assertEquals(0, cachedDAO.getSize());
+		assertEquals("aba", cachedDAO.find(42).getName());
+		assertEquals(2, memoryDAO.getFindCount());
+		
+		// An entity without id cannot be saved
+		assertFalse(cachedDAO.save(new Dummy()));
+		assertEquals(1, cachedDAO.getSize());
+	}
+	
+	/**
+	 * Test the eviction of the least recently used entities.
+	 */
+	@Test
+	public void testLRUEviction () {
+		final Dummy aba = cachedDAO.create(new Dummy("ABA"));
+		final Dummy ldr = cachedDAO.create(new Dummy("LDR"));
+		assertEquals(2, cachedDAO.getSize());
+		cachedDAO.find(aba.getId());
+		final Dummy axe = cachedDAO.create(new Dummy("AXE"));
+		assertEquals(2, cachedDAO.getSize());
+		assertEquals(1, cachedDAO.getEvictionCount());
+		
+		cachedDAO.find(aba.getId());
+		cachedDAO.find(axe.getId());
+		assertEquals(0, memoryDAO.getFindCount());
+		cachedDAO.find(ldr.getId());
+		assertEquals(1, memoryDAO.getFindCount());
+		
+		cachedDAO.clear();
+		assertEquals(0, cachedDAO.getSize());
+	}
+	
+	/**
+	 * Test the expiration of the entities.
+	 * @throws InterruptedException
+	 *         if the test is interrupted.
+	 */
+	@Test
+	public void testTimeToLive () throws InterruptedException {
+		cachedDAO = new CachedDAO<>(memoryDAO, 2, 20, TimeUnit.MILLISECONDS);
+		final Dummy aba = cachedDAO.create(new Dummy("ABA"));
+		cachedDAO.find(aba.getId());
+		assertEquals(0, memoryDAO.getFindCount());
+		Thread.sleep(40);
+		assertEquals(aba, cachedDAO.find(aba.getId()));
+		assertEquals(1, memoryDAO.getFindCount());
+		assertEquals(1, cachedDAO.getEvictionCount());
+	}
+	
+	/**
+	 * Test method for {@link CachedDAO#update(com.alexrnl.commons.database.structure.Entity)} and
+	 * {@link CachedDAO#delete(com.alexrnl.commons.database.structure.Entity)}.
+	 */
+	@Test
+	public void testUpdateDelete () {
+		final Dummy aba = cachedDAO.create(new Dummy("ABA"));
+		aba.setName("aba");
+		assertTrue(cachedDAO.update(aba));
+		assertEquals(0, cachedDAO.getSize());
+		assertEquals("aba", cachedDAO.find(aba.getId()).getName());
+		assertEquals(1, memoryDAO.getFindCount());
+		
+		// Failed update invalidates the entity
+		assertFalse(cachedDAO.update(new Dummy(42)));
+		assertFalse(cachedDAO.update(null));
+		
+		assertTrue(cachedDAO.delete(aba));
+		assertNull(cachedDAO.find(aba.getId()));
+		assertTrue(cachedDAO.delete(null));
+		assertEquals(0, cachedDAO.getSize());
+	}
+	
+	/**
+	 * Test the batch operations.
+	 */
+	@Test
+	public void testBatchOperations () {
+		final List<Dummy> created = cachedDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("LDR")));
+		assertEquals(2, cachedDAO.getSize());
+		for (final Dummy dummy : created) {
+			dummy.setName(dummy.getName().toLowerCase());
+		}
+		assertTrue(cachedDAO.updateAll(created));
+		assertEquals(0, cachedDAO.getSize());
+		assertEquals("aba", cachedDAO.find(created.get(0).getId()).getName());
+		assertEquals(1, memoryDAO.getFindCount());
+		
+		assertTrue(cachedDAO.deleteAll(created));
+		assertEquals(0, cachedDAO.getSize());
+		assertEquals(0, cachedDAO.retrieveAll().size());
+		assertEquals(0, cachedDAO.search(null, null).size());
+	}
+	
+	/**
+	 * Test method for {@link DAODecorator#close()}.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 */
+	@Test
+	public void testClose () throws IOException {
+		cachedDAO.close();
+	}
+}
@@ -10,6 +10,7 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ AbstractDAOFactoryTest.class, DAOInstantiationErrorTest.class,
-		DataSourceConfigurationTest.class })
+		DataSourceConfigurationTest.class, CachedDAOTest.class,
+		AsyncDAOTest.class, OperationStatisticsTest.class, WriteBehindDAOTest.class })
 public class DAOTests {
 }
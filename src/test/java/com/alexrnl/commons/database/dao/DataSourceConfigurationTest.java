@@ -81,6 +81,24 @@ public class DataSourceConfigurationTest {
 		assertEquals(Paths.get("conf/create.sql").toAbsolutePath(), confWithoutCreationFile.getCreationFile().toAbsolutePath());
 	}
 	
+	/**
+	 * Test method for {@link DataSourceConfiguration#getPoolSize()}.
+	 */
+	@Test
+	public void testGetPoolSize () {
+		assertEquals(DataSourceConfiguration.DEFAULT_POOL_SIZE, confWithCreationFile.getPoolSize());
+		assertEquals(8, new DataSourceConfiguration("localhost:80/db", "aba", "ldr", null, 8).getPoolSize());
+		assertNotEquals(confWithCreationFile, new DataSourceConfiguration("localhost:80/db", "aba", "ldr", null, 8));
+	}
+	
+	/**
+	 * Test method for {@link DataSourceConfiguration#DataSourceConfiguration(String, String, String, java.nio.file.Path, int)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPoolSize () {
+		new DataSourceConfiguration("localhost:80/db", "aba", "ldr", null, 0);
+	}
+	
 	/**
 	 * Test method for {@link DataSourceConfiguration#hashCode()}.
 	 */
@@ -151,5 +169,6 @@ public class DataSourceConfigurationTest {
 		assertEquals("aba", dataSourceConfiguration.getUsername());
 		assertEquals("mad", dataSourceConfiguration.getPassword());
 		assertEquals(Paths.get("./main/test/resources/dummy.sql").toAbsolutePath(), dataSourceConfiguration.getCreationFile().toAbsolutePath());
+		assertEquals(DataSourceConfiguration.DEFAULT_POOL_SIZE, dataSourceConfiguration.getPoolSize());
 	}
 }
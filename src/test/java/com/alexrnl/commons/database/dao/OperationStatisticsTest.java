@@ -0,0 +1,93 @@
+package com.alexrnl.commons.database.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the {@link OperationStatistics} class.
+ * @author Alex
+ */
+public class OperationStatisticsTest {
+	/** The statistics to test */
+	private OperationStatistics	statistics;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		statistics = new OperationStatistics();
+	}
+	
+	/**
+	 * Test method for {@link OperationStatistics#bucketIndex(long)} and
+	 * {@link OperationStatistics#bucketUpperBound(int)}.
+	 */
+	@Test
+	public void testBuckets () {
+		for (long latency = 0; latency < 100000; latency += 7) {
+			final int index = OperationStatistics.bucketIndex(latency);
+			assertTrue(latency <= OperationStatistics.bucketUpperBound(index));
+			if (index > 0) {
+				assertTrue(latency > OperationStatistics.bucketUpperBound(index - 1));
+			}
+			// Precision of the buckets
+			assertTrue(OperationStatistics.bucketUpperBound(index) <= latency * 1.125 + 1);
+		}
+		assertEquals(0, OperationStatistics.bucketIndex(-5));
+		assertEquals(OperationStatistics.bucketIndex(Long.MAX_VALUE),
+				OperationStatistics.bucketIndex(Long.MAX_VALUE / 2));
+	}
+	
+	/**
+	 * Test method for {@link OperationStatistics#record(long, TimeUnit, boolean)}.
+	 */
+	@Test
+	public void testRecord () {
+		assertEquals(0, statistics.getLatency50thPercentile());
+		assertEquals(0, statistics.getMeanLatency(), 0);
+		for (int latency = 1; latency <= 100; ++latency) {
+			statistics.record(latency, TimeUnit.MILLISECONDS, latency % 10 != 0);
+		}
+		assertEquals(100, statistics.getCount());
+		assertEquals(10, statistics.getErrorCount());
+		assertEquals(50500, statistics.getMeanLatency(), 0.1);
+		assertEquals(100000, statistics.getMaxLatency());
+		assertEquals(50000, statistics.getLatency50thPercentile(), 50000 * 0.125);
+		assertEquals(95000, statistics.getLatency95thPercentile(), 95000 * 0.125);
+		assertEquals(99000, statistics.getLatency99thPercentile(), 99000 * 0.125);
+		assertEquals(100000, statistics.getLatencyPercentile(100));
+		assertEquals(1000, statistics.getLatencyPercentile(0), 1000 * 0.125);
+		
+		statistics.reset();
+		assertEquals(0, statistics.getCount());
+		assertEquals(0, statistics.getMaxLatency());
+	}
+	
+	/**
+	 * Test method for {@link OperationStatistics#getLatencyPercentile(double)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetLatencyPercentileInvalid () {
+		statistics.getLatencyPercentile(101);
+	}
+	
+	/**
+	 * Test method for {@link DAOStatistics#record(DAOStatistics.Operation, long, boolean)}.
+	 */
+	@Test
+	public void testDAOStatistics () {
+		final DAOStatistics daoStatistics = new DAOStatistics();
+		assertEquals(DAOStatistics.Operation.values().length, daoStatistics.getAll().size());
+		daoStatistics.record(DAOStatistics.Operation.FIND, System.nanoTime(), true);
+		assertEquals(1, daoStatistics.get(DAOStatistics.Operation.FIND).getCount());
+		assertEquals(0, daoStatistics.get(DAOStatistics.Operation.CREATE).getCount());
+		daoStatistics.reset();
+		assertEquals(0, daoStatistics.get(DAOStatistics.Operation.FIND).getCount());
+	}
+}
@@ -0,0 +1,231 @@
+package com.alexrnl.commons.database.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.commons.database.Dummy;
+import com.alexrnl.commons.database.DummyMemoryDAO;
+
+/**
+ * Test suite for the {@link WriteBehindDAO} class.
+ * @author Alex
+ */
+public class WriteBehindDAOTest {
+	/** The DAO decorated */
+	private DummyMemoryDAO			memoryDAO;
+	/** The write behind DAO */
+	private WriteBehindDAO<Dummy>	writeBehindDAO;
+	/** An entity of the DAO */
+	private Dummy					aba;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		memoryDAO = new DummyMemoryDAO();
+		writeBehindDAO = new WriteBehindDAO<>(memoryDAO, 3);
+		aba = writeBehindDAO.create(new Dummy("ABA"));
+	}
+	
+	/**
+	 * Test method for {@link WriteBehindDAO#WriteBehindDAO(DAO, int)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testWriteBehindDAOInvalidThreshold () {
+		new WriteBehindDAO<>(memoryDAO, 0);
+	}
+	
+	/**
+	 * Test that the updates of an entity are coalesced.
+	 */
+	@Test
+	public void testUpdateCoalesced () {
+		for (int i = 0; i < 10; ++i) {
+			aba.setName("ABA" + i);
+			assertTrue(writeBehindDAO.update(aba));
+		}
+		assertEquals(1, writeBehindDAO.getPendingCount());
+		assertEquals(0, memoryDAO.getUpdateCount());
+		// The pending update is visible
+		assertEquals("ABA9", writeBehindDAO.find(aba.getId()).getName());
+		assertEquals("ABA", memoryDAO.find(aba.getId()).getName());
+		
+		assertTrue(writeBehindDAO.flush());
+		assertEquals(0, writeBehindDAO.getPendingCount());
+		assertEquals(1, memoryDAO.getUpdateCount());
+		assertEquals(1, memoryDAO.getBatchCount());
+		assertEquals("ABA9", memoryDAO.find(aba.getId()).getName());
+		assertTrue(writeBehindDAO.flush());
+		assertFalse(writeBehindDAO.update(null));
+	}
+	
+	/**
+	 * Test that the updates are flushed when the threshold is reached.
+	 */
+	@Test
+	public void testFlushThreshold () {
+		final Dummy ldr = writeBehindDAO.create(new Dummy("LDR"));
+		final Dummy axe = writeBehindDAO.create(new Dummy("AXE"));
+		assertTrue(writeBehindDAO.updateAll(Arrays.asList(aba, ldr)));
+		assertEquals(2, writeBehindDAO.getPendingCount());
+		assertTrue(writeBehindDAO.update(axe));
+		assertEquals(0, writeBehindDAO.getPendingCount());
+		assertEquals(3, memoryDAO.getUpdateCount());
+		assertFalse(writeBehindDAO.updateAll(null));
+	}
+	
+	/**
+	 * Test that the updates are flushed periodically.
+	 * @throws InterruptedException
+	 *         if the test was interrupted.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 */
+	@Test
+	public void testFlushInterval () throws InterruptedException, IOException {
+		try (final WriteBehindDAO<Dummy> periodicDAO = new WriteBehindDAO<>(memoryDAO, 100, 10,
+				TimeUnit.MILLISECONDS)) {
+			aba.setName("aba");
+			periodicDAO.update(aba);
+			for (int i = 0; i < 100 && memoryDAO.getUpdateCount() == 0; ++i) {
+				Thread.sleep(10);
+			}
+			assertEquals(1, memoryDAO.getUpdateCount());
+			assertEquals(0, periodicDAO.getPendingCount());
+		}
+	}
+	
+	/**
+	 * Test that the read operations flush the pending updates.
+	 */
+	@Test
+	public void testReadFlushes () {
+		aba.setName("aba");
+		writeBehindDAO.update(aba);
+		assertEquals(1, writeBehindDAO.search(null, "aba").size());
+		assertEquals(0, writeBehindDAO.getPendingCount());
+		writeBehindDAO.update(aba);
+		assertEquals(1, writeBehindDAO.retrieveAll().size());
+		assertEquals(0, writeBehindDAO.getPendingCount());
+	}
+	
+	/**
+	 * Test method for {@link WriteBehindDAO#findAll(Collection)}.
+	 */
+	@Test
+	public void testFindAll () {
+		final Dummy ldr = writeBehindDAO.create(new Dummy("LDR"));
+		aba.setName("aba");
+		writeBehindDAO.update(aba);
+		final Map<Integer, Dummy> found = writeBehindDAO.findAll(Arrays.asList(ldr.getId(), aba.getId()));
+		assertEquals(Arrays.asList(ldr.getId(), aba.getId()), new ArrayList<>(found.keySet()));
+		assertEquals("aba", found.get(aba.getId()).getName());
+		assertEquals(ldr, found.get(ldr.getId()));
+		assertEquals(1, writeBehindDAO.getPendingCount());
+		assertNull(writeBehindDAO.findAll(null));
+	}
+	
+	/**
+	 * Test that the save operation discards the pending update.
+	 */
+	@Test
+	public void testSave () {
+		aba.setName("pending");
+		writeBehindDAO.update(aba);
+		aba.setName("saved");
+		assertTrue(writeBehindDAO.save(aba));
+		assertEquals(0, writeBehindDAO.getPendingCount());
+		assertTrue(writeBehindDAO.flush());
+		assertEquals("saved", memoryDAO.find(aba.getId()).getName());
+	}
+	
+	/**
+	 * Test that the deletion discards the pending updates.
+	 */
+	@Test
+	public void testDelete () {
+		writeBehindDAO.update(aba);
+		assertTrue(writeBehindDAO.delete(aba));
+		assertEquals(0, writeBehindDAO.getPendingCount());
+		assertNull(writeBehindDAO.find(aba.getId()));
+		
+		final Dummy ldr = writeBehindDAO.create(new Dummy("LDR"));
+		writeBehindDAO.update(ldr);
+		assertTrue(writeBehindDAO.deleteAll(Arrays.asList(ldr, null)));
+		assertEquals(0, writeBehindDAO.getPendingCount());
+		assertEquals(0, memoryDAO.getUpdateCount());
+	}
+	
+	/**
+	 * Test method for {@link WriteBehindDAO#close()}.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 */
+	@Test
+	public void testClose () throws IOException {
+		aba.setName("aba");
+		writeBehindDAO.update(aba);
+		writeBehindDAO.close();
+		assertEquals("aba", memoryDAO.find(aba.getId()).getName());
+	}
+	
+	/**
+	 * Test that the updates are rejected once the DAO is closed.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testUpdateAfterClose () throws IOException {
+		writeBehindDAO.close();
+		aba.setName("aba");
+		writeBehindDAO.update(aba);
+	}
+	
+	/**
+	 * Test that the updates of a failed batch are written one by one, and that the updates which
+	 * cannot be written are discarded.
+	 * @throws IOException
+	 *         as the pending updates cannot be written.
+	 */
+	@Test(expected = IOException.class)
+	public void testFailedFlush () throws IOException {
+		final DummyMemoryDAO poisonedDAO = new DummyMemoryDAO() {
+			@Override
+			public boolean update (final Dummy obj) {
+				return !"poison".equals(obj.getName()) && super.update(obj);
+			}
+			
+			@Override
+			public boolean updateAll (final Collection<Dummy> objects) {
+				return false;
+			}
+		};
+		final WriteBehindDAO<Dummy> failingDAO = new WriteBehindDAO<>(poisonedDAO, 10);
+		final Dummy ldr = failingDAO.create(new Dummy("LDR"));
+		final Dummy poison = failingDAO.create(new Dummy("A2E"));
+		ldr.setName("ldr");
+		poison.setName("poison");
+		failingDAO.update(ldr);
+		failingDAO.update(poison);
+		assertFalse(failingDAO.flush());
+		assertEquals(0, failingDAO.getPendingCount());
+		assertEquals("ldr", poisonedDAO.find(ldr.getId()).getName());
+		assertEquals("A2E", poisonedDAO.find(poison.getId()).getName());
+		
+		failingDAO.update(poison);
+		failingDAO.close();
+	}
+}
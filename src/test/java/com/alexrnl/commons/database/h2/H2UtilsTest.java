@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -127,7 +128,7 @@ public class H2UtilsTest {
 	 */
 	@Test
 	public void testInitDatabaseInMemory () throws IOException, SQLException {
-		final DataSourceConfiguration dbInfos = new DataSourceConfiguration("jdbc:h2:mem:testInMemory;DB_CLOSE_DELAY=-1", "aba", "ldr", creationFile);
+		final DataSourceConfiguration dbInfos = new DataSourceConfiguration("jdbc:h2:mem:testInMemory" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "aba", "ldr", creationFile);
 		Logger.getLogger(H2Utils.class.getName()).setLevel(Level.WARNING);
 		H2Utils.initDatabase(dbInfos);
 		Logger.getLogger(H2Utils.class.getName()).setLevel(Level.INFO);
@@ -162,6 +163,92 @@ public class H2UtilsTest {
 		H2Utils.initDatabase(dbInfos);
 	}
 	
+	/**
+	 * Count the template databases in a directory.
+	 * @param templateDirectory
+	 *        the directory of the templates.
+	 * @return the number of template database files.
+	 * @throws IOException
+	 *         if the directory could not be read.
+	 */
+	private static int countTemplates (final Path templateDirectory) throws IOException {
+		int count = 0;
+		try (final DirectoryStream<Path> templates = Files.newDirectoryStream(templateDirectory,
+				"*" + Constants.SUFFIX_PAGE_FILE)) {
+			for (@SuppressWarnings("unused") final Path template : templates) {
+				++count;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Test method for {@link H2Utils#initDatabase(DataSourceConfiguration, Path)}.
+	 * @throws IOException
+	 *         if there is an error while creating the file database.
+	 * @throws SQLException
+	 *         if there was an SQL error while validating the database.
+	 */
+	@Test
+	public void testInitDatabaseFromTemplate () throws IOException, SQLException {
+		final Path templateDirectory = folder.newFolder().toPath().resolve("templates");
+		final Path dataDirectory = folder.newFolder().toPath();
+		final DataSourceConfiguration first = new DataSourceConfiguration(Constants.START_URL
+				+ dataDirectory.resolve("first"), "aba", "ldr", creationFile);
+		final DataSourceConfiguration second = new DataSourceConfiguration(Constants.START_URL
+				+ dataDirectory.resolve("second"), "aba", "ldr", creationFile);
+		H2Utils.initDatabase(first, templateDirectory);
+		H2Utils.initDatabase(second, templateDirectory);
+		validateDatabase(first);
+		validateDatabase(second);
+		assertEquals(1, countTemplates(templateDirectory));
+		
+		// Already created database is left untouched
+		H2Utils.initDatabase(first, templateDirectory);
+		validateDatabase(first);
+		
+		// Other credentials use another template
+		final DataSourceConfiguration other = new DataSourceConfiguration(Constants.START_URL
+				+ dataDirectory.resolve("other"), "lud", "blo", creationFile);
+		H2Utils.initDatabase(other, templateDirectory);
+		validateDatabase(other);
+		assertEquals(2, countTemplates(templateDirectory));
+	}
+	
+	/**
+	 * Test method for {@link H2Utils#initDatabase(DataSourceConfiguration, Path)} with in-memory
+	 * database.
+	 * @throws IOException
+	 *         if there is an error while creating the template.
+	 * @throws SQLException
+	 *         if there was an SQL error while validating the database.
+	 */
+	@Test
+	public void testInitDatabaseInMemoryFromTemplate () throws IOException, SQLException {
+		final Path templateDirectory = folder.newFolder().toPath();
+		final DataSourceConfiguration dbInfos = new DataSourceConfiguration("jdbc:h2:mem:testTemplateInMemory"
+				+ System.nanoTime() + ";DB_CLOSE_DELAY=-1", "aba", "ldr", creationFile);
+		H2Utils.initDatabase(dbInfos, templateDirectory);
+		validateDatabase(dbInfos);
+		// In-memory databases are initialised with the script, without template
+		assertEquals(0, countTemplates(templateDirectory));
+	}
+	
+	/**
+	 * Test method for {@link H2Utils#initDatabase(DataSourceConfiguration, Path)} with a bad
+	 * script.
+	 * @throws URISyntaxException
+	 *         if there is a problem while loading the creation file.
+	 * @throws IOException
+	 *         if the template directory could not be created.
+	 */
+	@Test(expected = DataBaseConfigurationError.class)
+	public void testBadSQLScriptTemplate () throws URISyntaxException, IOException {
+		final Path badCreationFile = Paths.get(getClass().getResource("/badScript.sql").toURI());
+		final DataSourceConfiguration dbInfos = new DataSourceConfiguration("jdbc:h2:mem:testBadTemplate", "aba", "ldr", badCreationFile);
+		H2Utils.initDatabase(dbInfos, folder.newFolder().toPath());
+	}
+	
 	/**
 	 * Test method for {@link H2Utils#initDatabase(DataSourceConfiguration)}.
 	 * @throws URISyntaxException
@@ -0,0 +1,187 @@
+package com.alexrnl.commons.database.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.commons.database.dao.DataSourceConfiguration;
+
+/**
+ * Test suite for the {@link ConnectionPool} class.
+ * @author Alex
+ */
+public class ConnectionPoolTest {
+	/** The pool to test */
+	private ConnectionPool	pool;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		pool = new ConnectionPool(new DataSourceConfiguration("jdbc:h2:mem:", "", "", null, 2));
+	}
+	
+	/**
+	 * Close the pool after the test.
+	 */
+	@After
+	public void tearDown () {
+		pool.close();
+	}
+	
+	/**
+	 * Test method for {@link ConnectionPool#ConnectionPool(String, String, String, int)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConnectionPoolInvalidSize () {
+		new ConnectionPool("jdbc:h2:mem:", "", "", 0);
+	}
+	
+	/**
+	 * Test method for {@link ConnectionPool#getMaxSize()}.
+	 */
+	@Test
+	public void testGetMaxSize () {
+		assertEquals(2, pool.getMaxSize());
+	}
+	
+	/**
+	 * Acquire a connection from the pool in another thread.
+	 * @return the connection acquired, which is not released.
+	 * @throws InterruptedException
+	 *         if the test was interrupted.
+	 * @throws ExecutionException
+	 *         if the connection could not be acquired.
+	 */
+	private Connection acquireInOtherThread () throws InterruptedException, ExecutionException {
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final Future<Connection> connection = executor.submit(new Callable<Connection>() {
+				@Override
+				public Connection call () throws SQLException {
+					return pool.acquire(100, TimeUnit.MILLISECONDS);
+				}
+			});
+			return connection.get();
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Test method for {@link ConnectionPool#acquire()} and {@link ConnectionPool#release(Connection)}.
+	 * @throws Exception
+	 *         if a connection could not be acquired.
+	 */
+	@Test
+	public void testAcquireRelease () throws Exception {
+		final Connection first = pool.acquire();
+		// Reentrant acquisition
+		assertSame(first, pool.acquire());
+		pool.release(first);
+		
+		final Connection second = acquireInOtherThread();
+		assertNotSame(first, second);
+		try {
+			acquireInOtherThread();
+		} catch (final ExecutionException e) {
+			assertTrue(e.getCause() instanceof SQLException);
+		}
+		
+		pool.release(first);
+		assertSame(first, acquireInOtherThread());
+		pool.release(null);
+	}
+	
+	/**
+	 * Test method for {@link ConnectionPool#release(Connection)} from another thread than the one
+	 * which acquired the connection.
+	 * @throws Exception
+	 *         if a connection could not be acquired.
+	 */
+	@Test
+	public void testReleaseFromOtherThread () throws Exception {
+		final Connection first = pool.acquire();
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			executor.submit(new Callable<Void>() {
+				@Override
+				public Void call () {
+					pool.release(first);
+					return null;
+				}
+			}).get();
+		} finally {
+			executor.shutdown();
+		}
+		// The connection is back in the pool, and no longer held by this thread
+		assertSame(first, acquireInOtherThread());
+		final Connection second = pool.acquire();
+		assertNotSame(first, second);
+		pool.release(second);
+		pool.release(second);
+		assertSame(second, pool.acquire());
+		pool.release(second);
+	}
+	
+	/**
+	 * Test method for {@link ConnectionPool#close()}.
+	 * @throws SQLException
+	 *         if a connection could not be acquired.
+	 */
+	@Test
+	public void testClose () throws SQLException {
+		final Connection connection = pool.acquire();
+		pool.release(connection);
+		final Connection held = pool.acquire(1, TimeUnit.SECONDS);
+		pool.close();
+		assertFalse(held.isClosed());
+		pool.release(held);
+		assertTrue(held.isClosed());
+	}
+	
+	/**
+	 * Test method for {@link ConnectionPool#acquire()} when the pool is closed.
+	 * @throws SQLException
+	 *         as the pool is closed.
+	 */
+	@Test(expected = SQLException.class)
+	public void testAcquireClosed () throws SQLException {
+		pool.close();
+		pool.acquire();
+	}
+	
+	/**
+	 * Test method for {@link ConnectionPool#ConnectionPool(Connection)}.
+	 * @throws SQLException
+	 *         if a connection could not be acquired.
+	 */
+	@Test
+	public void testSingleConnectionPool () throws SQLException {
+		try (final Connection connection = DriverManager.getConnection("jdbc:h2:mem:")) {
+			final ConnectionPool singlePool = new ConnectionPool(connection);
+			assertEquals(1, singlePool.getMaxSize());
+			assertSame(connection, singlePool.acquire());
+			singlePool.release(connection);
+			singlePool.close();
+			assertFalse(connection.isClosed());
+		}
+	}
+}
@@ -33,6 +33,18 @@ public class DummySQLDAO extends SQLDAO<Dummy> {
 		columns = getEntitySample().getEntityColumns();
 	}
 	
+	/**
+	 * Constructor #2.<br />
+	 * @param pool
+	 *        the pool of connections to the SQL database.
+	 * @throws SQLException
+	 *         if there was an error while initializing the database.
+	 */
+	public DummySQLDAO (final ConnectionPool pool) throws SQLException {
+		super(pool);
+		columns = getEntitySample().getEntityColumns();
+	}
+	
 	@Override
 	protected Dummy getEntitySample () {
 		if (sample == null) {
@@ -0,0 +1,156 @@
+package com.alexrnl.commons.database.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.commons.database.Dummy;
+import com.alexrnl.commons.database.Dummy.DummyColumn;
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+import com.alexrnl.commons.database.structure.EntityColumn;
+import com.alexrnl.commons.utils.object.ReflectionException;
+
+/**
+ * Test suite for the {@link EntityMapper} class.
+ * @author Alex
+ */
+public class EntityMapperTest {
+	/** The test database connection */
+	private Connection			connection;
+	/** The mapper of the dummy entity */
+	private EntityMapper<Dummy>	mapper;
+	
+	/**
+	 * Entity whose properties have no accessors.
+	 * @author Alex
+	 */
+	public static final class NoAccessors extends Entity {
+		/** Serial version UID */
+		private static final long				serialVersionUID	= 1L;
+		
+		/** The columns of the entity */
+		private EnumMap<DummyColumn, Column>	columns;
+		
+		@Override
+		public String getEntityName () {
+			return "NoAccessors";
+		}
+		
+		@Override
+		protected void setEntityColumns () {
+			columns = new EnumMap<>(DummyColumn.class);
+			columns.put(DummyColumn.ID, new Column(Integer.class, "id", true));
+		}
+		
+		@Override
+		public Map<? extends Enum<? extends EntityColumn>, Column> getEntityColumns () {
+			return columns;
+		}
+		
+		@Override
+		public String getID () {
+			return null;
+		}
+		
+		@Override
+		public NoAccessors clone () throws CloneNotSupportedException {
+			return new NoAccessors();
+		}
+	}
+	
+	/**
+	 * Set up test attributes.
+	 * @throws SQLException
+	 *         if the database could not be initialized.
+	 */
+	@Before
+	public void setUp () throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:");
+		try (final Statement statement = connection.createStatement()) {
+			// The id column is not the first one, the indices must be resolved from the names
+			statement.executeUpdate("CREATE TABLE dummy (name VARCHAR(60), "
+					+ "id INT(10) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY);");
+		}
+		mapper = new EntityMapper<>(new Dummy());
+	}
+	
+	/**
+	 * Close the database connection.
+	 * @throws SQLException
+	 *         if the connection could not be closed.
+	 */
+	@After
+	public void tearDown () throws SQLException {
+		connection.close();
+	}
+	
+	/**
+	 * Read the dummy with the specified id.
+	 * @param id
+	 *        the id of the dummy.
+	 * @return the dummy read.
+	 * @throws SQLException
+	 *         if the dummy could not be read.
+	 */
+	private Dummy read (final int id) throws SQLException {
+		try (final PreparedStatement find = connection.prepareStatement(QueryGenerator.getQueries(
+				new Dummy()).getFind())) {
+			find.setInt(1, id);
+			try (final ResultSet result = find.executeQuery()) {
+				assertTrue(result.next());
+				return mapper.createEntityFromResult(result);
+			}
+		}
+	}
+	
+	/**
+	 * Test method for {@link EntityMapper#EntityMapper(Entity)} with an entity without accessors.
+	 */
+	@Test(expected = ReflectionException.class)
+	public void testEntityMapperNoAccessors () {
+		new EntityMapper<>(new NoAccessors());
+	}
+	
+	/**
+	 * Test method for {@link EntityMapper#fillInsertStatement(PreparedStatement, Dummy)},
+	 * {@link EntityMapper#fillUpdateStatement(PreparedStatement, Dummy)} and
+	 * {@link EntityMapper#createEntityFromResult(ResultSet)}.
+	 * @throws SQLException
+	 *         if the database could not be accessed.
+	 */
+	@Test
+	public void testMapping () throws SQLException {
+		try (final PreparedStatement insert = connection.prepareStatement(
+				QueryGenerator.insertPrepared(new Dummy()), Statement.RETURN_GENERATED_KEYS)) {
+			mapper.fillInsertStatement(insert, new Dummy("ABA"));
+			insert.executeUpdate();
+			mapper.fillInsertStatement(insert, new Dummy((String) null));
+			insert.executeUpdate();
+		}
+		final Dummy aba = read(1);
+		assertEquals(Integer.valueOf(1), aba.getId());
+		assertEquals("ABA", aba.getName());
+		assertEquals(null, read(2).getName());
+		
+		aba.setName("aba");
+		try (final PreparedStatement update = connection.prepareStatement(
+				QueryGenerator.updatePrepared(new Dummy()))) {
+			mapper.fillUpdateStatement(update, aba);
+			assertEquals(1, update.executeUpdate());
+		}
+		assertEquals(aba, read(1));
+	}
+}
@@ -0,0 +1,122 @@
+package com.alexrnl.commons.database.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.commons.database.Dummy;
+import com.alexrnl.commons.database.Dummy.DummyColumn;
+import com.alexrnl.commons.database.dao.Comparison;
+import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.Entity;
+
+/**
+ * Test suite for the {@link EntityQueries} class.
+ * @author Alex
+ */
+public class EntityQueriesTest {
+	/** The queries of the dummy entity */
+	private EntityQueries	queries;
+	
+	/**
+	 * Set up test attributes.
+	 */
+	@Before
+	public void setUp () {
+		queries = QueryGenerator.getQueries(new Dummy());
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#getQueries(Entity)}.
+	 */
+	@Test
+	public void testGetQueries () {
+		assertSame(queries, QueryGenerator.getQueries(new Dummy("ABA")));
+	}
+	
+	/**
+	 * Test method for the queries of the {@link EntityQueries} class.
+	 */
+	@Test
+	public void testQueries () {
+		final Dummy dummy = new Dummy();
+		assertEquals(QueryGenerator.insertPrepared(dummy), queries.getInsert());
+		assertEquals("SELECT * FROM Dummy WHERE id = ?", queries.getFind());
+		assertEquals(QueryGenerator.updatePrepared(dummy), queries.getUpdate());
+		assertEquals(QueryGenerator.mergePrepared(dummy), queries.getMerge());
+		assertEquals(QueryGenerator.delete(dummy, true), queries.getDelete());
+		assertEquals(QueryGenerator.searchAll(dummy), queries.getSearchAll());
+		assertEquals(QueryGenerator.pagePrepared(dummy), queries.getPage());
+		assertEquals(QueryGenerator.count(dummy), queries.getCount());
+		assertEquals(QueryGenerator.existsPrepared(dummy), queries.getExists());
+	}
+	
+	/**
+	 * Test method for {@link EntityQueries#getFindAllSize(int)} and
+	 * {@link EntityQueries#getFindAll(int)}.
+	 */
+	@Test
+	public void testFindAllQueries () {
+		assertEquals(1, EntityQueries.getFindAllSize(1));
+		assertEquals(4, EntityQueries.getFindAllSize(2));
+		assertEquals(16, EntityQueries.getFindAllSize(16));
+		assertEquals(EntityQueries.MAX_FIND_ALL_SIZE, EntityQueries.getFindAllSize(10000));
+		assertEquals(QueryGenerator.findAllPrepared(new Dummy(), 4), queries.getFindAll(4));
+		assertEquals(QueryGenerator.findAllPrepared(new Dummy(), EntityQueries.MAX_FIND_ALL_SIZE),
+				queries.getFindAll(EntityQueries.MAX_FIND_ALL_SIZE));
+		assertNull(queries.getFindAll(3));
+	}
+	
+	/**
+	 * Test method for {@link EntityQueries#getSearch(Column)} and
+	 * {@link EntityQueries#getPage(Column)}.
+	 */
+	@Test
+	public void testColumnQueries () {
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		final Column id = Dummy.getColumns().get(DummyColumn.ID);
+		assertEquals("SELECT * FROM Dummy WHERE name LIKE ?", queries.getSearch(name));
+		assertEquals("SELECT * FROM Dummy WHERE id = ?", queries.getSearch(id));
+		assertEquals(QueryGenerator.pagePrepared(new Dummy(), name, true), queries.getPage(name));
+		assertEquals(QueryGenerator.pagePrepared(new Dummy(), id, false), queries.getPage(id));
+		assertEquals("SELECT COUNT(*) FROM Dummy WHERE name LIKE ?", queries.getCount(name));
+		assertEquals("SELECT COUNT(*) FROM Dummy WHERE id = ?", queries.getCount(id));
+		
+		final Column unknown = new Column(String.class, "notHere");
+		assertTrue(queries.hasColumn(name));
+		assertFalse(queries.hasColumn(unknown));
+		assertNull(queries.getSearch(unknown));
+		assertNull(queries.getPage(unknown));
+		assertNull(queries.getCount(unknown));
+	}
+	
+	/**
+	 * Test method for {@link EntityQueries#getSearch(Column, Comparison)} and
+	 * {@link EntityQueries#getSearchBetween(Column)}.
+	 */
+	@Test
+	public void testComparisonQueries () {
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		final Column id = Dummy.getColumns().get(DummyColumn.ID);
+		assertEquals("SELECT * FROM Dummy WHERE name = ?", queries.getSearch(name, Comparison.EQUAL));
+		assertEquals("SELECT * FROM Dummy WHERE id > ?", queries.getSearch(id, Comparison.GREATER_THAN));
+		assertEquals("SELECT * FROM Dummy WHERE id <= ?", queries.getSearch(id, Comparison.LESS_OR_EQUAL));
+		assertEquals("SELECT * FROM Dummy WHERE id BETWEEN ? AND ?", queries.getSearchBetween(id));
+		
+		// The queries generated on their first use are kept
+		assertSame(queries.getSearch(name, Comparison.LESS_THAN), queries.getSearch(name, Comparison.LESS_THAN));
+		assertSame(queries.getSearchBetween(name), queries.getSearchBetween(name));
+		assertSame(queries.getCount(name), queries.getCount(name));
+		
+		final Column unknown = new Column(Integer.class, "notHere");
+		assertNull(queries.getSearch(unknown, Comparison.EQUAL));
+		assertNull(queries.getSearchBetween(unknown));
+		assertNull(queries.getSearch(null, Comparison.EQUAL));
+		assertNull(queries.getCount(null));
+	}
+}
@@ -0,0 +1,153 @@
+package com.alexrnl.commons.database.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.commons.database.Dummy;
+import com.alexrnl.commons.database.Dummy.DummyColumn;
+import com.alexrnl.commons.database.structure.Column;
+
+/**
+ * Test suite for the {@link PrefixIndex} class.
+ * @author Alex
+ */
+public class PrefixIndexTest {
+	/** The index, case sensitive */
+	private PrefixIndex<Dummy>	index;
+	/** The index, ignoring the case */
+	private PrefixIndex<Dummy>	ignoreCaseIndex;
+	
+	/**
+	 * Build a dummy entity.
+	 * @param id
+	 *        the id of the dummy.
+	 * @param name
+	 *        the name of the dummy.
+	 * @return the dummy.
+	 */
+	private static Dummy dummy (final int id, final String name) {
+		final Dummy dummy = new Dummy(id);
+		dummy.setName(name);
+		return dummy;
+	}
+	
+	/**
+	 * Set up the indexes.
+	 */
+	@Before
+	public void setUp () {
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		index = new PrefixIndex<>(name, false);
+		ignoreCaseIndex = new PrefixIndex<>(name, true);
+		for (final PrefixIndex<Dummy> prefixIndex : new PrefixIndex[] { index, ignoreCaseIndex }) {
+			prefixIndex.put(1, "ABA", dummy(1, "ABA"));
+			prefixIndex.put(2, "abc", dummy(2, "abc"));
+			prefixIndex.put(3, "AB", dummy(3, "AB"));
+			prefixIndex.put(4, "BLO", dummy(4, "BLO"));
+			prefixIndex.put(5, "ABA", dummy(5, "ABA"));
+		}
+	}
+	
+	/**
+	 * Test method for {@link PrefixIndex#PrefixIndex(Column, boolean)} with a column which is not a
+	 * {@link String}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotStringColumn () {
+		new PrefixIndex<Dummy>(Dummy.getColumns().get(DummyColumn.ID), false);
+	}
+	
+	/**
+	 * Test method for {@link PrefixIndex#getColumn()} and {@link PrefixIndex#isIgnoreCase()}.
+	 */
+	@Test
+	public void testGetters () {
+		assertEquals(Dummy.getColumns().get(DummyColumn.NAME), index.getColumn());
+		assertFalse(index.isIgnoreCase());
+		assertTrue(ignoreCaseIndex.isIgnoreCase());
+	}
+	
+	/**
+	 * Test method for {@link PrefixIndex#search(String)}.
+	 */
+	@Test
+	public void testSearch () {
+		assertEquals(3, index.search("AB").size());
+		assertEquals(2, index.search("ABA").size());
+		assertEquals(1, index.search("ab").size());
+		assertEquals(5, index.search("").size());
+		assertTrue(index.search("C").isEmpty());
+		assertTrue(index.search("ABAB").isEmpty());
+		
+		assertEquals(4, ignoreCaseIndex.search("ab").size());
+		assertEquals(4, ignoreCaseIndex.search("AB").size());
+		assertEquals(1, ignoreCaseIndex.search("abc").size());
+	}
+	
+	/**
+	 * Test that the index stores and returns copies of the entities.
+	 */
+	@Test
+	public void testCopies () {
+		final Dummy dummy = dummy(6, "CAT");
+		index.put(6, "CAT", dummy);
+		dummy.setName("DOG");
+		final Set<Dummy> found = index.search("CA");
+		assertEquals(1, found.size());
+		final Dummy copy = found.iterator().next();
+		assertEquals("CAT", copy.getName());
+		copy.setName("DOG");
+		assertEquals("CAT", index.search("CA").iterator().next().getName());
+		assertNotSame(copy, index.search("CA").iterator().next());
+	}
+	
+	/**
+	 * Test method for {@link PrefixIndex#put(int, String, com.alexrnl.commons.database.structure.Entity)}
+	 * and {@link PrefixIndex#remove(int)}.
+	 */
+	@Test
+	public void testPutRemove () {
+		assertEquals(5, index.size());
+		index.put(1, "BOB", dummy(1, "BOB"));
+		assertEquals(5, index.size());
+		assertEquals(1, index.search("ABA").size());
+		assertEquals(2, index.search("B").size());
+		
+		index.put(4, null, dummy(4, null));
+		assertEquals(4, index.size());
+		assertEquals(1, index.search("B").size());
+		
+		index.remove(1);
+		index.remove(42);
+		assertEquals(3, index.size());
+		assertTrue(index.search("B").isEmpty());
+		
+		index.clear();
+		assertEquals(0, index.size());
+		assertTrue(index.search("").isEmpty());
+	}
+	
+	/**
+	 * Test method for {@link PrefixIndex#getPrefix(String)}.
+	 */
+	@Test
+	public void testGetPrefix () {
+		assertEquals("AB", PrefixIndex.getPrefix("AB%"));
+		assertEquals("", PrefixIndex.getPrefix("%"));
+		assertNull(PrefixIndex.getPrefix(null));
+		assertNull(PrefixIndex.getPrefix(""));
+		assertNull(PrefixIndex.getPrefix("AB"));
+		assertNull(PrefixIndex.getPrefix("%AB%"));
+		assertNull(PrefixIndex.getPrefix("A_B%"));
+		assertNull(PrefixIndex.getPrefix("A\\%%"));
+	}
+
+}
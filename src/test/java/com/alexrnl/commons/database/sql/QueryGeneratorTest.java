@@ -1,11 +1,15 @@
 package com.alexrnl.commons.database.sql;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,6 +21,8 @@ import org.junit.Test;
 import com.alexrnl.commons.database.DataBaseConfigurationError;
 import com.alexrnl.commons.database.Dummy;
 import com.alexrnl.commons.database.Dummy.DummyColumn;
+import com.alexrnl.commons.database.dao.Aggregate;
+import com.alexrnl.commons.database.dao.Comparison;
 import com.alexrnl.commons.database.structure.Column;
 import com.alexrnl.commons.database.structure.Entity;
 import com.alexrnl.commons.database.structure.EntityColumn;
@@ -158,6 +164,20 @@ public class QueryGeneratorTest {
 		Logger.getLogger(QueryGenerator.class.getName()).setLevel(Level.INFO);
 	}
 	
+	/**
+	 * Test method for {@link QueryGenerator#getMetadata(Entity)}.
+	 */
+	@Test
+	public void testGetMetadata () {
+		final EntityMetadata metadata = QueryGenerator.getMetadata(new ReverseDummy());
+		assertSame(metadata, QueryGenerator.getMetadata(new ReverseDummy()));
+		assertTrue(metadata.hasIDColumn());
+		assertEquals("id", metadata.getIDColumn().getName());
+		assertEquals(2, metadata.getColumns().size());
+		assertEquals("name", metadata.getColumns().get(0).getName());
+		assertEquals("value", metadata.getColumns().get(1).getName());
+	}
+	
 	/**
 	 * Test method for {@link QueryGenerator#getIDColumn(Entity)}.<br />
 	 */
@@ -269,6 +289,24 @@ public class QueryGeneratorTest {
 		assertEquals(" WHERE id LIKE 'test'", QueryGenerator.whereLike(new Dummy().getEntityColumns().get(DummyColumn.ID), "test"));
 	}
 	
+	/**
+	 * Test method for {@link QueryGenerator#whereComparison(Column, Comparison)}.
+	 */
+	@Test
+	public void testWhereComparison () {
+		assertEquals(" WHERE id = ?", QueryGenerator.whereComparison(new Dummy().getEntityColumns().get(DummyColumn.ID), Comparison.EQUAL));
+		assertEquals(" WHERE id < ?", QueryGenerator.whereComparison(new Dummy().getEntityColumns().get(DummyColumn.ID), Comparison.LESS_THAN));
+		assertEquals(" WHERE name >= ?", QueryGenerator.whereComparison(new Dummy().getEntityColumns().get(DummyColumn.NAME), Comparison.GREATER_OR_EQUAL));
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#whereBetween(Column)}.
+	 */
+	@Test
+	public void testWhereBetween () {
+		assertEquals(" WHERE id BETWEEN ? AND ?", QueryGenerator.whereBetween(new Dummy().getEntityColumns().get(DummyColumn.ID)));
+	}
+	
 	/**
 	 * Test method for {@link QueryGenerator#searchAll(Entity)}.
 	 */
@@ -277,6 +315,49 @@ public class QueryGeneratorTest {
 		assertEquals("SELECT * FROM Dummy", QueryGenerator.searchAll(new Dummy()));
 	}
 	
+	/**
+	 * Test method for {@link QueryGenerator#searchAll(Entity, java.util.Collection)}.
+	 */
+	@Test
+	public void testSearchAllColumns () {
+		final Dummy dummy = new Dummy();
+		assertEquals("SELECT id FROM Dummy", QueryGenerator.searchAll(dummy,
+				Arrays.asList(dummy.getEntityColumns().get(DummyColumn.ID))));
+		assertEquals("SELECT id, name FROM Dummy", QueryGenerator.searchAll(dummy,
+				Arrays.asList(dummy.getEntityColumns().get(DummyColumn.ID), dummy.getEntityColumns().get(DummyColumn.NAME))));
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#count(Entity)} and
+	 * {@link QueryGenerator#existsPrepared(Entity)}.
+	 */
+	@Test
+	public void testCountExists () {
+		assertEquals("SELECT COUNT(*) FROM Dummy", QueryGenerator.count(new Dummy()));
+		assertEquals("SELECT 1 FROM Dummy WHERE id = ?", QueryGenerator.existsPrepared(new Dummy()));
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#aggregate(Entity, Aggregate, Column, Column)}.
+	 */
+	@Test
+	public void testAggregate () {
+		final Dummy dummy = new Dummy();
+		final Column id = dummy.getEntityColumns().get(DummyColumn.ID);
+		final Column name = dummy.getEntityColumns().get(DummyColumn.NAME);
+		assertEquals("SELECT MAX(id) FROM Dummy", QueryGenerator.aggregate(dummy, Aggregate.MAX, id, null));
+		assertEquals("SELECT name, SUM(id) FROM Dummy GROUP BY name", QueryGenerator.aggregate(dummy, Aggregate.SUM, id, name));
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#searchAll(Entity, java.util.Collection)} without any
+	 * column.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSearchAllNoColumn () {
+		QueryGenerator.searchAll(new Dummy(), new ArrayList<Column>());
+	}
+	
 	/**
 	 * Test method for {@link QueryGenerator#insertPrepared(Entity)}.
 	 */
@@ -298,6 +379,14 @@ public class QueryGeneratorTest {
 		QueryGenerator.insertPrepared(singleColumnEntity);
 	}
 	
+	/**
+	 * Test method for {@link QueryGenerator#idRange(Entity)}.
+	 */
+	@Test
+	public void testIdRange () {
+		assertEquals("SELECT MIN(id), MAX(id) FROM Dummy", QueryGenerator.idRange(new Dummy()));
+	}
+	
 	/**
 	 * Test method for {@link QueryGenerator#updatePrepared(Entity)}.
 	 */
@@ -305,4 +394,56 @@ public class QueryGeneratorTest {
 	public void testUpdatePrepared () {
 		assertEquals("UPDATE Dummy SET name = ? WHERE id = ?", QueryGenerator.updatePrepared(new Dummy()));
 	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#updatePrepared(Entity, java.util.Collection)}.
+	 */
+	@Test
+	public void testUpdatePreparedColumns () {
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		final Column other = new Column(Integer.class, "other");
+		assertEquals("UPDATE Dummy SET name = ? WHERE id = ?",
+				QueryGenerator.updatePrepared(new Dummy(), Arrays.asList(name)));
+		assertEquals("UPDATE Dummy SET other = ?, name = ? WHERE id = ?",
+				QueryGenerator.updatePrepared(new Dummy(), Arrays.asList(other, name)));
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#mergePrepared(Entity)}.
+	 */
+	@Test
+	public void testMergePrepared () {
+		assertEquals("MERGE INTO Dummy(`name`,`id`) KEY(`id`) VALUES (?, ?)",
+				QueryGenerator.mergePrepared(new Dummy()));
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#findAllPrepared(Entity, int)}.
+	 */
+	@Test
+	public void testFindAllPrepared () {
+		assertEquals("SELECT * FROM Dummy WHERE id IN (?)", QueryGenerator.findAllPrepared(new Dummy(), 1));
+		assertEquals("SELECT * FROM Dummy WHERE id IN (?, ?, ?)",
+				QueryGenerator.findAllPrepared(new Dummy(), 3));
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#findAllPrepared(Entity, int)} with an invalid count.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testFindAllPreparedInvalidCount () {
+		QueryGenerator.findAllPrepared(new Dummy(), 0);
+	}
+	
+	/**
+	 * Test method for {@link QueryGenerator#pagePrepared(Entity)} and
+	 * {@link QueryGenerator#pagePrepared(Entity, Column, boolean)}.
+	 */
+	@Test
+	public void testPagePrepared () {
+		assertEquals("SELECT * FROM Dummy WHERE id > ? ORDER BY id LIMIT ?",
+				QueryGenerator.pagePrepared(new Dummy()));
+		assertEquals("SELECT * FROM Dummy WHERE name LIKE ? AND id > ? ORDER BY id LIMIT ?",
+				QueryGenerator.pagePrepared(new Dummy(), Dummy.getColumns().get(DummyColumn.NAME), true));
+	}
 }
@@ -0,0 +1,55 @@
+package com.alexrnl.commons.database.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+import com.alexrnl.commons.database.dao.DataSourceConfiguration;
+import com.alexrnl.commons.error.ExceptionUtils;
+
+/**
+ * Test suite for the {@link SQLDAOFactory} class.
+ * @author Alex
+ */
+public class SQLDAOFactoryTest {
+	/**
+	 * Dummy SQL factory, for test purposes.
+	 * @author Alex
+	 */
+	private static class DummySQLFactory extends SQLDAOFactory {
+		/**
+		 * Constructor #1.<br />
+		 * @param dataSourceConfig
+		 *        the data source configuration.
+		 */
+		private DummySQLFactory (final DataSourceConfiguration dataSourceConfig) {
+			super(dataSourceConfig);
+		}
+	}
+	
+	/**
+	 * Test method for {@link SQLDAOFactory#getConnectionPool()}.
+	 * @throws SQLException
+	 *         if a connection could not be acquired.
+	 */
+	@Test(expected = SQLException.class)
+	public void testGetConnectionPool () throws SQLException {
+		final DataSourceConfiguration dataSourceConfig = new DataSourceConfiguration("jdbc:h2:mem:", "aba", "ldr", null, 3);
+		ConnectionPool pool = null;
+		try (final SQLDAOFactory factory = new DummySQLFactory(dataSourceConfig)) {
+			pool = factory.getConnectionPool();
+			assertEquals(3, pool.getMaxSize());
+			assertSame(pool, factory.getConnectionPool());
+			pool.release(pool.acquire());
+		} catch (final IOException e) {
+			fail(ExceptionUtils.display(e));
+		}
+		// Pool is closed with the factory
+		pool.acquire();
+	}
+}
@@ -12,8 +12,23 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,7 +40,16 @@ import org.junit.Test;
 
 import com.alexrnl.commons.database.Dummy;
 import com.alexrnl.commons.database.Dummy.DummyColumn;
+import com.alexrnl.commons.database.dao.Aggregate;
+import com.alexrnl.commons.database.dao.CachedDAO;
+import com.alexrnl.commons.database.dao.Comparison;
+import com.alexrnl.commons.database.dao.DAOStatistics;
+import com.alexrnl.commons.database.dao.DAOStatistics.Operation;
+import com.alexrnl.commons.database.dao.DataSourceConfiguration;
+import com.alexrnl.commons.database.dao.EntityConsumer;
+import com.alexrnl.commons.database.dao.EntityIterator;
 import com.alexrnl.commons.database.structure.Column;
+import com.alexrnl.commons.database.structure.DirtyTrackable;
 import com.alexrnl.commons.database.structure.Entity;
 import com.alexrnl.commons.error.ExceptionUtils;
 
@@ -38,15 +62,41 @@ public class SQLDAOTest {
 	private static Connection	connection;
 	/** The DAO for the {@link Dummy} class */
 	private DummySQLDAO			dummyDAO;
+	
+	/**
+	 * Dummy entity tracking the columns modified by its setters.
+	 * @author Alex
+	 */
+	public static class TrackedDummy extends Dummy implements DirtyTrackable {
+		/** Serial version UID */
+		private static final long		serialVersionUID	= 1L;
+		
+		/** The columns modified */
+		private final Set<DummyColumn>	dirtyColumns		= EnumSet.noneOf(DummyColumn.class);
+		
+		@Override
+		public void setName (final String name) {
+			super.setName(name);
+			dirtyColumns.add(DummyColumn.NAME);
+		}
+		
+		@Override
+		public Set<DummyColumn> getDirtyColumns () {
+			return dirtyColumns;
+		}
+		
+		@Override
+		public void clearDirtyColumns () {
+			dirtyColumns.clear();
+		}
+	}
 
 	/**
-	 * Create the embedded database and set-up the dummy table.
-	 * @throws SQLException
-	 *         if there was a problem while initializing the database.
+	 * Create the dummy table.
+	 * @param connection
+	 *        the connection to the database.
 	 */
-	@BeforeClass
-	public static void setUpBeforeClass () throws SQLException {
-		connection = DriverManager.getConnection("jdbc:h2:mem:");
+	private static void createDummyTable (final Connection connection) {
 		try (final PreparedStatement createTable = connection.prepareStatement("CREATE TABLE dummy ("
 				+ "id		INT(10) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,"
 				+ "name		VARCHAR_IGNORECASE(60) NOT NULL);")) {
@@ -56,6 +106,17 @@ public class SQLDAOTest {
 		}
 	}
 	
+	/**
+	 * Create the embedded database and set-up the dummy table.
+	 * @throws SQLException
+	 *         if there was a problem while initializing the database.
+	 */
+	@BeforeClass
+	public static void setUpBeforeClass () throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:");
+		createDummyTable(connection);
+	}
+	
 	/**
 	 * Close the database connection, after all tests have been carried out.
 	 * @throws SQLException if there was a problem while closing the database connection.
@@ -109,6 +170,175 @@ public class SQLDAOTest {
 		assertNull(dummyDAO.create(null));
 	}
 	
+	/**
+	 * Test method for {@link SQLDAO#create(Entity)} when the entities are not read back.
+	 * @throws SQLException
+	 *         if the DAO could not be created.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 */
+	@Test
+	public void testCreateWithoutReload () throws SQLException, IOException {
+		final AtomicInteger read = new AtomicInteger();
+		dummyDAO.close();
+		dummyDAO = new DummySQLDAO(connection) {
+			@Override
+			protected Dummy createEntityFromResult (final ResultSet result) throws SQLException {
+				read.incrementAndGet();
+				return super.createEntityFromResult(result);
+			}
+		};
+		assertTrue(dummyDAO.isReloadOnCreate());
+		dummyDAO.create(new Dummy("reloaded"));
+		assertEquals(1, read.get());
+		dummyDAO.setReloadOnCreate(false);
+		assertFalse(dummyDAO.isReloadOnCreate());
+		final Dummy dummy = new Dummy("test");
+		final Dummy newDummy = dummyDAO.create(dummy);
+		
+		// The entity created is not read back
+		assertEquals(1, read.get());
+		assertNotNull(newDummy.getId());
+		assertNull(dummy.getId());
+		assertEquals(dummyDAO.find(newDummy.getId()), newDummy);
+		
+		read.set(0);
+		final List<Dummy> created = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), null,
+				new Dummy("LDR")));
+		assertEquals(0, read.get());
+		assertEquals(2, created.size());
+		assertEquals("ABA", created.get(0).getName());
+		assertEquals("LDR", created.get(1).getName());
+		for (final Dummy createdDummy : created) {
+			assertEquals(dummyDAO.find(createdDummy.getId()), createdDummy);
+		}
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#warmUp()}.
+	 * @throws SQLException
+	 *         if the statements could not be prepared.
+	 */
+	@Test
+	public void testWarmUp () throws SQLException {
+		dummyDAO.warmUp();
+		final Dummy aba = dummyDAO.create(new Dummy("ABA"));
+		assertEquals(aba, dummyDAO.find(aba.getId()));
+	}
+	
+	/**
+	 * Test that the statements are prepared on their first use.
+	 * @throws SQLException
+	 *         if the connection could not be opened.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 */
+	@Test
+	public void testLazyStatements () throws SQLException, IOException {
+		// The table does not exist in this database
+		try (final Connection emptyDatabase = DriverManager.getConnection("jdbc:h2:mem:");
+				final DummySQLDAO lazyDAO = new DummySQLDAO(emptyDatabase)) {
+			assertNull(lazyDAO.find(1));
+			try {
+				lazyDAO.warmUp();
+				fail("Statements should not be prepared on a missing table");
+			} catch (final SQLException e) {
+				// Expected
+			}
+		}
+	}
+	
+	/**
+	 * Test that warming up a decorator warms up the SQL DAO it decorates.
+	 * @throws SQLException
+	 *         if the connection could not be opened.
+	 */
+	@Test
+	public void testWarmUpDecorated () throws SQLException {
+		try (final Connection emptyDatabase = DriverManager.getConnection("jdbc:h2:mem:")) {
+			final CachedDAO<Dummy> cachedDAO = new CachedDAO<>(new DummySQLDAO(emptyDatabase), 10);
+			try {
+				cachedDAO.warmUp();
+				fail("Statements should not be prepared on a missing table");
+			} catch (final Exception e) {
+				assertTrue(e instanceof SQLException);
+			}
+		}
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#getStatistics()}.
+	 */
+	@Test
+	public void testGetStatistics () {
+		final DAOStatistics statistics = dummyDAO.getStatistics();
+		final Dummy aba = dummyDAO.create(new Dummy("ABA"));
+		dummyDAO.find(aba.getId());
+		dummyDAO.find(aba.getId());
+		dummyDAO.search(new Column(String.class, "notHere"), "MAN");
+		
+		assertEquals(1, statistics.get(Operation.CREATE).getCount());
+		assertEquals(2, statistics.get(Operation.FIND).getCount());
+		assertEquals(0, statistics.get(Operation.FIND).getErrorCount());
+		assertEquals(1, statistics.get(Operation.SEARCH).getErrorCount());
+		assertTrue(statistics.get(Operation.FIND).getMaxLatency() > 0);
+	}
+	
+	/**
+	 * Test that the bulk, page and iterate operations are recorded in the statistics.
+	 * @throws IOException
+	 *         if the iterator could not be closed.
+	 */
+	@Test
+	public void testGetStatisticsBulk () throws IOException {
+		final DAOStatistics statistics = dummyDAO.getStatistics();
+		final List<Dummy> dummies = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("LDR")));
+		dummies.get(0).setName("aba");
+		dummyDAO.updateAll(dummies);
+		dummyDAO.saveAll(dummies);
+		dummyDAO.page(0, 10);
+		dummyDAO.page(new Column(String.class, "notHere"), "MAN", 0, 10);
+		try (final EntityIterator<Dummy> iterator = dummyDAO.iterateAll()) {
+			assertTrue(iterator.hasNext());
+		}
+		dummyDAO.deleteAll(dummies);
+		
+		assertEquals(1, statistics.get(Operation.CREATE_ALL).getCount());
+		assertEquals(1, statistics.get(Operation.UPDATE_ALL).getCount());
+		assertEquals(1, statistics.get(Operation.SAVE_ALL).getCount());
+		assertEquals(1, statistics.get(Operation.DELETE_ALL).getCount());
+		assertEquals(2, statistics.get(Operation.PAGE).getCount());
+		assertEquals(1, statistics.get(Operation.PAGE).getErrorCount());
+		assertEquals(1, statistics.get(Operation.ITERATE).getCount());
+		assertEquals(0, statistics.get(Operation.CREATE).getCount());
+	}
+	
+	/**
+	 * Test the default mapping of the entities, when the DAO does not map them by hand.
+	 * @throws SQLException
+	 *         if the DAO could not be created.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 */
+	@Test
+	public void testDefaultMapping () throws SQLException, IOException {
+		final Dummy sample = new Dummy();
+		try (final SQLDAO<Dummy> mappedDAO = new SQLDAO<Dummy>(connection) {
+			@Override
+			protected Dummy getEntitySample () {
+				return sample;
+			}
+		}) {
+			final Dummy aba = mappedDAO.create(new Dummy("ABA"));
+			assertEquals("ABA", aba.getName());
+			assertEquals(aba, dummyDAO.find(aba.getId()));
+			aba.setName("aba");
+			assertTrue(mappedDAO.update(aba));
+			assertEquals(aba, mappedDAO.find(aba.getId()));
+			assertEquals(1, mappedDAO.retrieveAll().size());
+		}
+	}
+	
 	/**
 	 * Test method for {@link SQLDAO#find(int)}.
 	 */
@@ -138,6 +368,30 @@ public class SQLDAOTest {
 		assertFalse(dummyDAO.update(null));
 	}
 	
+	/**
+	 * Test method for {@link SQLDAO#save(Entity)}.
+	 */
+	@Test
+	public void testSave () {
+		final Dummy aba = dummyDAO.create(new Dummy("ABA"));
+		aba.setName("aba");
+		assertTrue(dummyDAO.save(aba));
+		assertEquals(aba, dummyDAO.find(aba.getId()));
+		
+		final Dummy ldr = new Dummy(1000000);
+		ldr.setName("LDR");
+		assertTrue(dummyDAO.save(ldr));
+		assertEquals(ldr, dummyDAO.find(ldr.getId()));
+		assertEquals(2, dummyDAO.retrieveAll().size());
+		assertEquals(2, dummyDAO.getStatistics().get(Operation.SAVE).getCount());
+		
+		assertFalse(dummyDAO.save(null));
+		// Name column cannot be null
+		ldr.setName(null);
+		assertFalse(dummyDAO.save(ldr));
+		assertEquals(1, dummyDAO.getStatistics().get(Operation.SAVE).getErrorCount());
+	}
+	
 	/**
 	 * Test method for {@link SQLDAO#delete(Entity)}.
 	 */
@@ -153,6 +407,102 @@ public class SQLDAOTest {
 		assertTrue(dummyDAO.delete(null));
 	}
 	
+	/**
+	 * Test method for {@link SQLDAO#setBatchSize(int)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetBatchSizeInvalid () {
+		dummyDAO.setBatchSize(0);
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#createAll(Collection)}.
+	 */
+	@Test
+	public void testCreateAll () {
+		assertEquals(SQLDAO.DEFAULT_BATCH_SIZE, dummyDAO.getBatchSize());
+		dummyDAO.setBatchSize(2);
+		assertEquals(2, dummyDAO.getBatchSize());
+		final List<Dummy> created = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), null,
+				new Dummy("LDR"), new Dummy("123"), new Dummy("A2E"), new Dummy("AXE")));
+		
+		assertEquals(5, created.size());
+		assertEquals(5, dummyDAO.retrieveAll().size());
+		assertEquals("ABA", created.get(0).getName());
+		assertEquals("LDR", created.get(1).getName());
+		assertEquals("AXE", created.get(4).getName());
+		for (final Dummy dummy : created) {
+			assertEquals(dummy, dummyDAO.find(dummy.getId()));
+		}
+		
+		assertTrue(dummyDAO.createAll(new ArrayList<Dummy>()).isEmpty());
+		assertNull(dummyDAO.createAll(null));
+		// Name column cannot be null
+		assertNull(dummyDAO.createAll(Arrays.asList(new Dummy("BLO"), new Dummy((String) null))));
+		assertEquals(5, dummyDAO.retrieveAll().size());
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#updateAll(Collection)}.
+	 */
+	@Test
+	public void testUpdateAll () {
+		dummyDAO.setBatchSize(2);
+		final List<Dummy> created = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"),
+				new Dummy("LDR"), new Dummy("123")));
+		for (final Dummy dummy : created) {
+			dummy.setName(dummy.getName() + "-up");
+		}
+		assertTrue(dummyDAO.updateAll(created));
+		for (final Dummy dummy : created) {
+			assertEquals(dummy, dummyDAO.find(dummy.getId()));
+		}
+		
+		assertFalse(dummyDAO.updateAll(null));
+		created.get(1).setName(null);
+		assertFalse(dummyDAO.updateAll(created));
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#saveAll(Collection)}.
+	 */
+	@Test
+	public void testSaveAll () {
+		dummyDAO.setBatchSize(2);
+		final List<Dummy> dummies = new ArrayList<>(dummyDAO.createAll(Arrays.asList(new Dummy("ABA"),
+				new Dummy("LDR"))));
+		dummies.get(0).setName("aba");
+		for (int id = 1000001; id <= 1000003; ++id) {
+			final Dummy dummy = new Dummy(id);
+			dummy.setName("D" + id);
+			dummies.add(dummy);
+		}
+		// Saving twice is idempotent
+		assertTrue(dummyDAO.saveAll(dummies));
+		assertTrue(dummyDAO.saveAll(dummies));
+		assertEquals(new HashSet<>(dummies), dummyDAO.retrieveAll());
+		
+		assertFalse(dummyDAO.saveAll(null));
+		dummies.get(3).setName(null);
+		assertFalse(dummyDAO.saveAll(dummies));
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#deleteAll(Collection)}.
+	 */
+	@Test
+	public void testDeleteAll () {
+		dummyDAO.setBatchSize(2);
+		final List<Dummy> created = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"),
+				new Dummy("LDR"), new Dummy("123")));
+		assertEquals(3, dummyDAO.retrieveAll().size());
+		assertTrue(dummyDAO.deleteAll(created.subList(0, 2)));
+		assertEquals(1, dummyDAO.retrieveAll().size());
+		assertEquals(created.get(2), dummyDAO.find(created.get(2).getId()));
+		
+		assertTrue(dummyDAO.deleteAll(null));
+	}
+	
 	/**
 	 * Test method for {@link SQLDAO#retrieveAll()}.
 	 */
@@ -197,6 +547,563 @@ public class SQLDAOTest {
 		assertTrue(dummyDAO.search(new Column(String.class, "notHere"), "MAN").isEmpty());
 	}
 	
+	/**
+	 * Test method for {@link SQLDAO#searchEqual(Column, Object)},
+	 * {@link SQLDAO#search(Column, Comparison, Object)} and
+	 * {@link SQLDAO#searchBetween(Column, Object, Object)}.
+	 */
+	@Test
+	public void testTypedSearch () {
+		final Column id = Dummy.getColumns().get(DummyColumn.ID);
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		final List<Dummy> dummies = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("A%"),
+				new Dummy("LDR"), new Dummy("BLO")));
+		final int firstId = dummies.get(0).getId();
+		
+		assertEquals(new HashSet<>(dummies.subList(1, 2)), dummyDAO.searchEqual(id, firstId + 1));
+		assertEquals(new HashSet<>(dummies.subList(1, 2)), dummyDAO.searchEqual(name, "A%"));
+		assertEquals(new HashSet<>(dummies.subList(0, 2)), dummyDAO.search(id, Comparison.LESS_THAN, firstId + 2));
+		assertEquals(new HashSet<>(dummies.subList(0, 3)), dummyDAO.search(id, Comparison.LESS_OR_EQUAL, firstId + 2));
+		assertEquals(new HashSet<>(dummies.subList(3, 4)), dummyDAO.search(id, Comparison.GREATER_THAN, firstId + 2));
+		assertEquals(new HashSet<>(dummies.subList(2, 4)), dummyDAO.search(id, Comparison.GREATER_OR_EQUAL, firstId + 2));
+		assertEquals(new HashSet<>(dummies.subList(1, 3)), dummyDAO.searchBetween(id, firstId + 1, firstId + 2));
+		assertEquals(new HashSet<>(dummies.subList(0, 2)), dummyDAO.searchBetween(name, "A", "AZ"));
+		
+		final Set<Dummy> allDummies = dummyDAO.retrieveAll();
+		assertEquals(allDummies, dummyDAO.search(id, Comparison.EQUAL, null));
+		assertEquals(allDummies, dummyDAO.searchBetween(null, 1, 2));
+		assertTrue(dummyDAO.search(new Column(Integer.class, "notHere"), Comparison.EQUAL, 1).isEmpty());
+		assertTrue(dummyDAO.searchBetween(new Column(Integer.class, "notHere"), 1, 2).isEmpty());
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#search(Column, Comparison, Object)} with a value which is not
+	 * of the type of the column.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypedSearchInvalidValue () {
+		dummyDAO.search(Dummy.getColumns().get(DummyColumn.ID), Comparison.EQUAL, "1");
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#count()} and {@link SQLDAO#count(Column, String)}.
+	 */
+	@Test
+	public void testCount () {
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		assertEquals(0, dummyDAO.count());
+		dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("LDR"), new Dummy("A2E")));
+		assertEquals(3, dummyDAO.count());
+		assertEquals(2, dummyDAO.count(name, "A%"));
+		assertEquals(1, dummyDAO.count(name, "LDR"));
+		assertEquals(0, dummyDAO.count(name, "XYZ"));
+		assertEquals(3, dummyDAO.count(name, null));
+		assertEquals(-1, dummyDAO.count(new Column(String.class, "notHere"), "A%"));
+		assertEquals(7, dummyDAO.getStatistics().get(Operation.COUNT).getCount());
+		assertEquals(1, dummyDAO.getStatistics().get(Operation.COUNT).getErrorCount());
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#exists(int)}.
+	 */
+	@Test
+	public void testExists () {
+		final Dummy dummy = dummyDAO.create(new Dummy("ABA"));
+		assertTrue(dummyDAO.exists(dummy.getId()));
+		assertFalse(dummyDAO.exists(dummy.getId() + 1));
+		assertTrue(dummyDAO.delete(dummy));
+		assertFalse(dummyDAO.exists(dummy.getId()));
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#aggregate(Aggregate, Column, Column)}.
+	 */
+	@Test
+	public void testAggregate () {
+		final Column id = Dummy.getColumns().get(DummyColumn.ID);
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		final List<Dummy> dummies = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("LDR"),
+				new Dummy("ABA")));
+		final int firstId = dummies.get(0).getId();
+		
+		assertEquals(firstId, dummyDAO.aggregate(Aggregate.MIN, id, null).get(null));
+		assertEquals(firstId + 2, dummyDAO.aggregate(Aggregate.MAX, id, null).get(null));
+		assertEquals("LDR", dummyDAO.aggregate(Aggregate.MAX, name, null).get(null));
+		
+		final Map<Object, Object> sums = dummyDAO.aggregate(Aggregate.SUM, id, name);
+		assertEquals(2, sums.size());
+		assertEquals(2L * firstId + 2, ((Number) sums.get("ABA")).longValue());
+		assertEquals(firstId + 1L, ((Number) sums.get("LDR")).longValue());
+		final Map<Object, Object> max = dummyDAO.aggregate(Aggregate.MAX, id, name);
+		assertEquals(firstId + 2, max.get("ABA"));
+		
+		assertNull(dummyDAO.aggregate(null, id, null));
+		assertNull(dummyDAO.aggregate(Aggregate.SUM, id, new Column(String.class, "notHere")));
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#project(Collection)} and
+	 * {@link SQLDAO#project(Column, String, Collection)}.
+	 */
+	@Test
+	public void testProject () {
+		final Column id = Dummy.getColumns().get(DummyColumn.ID);
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		final List<Dummy> dummies = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("LDR"),
+				new Dummy("A2E")));
+		
+		final Set<Dummy> ids = dummyDAO.project(new ArrayList<Column>());
+		assertEquals(3, ids.size());
+		for (final Dummy dummy : ids) {
+			assertNotNull(dummy.getId());
+			assertNull(dummy.getName());
+		}
+		assertEquals(new HashSet<>(dummies), dummyDAO.project(Arrays.asList(name)));
+		assertEquals(new HashSet<>(dummies), dummyDAO.project(Arrays.asList(id, name)));
+		assertEquals(dummyDAO.retrieveAll(), dummyDAO.project(null));
+		
+		final Set<Dummy> found = dummyDAO.project(name, "A%", Arrays.asList(id));
+		assertEquals(2, found.size());
+		for (final Dummy dummy : found) {
+			assertNull(dummy.getName());
+		}
+		assertEquals(new HashSet<>(dummies.subList(0, 1)), dummyDAO.project(name, "ABA", Arrays.asList(name)));
+		assertEquals(dummyDAO.search(name, "A%"), dummyDAO.project(name, "A%", null));
+		
+		// Test with column which is not defined
+		assertTrue(dummyDAO.project(Arrays.asList(new Column(String.class, "notHere"))).isEmpty());
+		assertTrue(dummyDAO.project(new Column(String.class, "notHere"), "A%", Arrays.asList(name)).isEmpty());
+		assertEquals(2, dummyDAO.getStatistics().get(Operation.PROJECT).getErrorCount());
+	}
+	
+	/**
+	 * Test the updates of the {@link DirtyTrackable} entities.
+	 * @throws SQLException
+	 *         if the DAO could not be created.
+	 * @throws IOException
+	 *         if the DAO could not be closed.
+	 */
+	@Test
+	public void testDirtyTracking () throws SQLException, IOException {
+		try (final SQLDAO<TrackedDummy> trackedDAO = new SQLDAO<TrackedDummy>(connection) {
+			@Override
+			protected TrackedDummy getEntitySample () {
+				return new TrackedDummy();
+			}
+		}) {
+			final TrackedDummy aba = new TrackedDummy();
+			aba.setName("ABA");
+			final TrackedDummy created = trackedDAO.create(aba);
+			assertTrue(created.getDirtyColumns().isEmpty());
+			
+			// Modify the row behind the DAO: an update without dirty column must not overwrite it
+			try (final PreparedStatement rename = connection.prepareStatement("UPDATE dummy SET name = 'LDR' WHERE id = ?")) {
+				rename.setInt(1, created.getId());
+				rename.executeUpdate();
+			}
+			assertTrue(trackedDAO.update(created));
+			final TrackedDummy found = trackedDAO.find(created.getId());
+			assertEquals("LDR", found.getName());
+			assertTrue(found.getDirtyColumns().isEmpty());
+			assertEquals(0, trackedDAO.getStatistics().get(Operation.UPDATE).getCount());
+			
+			created.setName("aba");
+			assertEquals(1, created.getDirtyColumns().size());
+			assertTrue(trackedDAO.update(created));
+			assertTrue(created.getDirtyColumns().isEmpty());
+			assertEquals("aba", trackedDAO.find(created.getId()).getName());
+			assertEquals(1, trackedDAO.getStatistics().get(Operation.UPDATE).getCount());
+			
+			// Batch update: only the dirty entities are written
+			final TrackedDummy a2e = new TrackedDummy();
+			a2e.setName("A2E");
+			final TrackedDummy clean = trackedDAO.create(a2e);
+			try (final PreparedStatement rename = connection.prepareStatement("UPDATE dummy SET name = 'XYZ' WHERE id = ?")) {
+				rename.setInt(1, clean.getId());
+				rename.executeUpdate();
+			}
+			created.setName("ABA");
+			assertTrue(trackedDAO.updateAll(Arrays.asList(created, clean, null)));
+			assertTrue(created.getDirtyColumns().isEmpty());
+			assertEquals("ABA", trackedDAO.find(created.getId()).getName());
+			assertEquals("XYZ", trackedDAO.find(clean.getId()).getName());
+			
+			// Name column cannot be null, the entity stays dirty
+			created.setName(null);
+			assertFalse(trackedDAO.update(created));
+			assertEquals(1, created.getDirtyColumns().size());
+		}
+		
+		// A DAO overriding the update filler only always writes all the columns with it
+		final AtomicInteger filled = new AtomicInteger();
+		try (final SQLDAO<TrackedDummy> trackedDAO = new SQLDAO<TrackedDummy>(connection) {
+			@Override
+			protected TrackedDummy getEntitySample () {
+				return new TrackedDummy();
+			}
+			
+			@Override
+			protected void fillUpdateStatement (final PreparedStatement statement, final TrackedDummy obj)
+					throws SQLException {
+				filled.incrementAndGet();
+				super.fillUpdateStatement(statement, obj);
+			}
+		}) {
+			final TrackedDummy aba = new TrackedDummy();
+			aba.setName("ABA");
+			final TrackedDummy created = trackedDAO.create(aba);
+			created.setName("LDR");
+			assertTrue(trackedDAO.update(created));
+			assertTrue(trackedDAO.updateAll(Arrays.asList(created)));
+			assertEquals(2, filled.get());
+			assertEquals("LDR", trackedDAO.find(created.getId()).getName());
+		}
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#enablePrefixIndex(Column, boolean)}.
+	 * @throws SQLException
+	 *         if the index could not be built.
+	 */
+	@Test
+	public void testPrefixIndex () throws SQLException {
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		dummyDAO.create(new Dummy("ABA"));
+		dummyDAO.create(new Dummy("LDR"));
+		dummyDAO.create(new Dummy("A2E"));
+		dummyDAO.create(new Dummy("BLO"));
+		dummyDAO.enablePrefixIndex(name, true);
+		assertEquals(dummyDAO.retrieveAll(), dummyDAO.search(name, "%"));
+		assertEquals(2, dummyDAO.search(name, "A%").size());
+		assertEquals(2, dummyDAO.search(name, "a%").size());
+		assertEquals(1, dummyDAO.search(name, "ab%").size());
+		
+		// The write operations keep the index current
+		final Dummy axe = dummyDAO.create(new Dummy("AXE"));
+		assertEquals(3, dummyDAO.search(name, "A%").size());
+		axe.setName("BXE");
+		assertTrue(dummyDAO.update(axe));
+		assertEquals(2, dummyDAO.search(name, "A%").size());
+		assertTrue(dummyDAO.search(name, "B%").contains(axe));
+		assertTrue(dummyDAO.delete(axe));
+		assertEquals(1, dummyDAO.search(name, "B%").size());
+		assertEquals(2, dummyDAO.createAll(Arrays.asList(new Dummy("ALF"), new Dummy("ANT"))).size());
+		assertEquals(4, dummyDAO.search(name, "A%").size());
+		
+		// The prefix searches do not query the database, the other searches do
+		try (final PreparedStatement insert = connection.prepareStatement("INSERT INTO dummy (name) VALUES ('AZZ')")) {
+			insert.executeUpdate();
+		}
+		assertEquals(4, dummyDAO.search(name, "A%").size());
+		assertEquals(1, dummyDAO.search(name, "AZ_").size());
+		assertEquals(1, dummyDAO.search(name, "AZZ").size());
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#enablePrefixIndex(Column, boolean)} with a column which is
+	 * not a {@link String}.
+	 * @throws SQLException
+	 *         if the index could not be built.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testPrefixIndexNotStringColumn () throws SQLException {
+		dummyDAO.enablePrefixIndex(Dummy.getColumns().get(DummyColumn.ID), false);
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#findAll(Collection)}.
+	 */
+	@Test
+	public void testFindAll () {
+		final List<Dummy> dummies = new ArrayList<>();
+		for (int index = 0; index < 300; ++index) {
+			dummies.add(new Dummy("D" + index));
+		}
+		final List<Dummy> created = dummyDAO.createAll(dummies);
+		
+		// Single chunk, padded, with duplicates, unknown and null ids
+		final Map<Integer, Dummy> some = dummyDAO.findAll(Arrays.asList(created.get(5).getId(),
+				created.get(2).getId(), -1, created.get(5).getId(), null));
+		assertEquals(2, some.size());
+		assertEquals(Arrays.asList(created.get(5).getId(), created.get(2).getId()),
+				new ArrayList<>(some.keySet()));
+		assertEquals(created.get(2), some.get(created.get(2).getId()));
+		
+		// Several chunks
+		final List<Integer> ids = new ArrayList<>();
+		for (final Dummy dummy : created) {
+			ids.add(dummy.getId());
+		}
+		final Map<Integer, Dummy> all = dummyDAO.findAll(ids);
+		assertEquals(300, all.size());
+		assertEquals(created, new ArrayList<>(all.values()));
+		
+		assertTrue(dummyDAO.findAll(new ArrayList<Integer>()).isEmpty());
+		assertNull(dummyDAO.findAll(null));
+		assertEquals(3, dummyDAO.getStatistics().get(Operation.FIND_ALL).getCount());
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#page(int, int)}.
+	 */
+	@Test
+	public void testPage () {
+		final List<Dummy> created = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"),
+				new Dummy("LDR"), new Dummy("123"), new Dummy("A2E"), new Dummy("AXE")));
+		
+		final List<Dummy> first = dummyDAO.page(0, 2);
+		assertEquals(created.subList(0, 2), first);
+		final List<Dummy> second = dummyDAO.page(first.get(1).getId(), 2);
+		assertEquals(created.subList(2, 4), second);
+		assertEquals(created.subList(4, 5), dummyDAO.page(second.get(1).getId(), 2));
+		assertTrue(dummyDAO.page(created.get(4).getId(), 2).isEmpty());
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#page(int, int)} with an invalid limit.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testPageInvalidLimit () {
+		dummyDAO.page(0, 0);
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#page(Column, String, int, int)}.
+	 */
+	@Test
+	public void testPageSearch () {
+		final List<Dummy> created = dummyDAO.createAll(Arrays.asList(new Dummy("ABA"),
+				new Dummy("LDR"), new Dummy("123"), new Dummy("A2E"), new Dummy("AXE")));
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		
+		final List<Dummy> first = dummyDAO.page(name, "A%", 0, 2);
+		assertEquals(Arrays.asList(created.get(0), created.get(3)), first);
+		assertEquals(Arrays.asList(created.get(4)), dummyDAO.page(name, "A%", first.get(1).getId(), 2));
+		assertEquals(dummyDAO.page(0, 3), dummyDAO.page(name, null, 0, 3));
+		assertTrue(dummyDAO.page(new Column(String.class, "notHere"), "MAN", 0, 2).isEmpty());
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#setFetchSize(int)}.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetFetchSizeInvalid () {
+		dummyDAO.setFetchSize(-1);
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#iterateAll()}.
+	 * @throws IOException
+	 *         if the iterator could not be closed.
+	 */
+	@Test
+	public void testIterateAll () throws IOException {
+		assertEquals(SQLDAO.DEFAULT_FETCH_SIZE, dummyDAO.getFetchSize());
+		dummyDAO.setFetchSize(2);
+		assertEquals(2, dummyDAO.getFetchSize());
+		dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("LDR"), new Dummy("123"),
+				new Dummy("A2E"), new Dummy("AXE")));
+		
+		final Set<Dummy> iterated = new HashSet<>();
+		try (final EntityIterator<Dummy> iterator = dummyDAO.iterateAll()) {
+			while (iterator.hasNext()) {
+				assertTrue(iterator.hasNext());
+				iterated.add(iterator.next());
+			}
+		}
+		assertEquals(dummyDAO.retrieveAll(), iterated);
+		
+		// Stop before the end
+		try (final EntityIterator<Dummy> iterator = dummyDAO.iterateAll()) {
+			assertNotNull(iterator.next());
+		}
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#iterateAll()} once the iteration is over.
+	 * @throws IOException
+	 *         if the iterator could not be closed.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testIterateAllNoMoreElement () throws IOException {
+		try (final EntityIterator<Dummy> iterator = dummyDAO.iterateAll()) {
+			iterator.next();
+		}
+	}
+	
+	/**
+	 * Test method for {@link EntityIterator#remove()}.
+	 * @throws IOException
+	 *         if the iterator could not be closed.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testIteratorRemove () throws IOException {
+		dummyDAO.create(new Dummy("ABA"));
+		try (final EntityIterator<Dummy> iterator = dummyDAO.iterateAll()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#iterateSearch(Column, String)}.
+	 * @throws IOException
+	 *         if the iterator could not be closed.
+	 */
+	@Test
+	public void testIterateSearch () throws IOException {
+		dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("LDR"), new Dummy("123"),
+				new Dummy("A2E"), new Dummy("AXE")));
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		
+		final Set<Dummy> iterated = new HashSet<>();
+		try (final EntityIterator<Dummy> iterator = dummyDAO.iterateSearch(name, "A%")) {
+			while (iterator.hasNext()) {
+				iterated.add(iterator.next());
+			}
+		}
+		assertEquals(dummyDAO.search(name, "A%"), iterated);
+		
+		iterated.clear();
+		try (final EntityIterator<Dummy> iterator = dummyDAO.iterateSearch(null, "A%")) {
+			while (iterator.hasNext()) {
+				iterated.add(iterator.next());
+			}
+		}
+		assertEquals(5, iterated.size());
+		
+		try (final EntityIterator<Dummy> iterator = dummyDAO.iterateSearch(new Column(String.class, "notHere"), "A")) {
+			assertFalse(iterator.hasNext());
+		}
+	}
+	
+	/**
+	 * Test the use of a DAO built on a {@link ConnectionPool} by several threads.
+	 * @throws Exception
+	 *         if an operation failed.
+	 */
+	@Test
+	public void testConcurrentAccessWithPool () throws Exception {
+		Logger.getLogger(SQLDAO.class.getName()).setLevel(Level.INFO);
+		final int nbThreads = 4;
+		final ConnectionPool pool = new ConnectionPool(new DataSourceConfiguration(
+				"jdbc:h2:mem:sqlDaoPool", "", "", null, nbThreads));
+		final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		final Connection poolConnection = pool.acquire();
+		createDummyTable(poolConnection);
+		pool.release(poolConnection);
+		
+		try (final DummySQLDAO pooledDAO = new DummySQLDAO(pool)) {
+			final List<Future<Integer>> results = new ArrayList<>();
+			for (int thread = 0; thread < nbThreads; ++thread) {
+				final String prefix = "T" + thread + "-";
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call () {
+						int found = 0;
+						for (int i = 0; i < 50; ++i) {
+							final Dummy created = pooledDAO.create(new Dummy(prefix + i));
+							if (created != null && created.equals(pooledDAO.find(created.getId()))) {
+								++found;
+							}
+						}
+						return found + pooledDAO.search(Dummy.getColumns().get(DummyColumn.NAME), prefix + "%").size();
+					}
+				}));
+			}
+			for (final Future<Integer> result : results) {
+				assertEquals(Integer.valueOf(100), result.get());
+			}
+			assertEquals(nbThreads * 50, pooledDAO.retrieveAll().size());
+		} finally {
+			executor.shutdown();
+			pool.close();
+		}
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#enableSearchCache(int, boolean)}.
+	 * @throws SQLException
+	 *         if the table could not be modified.
+	 */
+	@Test
+	public void testSearchCache () throws SQLException {
+		final Column name = Dummy.getColumns().get(DummyColumn.NAME);
+		assertNull(dummyDAO.getSearchCache());
+		dummyDAO.enableSearchCache(100, false);
+		dummyDAO.createAll(Arrays.asList(new Dummy("ABA"), new Dummy("LDR"), new Dummy("A2E")));
+		assertEquals(2, dummyDAO.search(name, "A%").size());
+		
+		// Modify the table behind the DAO: the search is served by the cache
+		try (final PreparedStatement rename = connection.prepareStatement("UPDATE dummy SET name = 'AXE' WHERE name = 'LDR'")) {
+			rename.executeUpdate();
+		}
+		assertEquals(2, dummyDAO.search(name, "A%").size());
+		assertEquals(1, dummyDAO.getSearchCache().getHitCount());
+		assertEquals(2, dummyDAO.getSearchCache().getEntityCount());
+		
+		// The write operations of the DAO invalidate the cache
+		final Dummy alf = dummyDAO.create(new Dummy("ALF"));
+		assertEquals(4, dummyDAO.search(name, "A%").size());
+		assertTrue(dummyDAO.delete(alf));
+		assertEquals(3, dummyDAO.search(name, "A%").size());
+		assertEquals(0.25, dummyDAO.getSearchCache().getHitRatio(), 0.0);
+		assertEquals(3, dummyDAO.getStatistics().get(Operation.SEARCH).getCount());
+		assertEquals(1, dummyDAO.getStatistics().get(Operation.SEARCH_MEMORY).getCount());
+		
+		dummyDAO.disableSearchCache();
+		assertNull(dummyDAO.getSearchCache());
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#scanAll(ExecutorService, int, EntityConsumer)}.
+	 */
+	@Test
+	public void testScanAll () {
+		final ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			final Set<Dummy> scanned = Collections.synchronizedSet(new HashSet<Dummy>());
+			final EntityConsumer<Dummy> consumer = new EntityConsumer<Dummy>() {
+				@Override
+				public void accept (final Dummy entity) {
+					scanned.add(entity);
+				}
+			};
+			assertEquals(0, dummyDAO.scanAll(executor, 3, consumer));
+			
+			final List<Dummy> dummies = new ArrayList<>();
+			for (int i = 0; i < 50; ++i) {
+				dummies.add(new Dummy("D" + i));
+			}
+			dummyDAO.createAll(dummies);
+			for (final int partitions : new int[] { 1, 3, 7, 100 }) {
+				scanned.clear();
+				assertEquals(50, dummyDAO.scanAll(executor, partitions, consumer));
+				assertEquals(dummyDAO.retrieveAll(), scanned);
+			}
+			assertEquals(5, dummyDAO.getStatistics().get(Operation.SCAN_ALL).getCount());
+			
+			assertEquals(-1, dummyDAO.scanAll(executor, 4, new EntityConsumer<Dummy>() {
+				@Override
+				public void accept (final Dummy entity) {
+					throw new IllegalStateException("Consumer failed on " + entity);
+				}
+			}));
+			assertEquals(1, dummyDAO.getStatistics().get(Operation.SCAN_ALL).getErrorCount());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Test method for {@link SQLDAO#scanAll(ExecutorService, int, EntityConsumer)} with an invalid
+	 * number of partitions.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testScanAllInvalidPartitions () {
+		dummyDAO.scanAll(null, 0, null);
+	}
+	
 	/**
 	 * Test case when logs are disabled on the class.
 	 */
@@ -211,5 +1118,6 @@ public class SQLDAOTest {
 		dummyDAO.delete(lau);
 		dummyDAO.retrieveAll();
 		dummyDAO.search(Dummy.getColumns().get(DummyColumn.NAME), "x");
+		dummyDAO.deleteAll(dummyDAO.createAll(Arrays.asList(new Dummy("LAU"))));
 	}
 }
@@ -9,6 +9,8 @@ import org.junit.runners.Suite.SuiteClasses;
  * @author Alex
  */
 @RunWith(Suite.class)
-@SuiteClasses({ SQLDAOTest.class, QueryGeneratorTest.class })
+@SuiteClasses({ SQLDAOTest.class, QueryGeneratorTest.class, ConnectionPoolTest.class,
+		EntityQueriesTest.class, EntityMapperTest.class, PrefixIndexTest.class, SearchCacheTest.class,
+		SQLDAOFactoryTest.class })
 public class SQLTests {
 }
@@ -0,0 +1,178 @@
+package com.alexrnl.commons.database.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alexrnl.commons.database.Dummy;
+import com.alexrnl.commons.database.Dummy.DummyColumn;
+import com.alexrnl.commons.database.structure.Column;
+
+/**
+ * Test suite for the {@link SearchCache} class.
+ * @author Alex
+ */
+public class SearchCacheTest {
+	/** The id column */
+	private Column				id;
+	/** The name column */
+	private Column				name;
+	/** The cache, cleared on any modification */
+	private SearchCache<Dummy>	cache;
+	/** The cache, invalidated per column */
+	private SearchCache<Dummy>	perColumnCache;
+	
+	/**
+	 * Build a dummy entity.
+	 * @param id
+	 *        the id of the dummy.
+	 * @param name
+	 *        the name of the dummy.
+	 * @return the dummy.
+	 */
+	private static Dummy dummy (final int id, final String name) {
+		final Dummy dummy = new Dummy(id);
+		dummy.setName(name);
+		return dummy;
+	}
+	
+	/**
+	 * Build a set of dummies.
+	 * @param dummies
+	 *        the dummies.
+	 * @return the set.
+	 */
+	private static Set<Dummy> set (final Dummy... dummies) {
+		return new HashSet<>(Arrays.asList(dummies));
+	}
+	
+	/**
+	 * Set up the caches.
+	 */
+	@Before
+	public void setUp () {
+		id = Dummy.getColumns().get(DummyColumn.ID);
+		name = Dummy.getColumns().get(DummyColumn.NAME);
+		cache = new SearchCache<>(5, false);
+		perColumnCache = new SearchCache<>(5, true);
+		for (final SearchCache<Dummy> searchCache : Arrays.asList(cache, perColumnCache)) {
+			searchCache.put(name, "A%", set(dummy(1, "ABA"), dummy(2, "ALF")), 0);
+			searchCache.put(name, "L%", set(dummy(3, "LDR")), 0);
+			searchCache.put(id, "4", set(dummy(4, "BLO")), 0);
+		}
+	}
+	
+	/**
+	 * Test method for {@link SearchCache#SearchCache(int, boolean)} with an invalid size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize () {
+		new SearchCache<Dummy>(0, false);
+	}
+	
+	/**
+	 * Test method for {@link SearchCache#get(Column, String)} and the hit ratio.
+	 */
+	@Test
+	public void testGet () {
+		assertEquals(0.0, cache.getHitRatio(), 0.0);
+		assertEquals(set(dummy(1, "ABA"), dummy(2, "ALF")), cache.get(name, "A%"));
+		assertNull(cache.get(name, "a%"));
+		assertNull(cache.get(id, "A%"));
+		assertEquals(1, cache.get(id, "4").size());
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0.5, cache.getHitRatio(), 0.0);
+		assertEquals(3, cache.getSize());
+		assertEquals(4, cache.getEntityCount());
+		assertEquals(5, cache.getMaxEntities());
+		assertFalse(cache.isPerColumn());
+	}
+	
+	/**
+	 * Test that the cache stores and returns copies of the entities.
+	 */
+	@Test
+	public void testCopies () {
+		final Dummy dummy = dummy(6, "CAT");
+		cache.put(name, "C%", set(dummy), cache.getVersion());
+		dummy.setName("DOG");
+		final Dummy copy = cache.get(name, "C%").iterator().next();
+		assertEquals("CAT", copy.getName());
+		copy.setName("DOG");
+		assertEquals("CAT", cache.get(name, "C%").iterator().next().getName());
+	}
+	
+	/**
+	 * Test the eviction of the least recently used results.
+	 */
+	@Test
+	public void testEviction () {
+		// Access the first result so the second one is the least recently used
+		assertNotNull(cache.get(name, "A%"));
+		cache.put(name, "B%", set(dummy(4, "BLO"), dummy(5, "BOB")), cache.getVersion());
+		assertEquals(1, cache.getEvictionCount());
+		assertNull(cache.get(name, "L%"));
+		assertNotNull(cache.get(name, "A%"));
+		assertEquals(5, cache.getEntityCount());
+		
+		// Empty results count as one entity
+		cache.put(name, "Z%", new HashSet<Dummy>(), cache.getVersion());
+		assertEquals(2, cache.getEvictionCount());
+		assertTrue(cache.get(name, "Z%").isEmpty());
+		
+		// Results larger than the cache are not cached
+		cache.put(name, "%", set(dummy(1, "ABA"), dummy(2, "ALF"), dummy(3, "LDR"), dummy(4, "BLO"),
+				dummy(5, "BOB"), dummy(6, "CAT")), cache.getVersion());
+		assertNull(cache.get(name, "%"));
+	}
+	
+	/**
+	 * Test that the results of a search started before an invalidation are not cached.
+	 */
+	@Test
+	public void testStaleVersion () {
+		final long version = cache.getVersion();
+		cache.clear();
+		assertEquals(0, cache.getSize());
+		assertEquals(0, cache.getEntityCount());
+		cache.put(name, "A%", set(dummy(1, "ABA")), version);
+		assertNull(cache.get(name, "A%"));
+		assertEquals(1, cache.getInvalidationCount());
+	}
+	
+	/**
+	 * Test method for {@link SearchCache#invalidate(com.alexrnl.commons.database.structure.Entity, java.util.Collection)}.
+	 */
+	@Test
+	public void testInvalidate () {
+		cache.invalidate(dummy(3, "LDR"), Collections.<Column> emptyList());
+		assertEquals(0, cache.getSize());
+		
+		// Only the results on the column and the results which contain the entity are removed
+		perColumnCache.invalidate(dummy(4, "BLO"), Arrays.asList(name));
+		assertNull(perColumnCache.get(name, "A%"));
+		assertNull(perColumnCache.get(id, "4"));
+		
+		perColumnCache.put(name, "A%", set(dummy(1, "ABA"), dummy(2, "ALF")), perColumnCache.getVersion());
+		perColumnCache.put(id, "4", set(dummy(4, "BLO")), perColumnCache.getVersion());
+		perColumnCache.invalidate(dummy(2, "ALF"), Collections.<Column> emptyList());
+		assertNull(perColumnCache.get(name, "A%"));
+		assertNotNull(perColumnCache.get(id, "4"));
+		assertEquals(1, perColumnCache.getEntityCount());
+		
+		perColumnCache.invalidate(dummy(8, "NEW"), null);
+		assertEquals(0, perColumnCache.getSize());
+	}
+
+}
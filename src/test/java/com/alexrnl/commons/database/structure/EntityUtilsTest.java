@@ -0,0 +1,66 @@
+package com.alexrnl.commons.database.structure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import com.alexrnl.commons.database.Dummy;
+
+/**
+ * Test suite for the {@link EntityUtils} class.
+ * @author Alex
+ */
+public class EntityUtilsTest {
+	
+	/**
+	 * Test that the utility class cannot be instantiated.
+	 * @throws Exception
+	 *         if there is a reflection exception thrown.
+	 */
+	@Test(expected = InvocationTargetException.class)
+	public void testForbiddenInstance () throws Exception {
+		final Constructor<?> defaultConstructor = EntityUtils.class.getDeclaredConstructors()[0];
+		defaultConstructor.setAccessible(true);
+		defaultConstructor.newInstance();
+	}
+	
+	/**
+	 * Test method for {@link EntityUtils#copy(Entity)}.
+	 */
+	@Test
+	public void testCopy () {
+		final Dummy aba = new Dummy(42);
+		aba.setName("ABA");
+		final Dummy copy = EntityUtils.copy(aba);
+		assertEquals(aba, copy);
+		assertNotSame(aba, copy);
+		
+		Logger.getLogger(EntityUtils.class.getName()).setLevel(Level.SEVERE);
+		assertNull(EntityUtils.copy(new Dummy(28) {
+			/** Serial version UID */
+			private static final long	serialVersionUID	= -4211393735372738218L;
+			
+			@Override
+			public Dummy clone () throws CloneNotSupportedException {
+				throw new CloneNotSupportedException();
+			}
+		}));
+		Logger.getLogger(EntityUtils.class.getName()).setLevel(Level.INFO);
+	}
+	
+	/**
+	 * Test method for {@link EntityUtils#getKey(Entity)}.
+	 */
+	@Test
+	public void testGetKey () {
+		assertEquals(Integer.valueOf(42), EntityUtils.getKey(new Dummy(42)));
+		assertNull(EntityUtils.getKey(new Dummy()));
+	}
+}
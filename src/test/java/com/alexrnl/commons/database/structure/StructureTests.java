@@ -9,6 +9,6 @@ import org.junit.runners.Suite.SuiteClasses;
  * @author Alex
  */
 @RunWith(Suite.class)
-@SuiteClasses({ ColumnTest.class, NoIdErrorTest.class })
+@SuiteClasses({ ColumnTest.class, EntityUtilsTest.class, NoIdErrorTest.class })
 public class StructureTests {
 }